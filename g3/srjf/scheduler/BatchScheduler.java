@@ -0,0 +1,91 @@
+package g3.srjf.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Runs many independent workloads in parallel, e.g. for parameter sweeps. Every run gets its own
+ * engine and its own policy instance and produces an immutable {@link ScheduleResult}, so nothing
+ * is shared between the runs but the (read-only) workloads.
+ *
+ * The workloads are split recursively over a {@link ForkJoinPool}; idle workers steal the halves
+ * left by busy ones, which keeps all cores busy even when the workloads differ widely in size.
+ */
+public class BatchScheduler {
+  private BatchScheduler() {
+  }
+
+  /**
+   * Schedules every workload on the common fork/join pool.
+   *
+   * @param workloads the workloads to schedule
+   * @param policies  creates the policy of each run, it must return a new instance on every call
+   * @return the result of every workload, in the iteration order of the collection
+   */
+  public static List<ScheduleResult> scheduleAll(Collection<Workload> workloads, Supplier<? extends SchedulingPolicy> policies) {
+    return scheduleAll(workloads, policies, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Schedules every workload on the given fork/join pool.
+   *
+   * @param workloads the workloads to schedule
+   * @param policies  creates the policy of each run, it must return a new instance on every call
+   * @param pool      the pool the runs execute on
+   * @return the result of every workload, in the iteration order of the collection
+   */
+  public static List<ScheduleResult> scheduleAll(Collection<Workload> workloads, Supplier<? extends SchedulingPolicy> policies,
+      ForkJoinPool pool) {
+    var inputs = new ArrayList<>(workloads).toArray(new Workload[0]);
+    var results = new ScheduleResult[inputs.length];
+    pool.invoke(new BatchTask(inputs, results, policies, 0, inputs.length));
+    return Collections.unmodifiableList(Arrays.asList(results));
+  }
+
+  /**
+   * Schedules every workload with shortest job first, preemptive or not, on the common pool.
+   *
+   * @param workloads    the workloads to schedule
+   * @param isPreemptive tells the scheduler whether to use preemptive or non-premeemptive scheduling
+   * @return the result of every workload, in the iteration order of the collection
+   */
+  public static List<ScheduleResult> shortestRemainingJobFirst(Collection<Workload> workloads, boolean isPreemptive) {
+    return scheduleAll(workloads, () -> new ShortestRemainingTimePolicy(isPreemptive));
+  }
+
+  private static class BatchTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Workload[] workloads;
+    private final ScheduleResult[] results;
+    private final Supplier<? extends SchedulingPolicy> policies;
+    private final int from;
+    private final int to;
+
+    BatchTask(Workload[] workloads, ScheduleResult[] results, Supplier<? extends SchedulingPolicy> policies, int from, int to) {
+      this.workloads = workloads;
+      this.results = results;
+      this.policies = policies;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        results[from] = SimulationEngine.simulate(workloads[from], policies.get());
+        return;
+      }
+      if (to - from < 1) return;
+      var middle = (from + to) >>> 1;
+      invokeAll(new BatchTask(workloads, results, policies, from, middle),
+          new BatchTask(workloads, results, policies, middle, to));
+    }
+  }
+}
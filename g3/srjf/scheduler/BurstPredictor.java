@@ -0,0 +1,70 @@
+package g3.srjf.scheduler;
+
+/**
+ * Estimates the next CPU burst of a process before it runs, as a real scheduler has to: the actual
+ * length of a burst is only revealed to the predictor once the burst is over. The history is kept
+ * per process id of the {@link Workload}, so the processes sharing an id (the same program submitted
+ * again and again) learn from each other's bursts.
+ *
+ * Implementations keep their state in primitive arrays indexed by process id, allocated by
+ * {@link #reset(Workload)}, so predicting and observing inside the scheduling loop allocate nothing.
+ */
+public interface BurstPredictor {
+  /**
+   * Forgets the history and sizes the state for a workload, before a run.
+   *
+   * @param workload the processes about to be scheduled
+   */
+  void reset(Workload workload);
+
+  /**
+   * @param process index of the process in the workload
+   * @return the expected length of the next CPU burst of the process, not negative
+   */
+  long predict(int process);
+
+  /**
+   * The process finished a CPU burst.
+   *
+   * @param process index of the process in the workload
+   * @param burst   the actual length of the burst
+   */
+  void observe(int process, long burst);
+
+  /**
+   * @param initialPrediction the prediction of a process id with no history
+   * @return a predictor expecting the next burst of a process to be as long as its last one
+   * @throws IllegalArgumentException if the initial prediction is negative
+   */
+  static BurstPredictor lastBurst(long initialPrediction) {
+    return new ExponentialAveragingPredictor(1D, initialPrediction);
+  }
+
+  /**
+   * @return a predictor that knows every burst in advance, which makes shortest job first scheduling
+   *         on predictions the same as on the exact burst times: the baseline of the other predictors
+   */
+  static BurstPredictor oracle() {
+    return new BurstPredictor() {
+      private Workload workload;
+      private int[] completedBursts;
+
+      @Override
+      public void reset(Workload workload) {
+        this.workload = workload;
+        this.completedBursts = new int[workload.size()];
+      }
+
+      @Override
+      public long predict(int process) {
+        /** CPU bursts sit at the even positions of the sequence, I/O bursts between them */
+        return workload.getBurst(process, 2 * completedBursts[process]);
+      }
+
+      @Override
+      public void observe(int process, long burst) {
+        completedBursts[process]++;
+      }
+    };
+  }
+}
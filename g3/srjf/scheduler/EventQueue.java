@@ -0,0 +1,163 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Time ordered queue of simulation events. It is a binary min-heap over parallel primitive arrays
+ * (time, type, process, stamp) ordered by time, then by event type and finally by process, so
+ * events happening at the same instant are always handled in the same order.
+ *
+ * The stamp lets the engine invalidate an event without removing it from the heap: a completion
+ * event of a process that got preempted carries an outdated stamp and is skipped when polled.
+ */
+class EventQueue {
+  /** The running process finishes its CPU burst */
+  static final int COMPLETION = 0;
+  /** A process arrives for the first time */
+  static final int ARRIVAL = 1;
+  /** A process comes back from I/O and is ready again */
+  static final int IO_RETURN = 2;
+  /** The time slice granted to the running process by the policy is over */
+  static final int QUANTUM_EXPIRY = 3;
+
+  private long[] time;
+  private int[] type;
+  private int[] process;
+  private int[] stamp;
+  private int size;
+
+  /*
+   * Fields of the last polled event
+   */
+  private long polledTime;
+  private int polledType;
+  private int polledProcess;
+  private int polledStamp;
+
+  EventQueue(int capacity) {
+    capacity = Math.max(capacity, 4);
+    time = new long[capacity];
+    type = new int[capacity];
+    process = new int[capacity];
+    stamp = new int[capacity];
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void add(long eventTime, int eventType, int eventProcess, int eventStamp) {
+    if (size == time.length) grow();
+    var i = size++;
+    while (i > 0) {
+      var parent = (i - 1) >>> 1;
+      if (!less(eventTime, eventType, eventProcess, parent)) break;
+      move(parent, i);
+      i = parent;
+    }
+    time[i] = eventTime;
+    type[i] = eventType;
+    process[i] = eventProcess;
+    stamp[i] = eventStamp;
+  }
+
+  /**
+   * @return the time of the next event
+   * @throws NoSuchElementException if the queue is empty
+   */
+  long peekTime() {
+    if (size == 0) throw new NoSuchElementException("Event queue is empty");
+    return time[0];
+  }
+
+  /**
+   * @return the type of the next event
+   * @throws NoSuchElementException if the queue is empty
+   */
+  int peekType() {
+    if (size == 0) throw new NoSuchElementException("Event queue is empty");
+    return type[0];
+  }
+
+  /**
+   * Removes the next event; its fields are then available through the polled* accessors.
+   *
+   * @throws NoSuchElementException if the queue is empty
+   */
+  void poll() {
+    if (size == 0) throw new NoSuchElementException("Event queue is empty");
+    polledTime = time[0];
+    polledType = type[0];
+    polledProcess = process[0];
+    polledStamp = stamp[0];
+    if (--size == 0) return;
+
+    var lastTime = time[size];
+    var lastType = type[size];
+    var lastProcess = process[size];
+    var lastStamp = stamp[size];
+    var i = 0;
+    var half = size >>> 1;
+    while (i < half) {
+      var child = 2 * i + 1;
+      if (child + 1 < size && less(time[child + 1], type[child + 1], process[child + 1], child)) child++;
+      if (!less(time[child], type[child], process[child], lastTime, lastType, lastProcess)) break;
+      move(child, i);
+      i = child;
+    }
+    time[i] = lastTime;
+    type[i] = lastType;
+    process[i] = lastProcess;
+    stamp[i] = lastStamp;
+  }
+
+  long polledTime() {
+    return polledTime;
+  }
+
+  int polledType() {
+    return polledType;
+  }
+
+  int polledProcess() {
+    return polledProcess;
+  }
+
+  int polledStamp() {
+    return polledStamp;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  private boolean less(long t, int ty, int p, int i) {
+    return less(t, ty, p, time[i], type[i], process[i]);
+  }
+
+  private static boolean less(long t1, int ty1, int p1, long t2, int ty2, int p2) {
+    if (t1 != t2) return t1 < t2;
+    if (ty1 != ty2) return ty1 < ty2;
+    return p1 < p2;
+  }
+
+  private void move(int from, int to) {
+    time[to] = time[from];
+    type[to] = type[from];
+    process[to] = process[from];
+    stamp[to] = stamp[from];
+  }
+
+  private void grow() {
+    var capacity = time.length * 2;
+    time = Arrays.copyOf(time, capacity);
+    type = Arrays.copyOf(type, capacity);
+    process = Arrays.copyOf(process, capacity);
+    stamp = Arrays.copyOf(stamp, capacity);
+  }
+}
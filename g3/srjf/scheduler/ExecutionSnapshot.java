@@ -2,8 +2,8 @@ package g3.srjf.scheduler;
 
 public class ExecutionSnapshot {
   private String processId;
-  private int tInitial;
-  private int tFinal;
+  private long tInitial;
+  private long tFinal;
 
   /**
    * This class is used to represent the process the instant it is under execution
@@ -13,7 +13,7 @@ public class ExecutionSnapshot {
    * @param tInitial the instant the CPU began exectuing the process
    * @param tFinal the instant the CPU finished/suspended executing the process
    */
-  public ExecutionSnapshot(String processId, int tInitial, int tFinal) {
+  public ExecutionSnapshot(String processId, long tInitial, long tFinal) {
     this.processId = processId;
     this.tInitial = tInitial;
     this.tFinal = tFinal;
@@ -27,19 +27,19 @@ public class ExecutionSnapshot {
     this.processId = processId;
   }
 
-  public int gettInitial() {
+  public long gettInitial() {
     return tInitial;
   }
 
-  public void settInitial(int tInitial) {
+  public void settInitial(long tInitial) {
     this.tInitial = tInitial;
   }
 
-  public int gettFinal() {
+  public long gettFinal() {
     return tFinal;
   }
 
-  public void settFinal(int tFinal) {
+  public void settFinal(long tFinal) {
     this.tFinal = tFinal;
   }
 
@@ -0,0 +1,57 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Exponential average of the past bursts of a process id: after a burst of length t the prediction
+ * becomes {@code alpha * t + (1 - alpha) * prediction}. An alpha of 1 only trusts the last burst, an
+ * alpha of 0 never moves from the initial prediction; in between, the weight of a burst decays
+ * geometrically with its age.
+ *
+ * The predictions are kept as doubles, one per process id, so small alphas do not get stuck on
+ * rounding; they are rounded when read.
+ */
+public class ExponentialAveragingPredictor implements BurstPredictor {
+  private final double alpha;
+  private final long initialPrediction;
+  private Workload workload;
+  private double[] prediction;
+
+  /**
+   * @param alpha             the weight of the last burst, between 0 and 1
+   * @param initialPrediction the prediction of a process id with no history
+   * @throws IllegalArgumentException if alpha is not between 0 and 1 or the initial prediction is
+   *                                  negative
+   */
+  public ExponentialAveragingPredictor(double alpha, long initialPrediction) {
+    if (!(alpha >= 0D && alpha <= 1D)) throw new IllegalArgumentException("Alpha must be between 0 and 1: " + alpha);
+    if (initialPrediction < 0) throw new IllegalArgumentException("Negative initial prediction: " + initialPrediction);
+    this.alpha = alpha;
+    this.initialPrediction = initialPrediction;
+  }
+
+  public double getAlpha() {
+    return alpha;
+  }
+  public long getInitialPrediction() {
+    return initialPrediction;
+  }
+
+  @Override
+  public void reset(Workload workload) {
+    this.workload = workload;
+    this.prediction = new double[workload.getIdCount()];
+    Arrays.fill(prediction, initialPrediction);
+  }
+
+  @Override
+  public long predict(int process) {
+    return Math.round(prediction[workload.getPidIndex(process)]);
+  }
+
+  @Override
+  public void observe(int process, long burst) {
+    var id = workload.getPidIndex(process);
+    prediction[id] = alpha * burst + (1D - alpha) * prediction[id];
+  }
+}
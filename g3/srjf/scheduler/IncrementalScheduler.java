@@ -0,0 +1,343 @@
+package g3.srjf.scheduler;
+
+import java.util.ArrayList;
+
+/**
+ * Shortest job first scheduling of a workload that is edited between runs, for what-if analysis.
+ * While it simulates, the scheduler saves a checkpoint of its state (clock, ready queue, running
+ * process, position in the arrival order, length of the schedule table) every checkpointInterval
+ * units of simulated time. After burst or arrival times are changed, {@link #schedule()} restarts
+ * from the last checkpoint taken before the earliest instant an edit can have an effect, instead of
+ * simulating the whole workload again.
+ *
+ * Checkpoints are taken at the end of an instant, once every event of that instant has been handled,
+ * so a checkpoint at time t stays valid as long as the edited processes arrive after t (both before
+ * and after the edit). Each checkpoint copies the ready queue, so a shorter interval makes resuming
+ * cheaper at the price of more memory.
+ *
+ * The schedule produced is the one {@link ShortestRemainingTimePolicy} produces on the edited
+ * workload.
+ */
+public class IncrementalScheduler {
+  private final Workload workload;
+  private final boolean isPreemptive;
+  private final long checkpointInterval;
+
+  /*
+   * The edited columns and the process indices sorted by arrival time, then by index
+   */
+  private final long[] burstTime;
+  private final long[] arrivalTime;
+  private final int[] order;
+
+  /*
+   * Simulation state
+   */
+  private final long[] remaining;
+  private final IntReadyQueue readyQueue;
+  private final ScheduleTable scheduleTable;
+  private MetricsAccumulator metrics;
+  private long timer;
+  private int cursor;
+  private int running = -1;
+  private long runStart;
+  private long idleSince;
+  private long finishTime;
+
+  private final ArrayList<Checkpoint> checkpoints = new ArrayList<>();
+  private long nextCheckpoint;
+
+  /*
+   * Earliest arrival time touched by the edits since the last run, MAX_VALUE when there are none
+   */
+  private long invalidFrom = Long.MAX_VALUE;
+  private long resumeTime = -1;
+  private ScheduleResult result;
+
+  /**
+   * State of the simulation at the end of an instant
+   */
+  private static final class Checkpoint {
+    final long time;
+    final int cursor;
+    final int running;
+    final long runStart;
+    final long runningRemaining;
+    final long idleSince;
+    final long finishTime;
+    final int tableSize;
+    final long lastFinal;
+    final int[] queued;
+    final long[] keys;
+
+    Checkpoint(IncrementalScheduler scheduler) {
+      this.time = scheduler.timer;
+      this.cursor = scheduler.cursor;
+      this.running = scheduler.running;
+      this.runStart = scheduler.runStart;
+      this.runningRemaining = scheduler.running >= 0 ? scheduler.remaining[scheduler.running] : 0;
+      this.idleSince = scheduler.idleSince;
+      this.finishTime = scheduler.finishTime;
+      this.tableSize = scheduler.scheduleTable.size();
+      this.lastFinal = tableSize > 0 ? scheduler.scheduleTable.getLastFinal() : 0;
+      this.queued = scheduler.readyQueue.toArray();
+      this.keys = new long[queued.length];
+      for (var i = 0; i < queued.length; i++) keys[i] = scheduler.readyQueue.getKey(queued[i]);
+    }
+  }
+
+  /**
+   * @param workload           the processes to be executed, copied before any edit
+   * @param isPreemptive       whether a newly arrived process can preempt the running one
+   * @param checkpointInterval simulated time between two checkpoints
+   * @throws IllegalArgumentException if the interval is not positive or a process has I/O bursts
+   */
+  public IncrementalScheduler(Workload workload, boolean isPreemptive, long checkpointInterval) {
+    if (checkpointInterval <= 0)
+      throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+    if (workload.hasIo()) throw new IllegalArgumentException("Processes with I/O bursts cannot be edited");
+    var n = workload.size();
+    this.workload = workload;
+    this.isPreemptive = isPreemptive;
+    this.checkpointInterval = checkpointInterval;
+    this.burstTime = new long[n];
+    this.arrivalTime = new long[n];
+    for (var i = 0; i < n; i++) {
+      burstTime[i] = workload.getBurstTime(i);
+      arrivalTime[i] = workload.getArrivalTime(i);
+    }
+    this.order = workload.getArrivalOrder().clone();
+    this.remaining = new long[n];
+    this.readyQueue = new IntReadyQueue(n);
+    this.scheduleTable = new ScheduleTable();
+    this.scheduleTable.setNames(workload::getName);
+  }
+
+  public boolean isPreemptive() {
+    return isPreemptive;
+  }
+  public long getCheckpointInterval() {
+    return checkpointInterval;
+  }
+  public int getCheckpointCount() {
+    return checkpoints.size();
+  }
+
+  /**
+   * @return the instant the last call to {@link #schedule()} resumed from, 0 for a full run and -1
+   *         if nothing was simulated yet or the last call returned the previous result
+   */
+  public long getResumeTime() {
+    return resumeTime;
+  }
+
+  public long getBurstTime(int process) {
+    return burstTime[process];
+  }
+
+  public long getArrivalTime(int process) {
+    return arrivalTime[process];
+  }
+
+  /**
+   * Changes the burst time of a process. The change is simulated by the next {@link #schedule()}.
+   *
+   * @param process index of the process in the workload
+   * @param time    the new burst time
+   * @throws IllegalArgumentException if the time is negative
+   */
+  public void setBurstTime(int process, long time) {
+    if (time < 0) throw new IllegalArgumentException("Process " + process + " cannot have a negative burst time");
+    if (burstTime[process] == time) return;
+    burstTime[process] = time;
+    invalidFrom = Math.min(invalidFrom, arrivalTime[process]);
+  }
+
+  /**
+   * Changes the arrival time of a process. The change is simulated by the next {@link #schedule()}.
+   *
+   * @param process index of the process in the workload
+   * @param time    the new arrival time
+   * @throws IllegalArgumentException if the time is negative
+   */
+  public void setArrivalTime(int process, long time) {
+    if (time < 0) throw new IllegalArgumentException("Process " + process + " cannot have a negative arrival time");
+    var old = arrivalTime[process];
+    if (old == time) return;
+    invalidFrom = Math.min(invalidFrom, Math.min(old, time));
+
+    /** Move the process to its new place in the arrival order */
+    var last = order.length - 1;
+    var from = position(process, order.length);
+    System.arraycopy(order, from + 1, order, from, last - from);
+    arrivalTime[process] = time;
+    var to = -position(process, last) - 1;
+    System.arraycopy(order, to, order, to + 1, last - to);
+    order[to] = process;
+  }
+
+  /**
+   * Binary search of the first entries of the arrival order, which is sorted by arrival time and then
+   * by index.
+   *
+   * @return the position of the process if it is found, otherwise -(insertion point) - 1
+   */
+  private int position(int process, int length) {
+    var arrival = arrivalTime[process];
+    var low = 0;
+    var high = length - 1;
+    while (low <= high) {
+      var mid = (low + high) >>> 1;
+      var other = order[mid];
+      if (arrivalTime[other] < arrival || (arrivalTime[other] == arrival && other < process)) low = mid + 1;
+      else if (other != process) high = mid - 1;
+      else return mid;
+    }
+    return -low - 1;
+  }
+
+  /**
+   * Schedules the workload with its edits, resuming from the latest checkpoint the edits leave valid.
+   *
+   * @return the immutable schedule and metrics of the edited workload
+   */
+  public ScheduleResult schedule() {
+    if (result != null && invalidFrom == Long.MAX_VALUE) {
+      resumeTime = -1;
+      return result;
+    }
+    restore();
+    run();
+    invalidFrom = Long.MAX_VALUE;
+    result = new ScheduleResult(workload.withTimes(burstTime.clone(), arrivalTime.clone()), scheduleTable.copy(),
+        metrics.copy(), finishTime);
+    return result;
+  }
+
+  /**
+   * Restores the latest checkpoint taken before invalidFrom, or the initial state if there is none,
+   * and drops the checkpoints after it.
+   */
+  private void restore() {
+    var low = 0;
+    var high = checkpoints.size() - 1;
+    while (low <= high) {
+      var mid = (low + high) >>> 1;
+      if (checkpoints.get(mid).time < invalidFrom) low = mid + 1;
+      else high = mid - 1;
+    }
+    var kept = result == null ? 0 : low;
+    checkpoints.subList(kept, checkpoints.size()).clear();
+    readyQueue.clear();
+
+    if (kept == 0) {
+      resumeTime = 0;
+      metrics = new MetricsAccumulator(burstTime.length);
+      scheduleTable.clear();
+      System.arraycopy(burstTime, 0, remaining, 0, burstTime.length);
+      timer = 0;
+      cursor = 0;
+      running = -1;
+      idleSince = 0;
+      finishTime = 0;
+      nextCheckpoint = 0;
+      admitArrivals();
+      return;
+    }
+
+    var checkpoint = checkpoints.get(kept - 1);
+    resumeTime = checkpoint.time;
+    timer = checkpoint.time;
+    cursor = checkpoint.cursor;
+    running = checkpoint.running;
+    runStart = checkpoint.runStart;
+    idleSince = checkpoint.idleSince;
+    finishTime = checkpoint.finishTime;
+    nextCheckpoint = checkpointAfter(timer);
+    scheduleTable.truncate(checkpoint.tableSize, checkpoint.lastFinal);
+    for (var i = 0; i < checkpoint.queued.length; i++) {
+      var process = checkpoint.queued[i];
+      remaining[process] = checkpoint.keys[i];
+      readyQueue.add(process, remaining[process], arrivalTime[process]);
+      metrics.rollback(process, timer);
+    }
+    if (running >= 0) {
+      remaining[running] = checkpoint.runningRemaining;
+      metrics.rollback(running, timer);
+    }
+
+    /** Processes arriving after the checkpoint start over */
+    for (var i = cursor; i < order.length; i++) {
+      var process = order[i];
+      remaining[process] = burstTime[process];
+      metrics.rollback(process, timer);
+    }
+  }
+
+  private void run() {
+    while (true) {
+      decide();
+      var finishAt = running >= 0 ? runStart + remaining[running] : Long.MAX_VALUE;
+      var nextArrival = cursor < order.length ? arrivalTime[order[cursor]] : Long.MAX_VALUE;
+      var next = Math.min(finishAt, nextArrival);
+      if (running < 0 && cursor == order.length) break;
+      if (next > timer && timer >= nextCheckpoint) {
+        checkpoints.add(new Checkpoint(this));
+        nextCheckpoint = checkpointAfter(timer);
+      }
+      timer = next;
+      if (finishAt == timer) complete();
+      admitArrivals();
+    }
+    if (scheduleTable.isEmpty()) scheduleTable.record(ScheduleTable.IDLE, 0, 0);
+  }
+
+  /**
+   * @return the instant of the checkpoint following one taken at the given time, saturated so that a
+   *         large interval does not wrap around
+   */
+  private long checkpointAfter(long time) {
+    return time > Long.MAX_VALUE - checkpointInterval ? Long.MAX_VALUE : time + checkpointInterval;
+  }
+
+  private void admitArrivals() {
+    while (cursor < order.length && arrivalTime[order[cursor]] == timer) {
+      var process = order[cursor++];
+      readyQueue.add(process, remaining[process], arrivalTime[process]);
+    }
+  }
+
+  /**
+   * Preempts the running process if a shorter one is ready, and gives an idle CPU to the shortest
+   * ready process.
+   */
+  private void decide() {
+    if (running >= 0 && isPreemptive && !readyQueue.isEmpty()) {
+      if (readyQueue.getKey(readyQueue.peek()) < remaining[running] - (timer - runStart)) {
+        var preempted = running;
+        stopRunning();
+        readyQueue.add(preempted, remaining[preempted], arrivalTime[preempted]);
+      }
+    }
+    if (running < 0 && !readyQueue.isEmpty()) {
+      running = readyQueue.poll();
+      runStart = timer;
+      if (idleSince < timer) scheduleTable.record(ScheduleTable.IDLE, idleSince, timer);
+      metrics.dispatched(running, timer);
+    }
+  }
+
+  private void complete() {
+    var process = running;
+    stopRunning();
+    metrics.completed(process, timer);
+    finishTime = timer;
+  }
+
+  private void stopRunning() {
+    scheduleTable.record(workload.getPidIndex(running), runStart, timer);
+    remaining[running] -= timer - runStart;
+    running = -1;
+    idleSince = timer;
+  }
+}
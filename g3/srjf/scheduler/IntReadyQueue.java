@@ -0,0 +1,158 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Ready queue specialized for primitive keys. It is a binary min-heap of process indices
+ * (0 .. capacity - 1) ordered by key, then by arrival time and finally by index, so two
+ * processes never compare equal and the order does not depend on the heap internals.
+ *
+ * The key, the arrival time and the heap position of every process live in parallel primitive
+ * arrays allocated up front (they only grow through {@link #ensureCapacity(int)}), so none of
+ * the queue operations allocate. The position array answers {@link #contains(int)} in O(1) and
+ * rejects a process added twice.
+ */
+public class IntReadyQueue {
+  private int[] heap;
+  private int[] position;
+  private long[] key;
+  private long[] arrival;
+  private int size;
+
+  /**
+   * @param capacity number of distinct process indices the queue can hold
+   */
+  public IntReadyQueue(int capacity) {
+    this.heap = new int[capacity];
+    this.position = new int[capacity];
+    this.key = new long[capacity];
+    this.arrival = new long[capacity];
+    Arrays.fill(position, -1);
+  }
+
+  public int capacity() {
+    return heap.length;
+  }
+
+  /**
+   * Grows the queue so it can hold process indices up to capacity - 1.
+   *
+   * @param capacity the number of distinct process indices the queue must be able to hold
+   */
+  public void ensureCapacity(int capacity) {
+    if (capacity <= heap.length) return;
+    var old = heap.length;
+    heap = Arrays.copyOf(heap, capacity);
+    position = Arrays.copyOf(position, capacity);
+    key = Arrays.copyOf(key, capacity);
+    arrival = Arrays.copyOf(arrival, capacity);
+    Arrays.fill(position, old, capacity, -1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean contains(int process) {
+    return position[process] >= 0;
+  }
+
+  public long getKey(int process) {
+    return key[process];
+  }
+
+  /**
+   * Adds a process to the queue.
+   *
+   * @param process     index of the process
+   * @param processKey  the value the queue is ordered by (e.g. the remaining burst time)
+   * @param arrivalTime the arrival time of the process, used to break ties on the key
+   * @throws IllegalStateException if the process is already queued
+   */
+  public void add(int process, long processKey, long arrivalTime) {
+    if (position[process] >= 0) throw new IllegalStateException("Process " + process + " is already queued");
+    key[process] = processKey;
+    arrival[process] = arrivalTime;
+    heap[size] = process;
+    position[process] = size;
+    siftUp(size++);
+  }
+
+  /**
+   * @return the index of the process at the front of the queue
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public int peek() {
+    if (size == 0) throw new NoSuchElementException("Ready queue is empty");
+    return heap[0];
+  }
+
+  /**
+   * Removes and returns the process at the front of the queue.
+   *
+   * @return the index of the removed process
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public int poll() {
+    var front = peek();
+    position[front] = -1;
+    if (--size > 0) {
+      heap[0] = heap[size];
+      position[heap[0]] = 0;
+      siftDown(0);
+    }
+    return front;
+  }
+
+  /**
+   * @return the queued process indices, in no particular order
+   */
+  public int[] toArray() {
+    return Arrays.copyOf(heap, size);
+  }
+
+  /** Empties the queue, keeping the allocated arrays for reuse */
+  public void clear() {
+    for (var i = 0; i < size; i++) position[heap[i]] = -1;
+    size = 0;
+  }
+
+  private boolean less(int p1, int p2) {
+    if (key[p1] != key[p2]) return key[p1] < key[p2];
+    if (arrival[p1] != arrival[p2]) return arrival[p1] < arrival[p2];
+    return p1 < p2;
+  }
+
+  private void siftUp(int i) {
+    var process = heap[i];
+    while (i > 0) {
+      var parent = (i - 1) >>> 1;
+      if (!less(process, heap[parent])) break;
+      heap[i] = heap[parent];
+      position[heap[i]] = i;
+      i = parent;
+    }
+    heap[i] = process;
+    position[process] = i;
+  }
+
+  private void siftDown(int i) {
+    var process = heap[i];
+    var half = size >>> 1;
+    while (i < half) {
+      var child = 2 * i + 1;
+      if (child + 1 < size && less(heap[child + 1], heap[child])) child++;
+      if (!less(heap[child], process)) break;
+      heap[i] = heap[child];
+      position[heap[i]] = i;
+      i = child;
+    }
+    heap[i] = process;
+    position[process] = i;
+  }
+}
@@ -0,0 +1,135 @@
+package g3.srjf.scheduler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@link SchedulerListener} emitting Java Flight Recorder events, so scheduling runs show up in a
+ * recording next to GC and allocation events:
+ * <ul>
+ * <li>{@code g3.srjf.ScheduleRun}: one per run, with its duration and counters</li>
+ * <li>{@code g3.srjf.Preemption}: one per preemption</li>
+ * <li>{@code g3.srjf.IdleGap}: one per idle slice</li>
+ * </ul>
+ * The per-preemption and per-idle events are only built when they are enabled in a running recording,
+ * which is checked on their event type without allocating; the run counters are always kept, which
+ * costs a few field increments per event.
+ */
+public class JfrSchedulerListener implements SchedulerListener {
+  @Name("g3.srjf.ScheduleRun")
+  @Label("Schedule Run")
+  @Category("Scheduler")
+  @Description("A scheduling run from its first to its last process")
+  static class ScheduleRunEvent extends Event {
+    @Label("Processes")
+    int processes;
+    @Label("Finish Time")
+    long finishTime;
+    @Label("Enqueues")
+    long enqueues;
+    @Label("Dequeues")
+    long dequeues;
+    @Label("Preemptions")
+    long preemptions;
+    @Label("Idle Gaps")
+    long idleGaps;
+    @Label("Ready Queue High Water Mark")
+    int readyQueueHighWater;
+  }
+
+  @Name("g3.srjf.Preemption")
+  @Label("Preemption")
+  @Category("Scheduler")
+  static class PreemptionEvent extends Event {
+    @Label("Process")
+    String pID;
+    @Label("Simulated Time")
+    long time;
+    @Label("Remaining Time")
+    long remaining;
+  }
+
+  @Name("g3.srjf.IdleGap")
+  @Label("Idle Gap")
+  @Category("Scheduler")
+  static class IdleGapEvent extends Event {
+    @Label("Simulated Start")
+    long tInitial;
+    @Label("Simulated End")
+    long tFinal;
+  }
+
+  private static final EventType PREEMPTION = EventType.getEventType(PreemptionEvent.class);
+  private static final EventType IDLE_GAP = EventType.getEventType(IdleGapEvent.class);
+
+  private ScheduleRunEvent run;
+  private long enqueues;
+  private long dequeues;
+  private long preemptions;
+  private long idleGaps;
+  private int readyQueueHighWater;
+
+  @Override
+  public void runStarted(int processCount) {
+    run = new ScheduleRunEvent();
+    run.processes = processCount;
+    enqueues = 0;
+    dequeues = 0;
+    preemptions = 0;
+    idleGaps = 0;
+    readyQueueHighWater = 0;
+    run.begin();
+  }
+
+  @Override
+  public void enqueued(String pID, long time, int readyQueueSize) {
+    enqueues++;
+    if (readyQueueSize > readyQueueHighWater) readyQueueHighWater = readyQueueSize;
+  }
+
+  @Override
+  public void dequeued(String pID, long time) {
+    dequeues++;
+  }
+
+  @Override
+  public void preempted(String pID, long time, long remaining) {
+    preemptions++;
+    if (!PREEMPTION.isEnabled()) return;
+    var event = new PreemptionEvent();
+    event.pID = pID;
+    event.time = time;
+    event.remaining = remaining;
+    event.commit();
+  }
+
+  @Override
+  public void idle(long tInitial, long tFinal) {
+    idleGaps++;
+    if (!IDLE_GAP.isEnabled()) return;
+    var event = new IdleGapEvent();
+    event.tInitial = tInitial;
+    event.tFinal = tFinal;
+    event.commit();
+  }
+
+  @Override
+  public void runFinished(long finishTime) {
+    if (run == null) return;
+    run.end();
+    if (run.shouldCommit()) {
+      run.finishTime = finishTime;
+      run.enqueues = enqueues;
+      run.dequeues = dequeues;
+      run.preemptions = preemptions;
+      run.idleGaps = idleGaps;
+      run.readyQueueHighWater = readyQueueHighWater;
+      run.commit();
+    }
+    run = null;
+  }
+}
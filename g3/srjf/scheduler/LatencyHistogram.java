@@ -0,0 +1,187 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Fixed memory histogram of non negative time values (waiting, response, turnaround times...) with
+ * logarithmic buckets, in the spirit of HdrHistogram. Values below 2^precisionBits are counted
+ * exactly; larger values fall in buckets whose width is 2^-(precisionBits - 1) of their magnitude,
+ * so every reported percentile is within that relative error of the recorded value.
+ *
+ * The bucket array depends only on the precision, not on how many values are recorded (3712 longs
+ * with the default 7 bits), and histograms of the same precision can be merged with
+ * {@link #add(LatencyHistogram)}, e.g. to combine the runs of a parallel batch.
+ */
+public class LatencyHistogram {
+  /** Default precision: values are kept within 1/64 (about 1.6%) of their magnitude */
+  public static final int DEFAULT_PRECISION_BITS = 7;
+
+  private final int precisionBits;
+  private final int subBuckets;
+  private final int halfSubBuckets;
+  private final long[] counts;
+  private long count;
+  private long min = Long.MAX_VALUE;
+  private long max = Long.MIN_VALUE;
+  private double sum;
+
+  public LatencyHistogram() {
+    this(DEFAULT_PRECISION_BITS);
+  }
+
+  /**
+   * @param precisionBits number of significant bits kept per value, from 2 to 16
+   * @throws IllegalArgumentException if the precision is out of range
+   */
+  public LatencyHistogram(int precisionBits) {
+    if (precisionBits < 2 || precisionBits > 16)
+      throw new IllegalArgumentException("Precision must be between 2 and 16 bits: " + precisionBits);
+    this.precisionBits = precisionBits;
+    this.subBuckets = 1 << precisionBits;
+    this.halfSubBuckets = subBuckets >> 1;
+    this.counts = new long[subBuckets + (63 - precisionBits) * halfSubBuckets];
+  }
+
+  public int getPrecisionBits() {
+    return precisionBits;
+  }
+
+  /**
+   * @param value the value to record
+   * @throws IllegalArgumentException if the value is negative
+   */
+  public void record(long value) {
+    if (value < 0) throw new IllegalArgumentException("Cannot record negative value " + value);
+    counts[indexOf(value)]++;
+    count++;
+    sum += value;
+    if (value < min) min = value;
+    if (value > max) max = value;
+  }
+
+  /**
+   * Adds every value recorded by another histogram to this one.
+   *
+   * @param other a histogram of the same precision
+   * @throws IllegalArgumentException if the precisions differ
+   */
+  public void add(LatencyHistogram other) {
+    if (other.precisionBits != precisionBits)
+      throw new IllegalArgumentException("Cannot merge histograms of " + other.precisionBits + " and " + precisionBits + " bits");
+    for (var i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+    count += other.count;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * @param histograms histograms of the same precision
+   * @return a new histogram holding the values of all of them
+   */
+  public static LatencyHistogram merge(Iterable<LatencyHistogram> histograms) {
+    LatencyHistogram merged = null;
+    for (var histogram : histograms) {
+      if (merged == null) merged = new LatencyHistogram(histogram.precisionBits);
+      merged.add(histogram);
+    }
+    return merged == null ? new LatencyHistogram() : merged;
+  }
+
+  public LatencyHistogram copy() {
+    var copy = new LatencyHistogram(precisionBits);
+    copy.add(this);
+    return copy;
+  }
+
+  public void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    sum = 0;
+    min = Long.MAX_VALUE;
+    max = Long.MIN_VALUE;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the smallest recorded value, 0 if nothing was recorded
+   */
+  public long getMin() {
+    return count == 0 ? 0 : min;
+  }
+
+  /**
+   * @return the largest recorded value, 0 if nothing was recorded
+   */
+  public long getMax() {
+    return count == 0 ? 0 : max;
+  }
+
+  /**
+   * @return the exact mean of the recorded values, 0 if nothing was recorded
+   */
+  public double getMean() {
+    return count == 0 ? 0D : sum / count;
+  }
+
+  /**
+   * Returns the value below or at which the given percentage of the recorded values fall. The value is
+   * the upper end of its bucket (never more than the largest recorded value), so it is accurate within
+   * the precision of the histogram.
+   *
+   * @param percentile a percentage between 0 and 100, e.g. 99.9
+   * @return the value at the percentile, 0 if nothing was recorded
+   * @throws IllegalArgumentException if the percentile is out of range
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile out of range: " + percentile);
+    if (count == 0) return 0;
+    var rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+    var seen = 0L;
+    for (var i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) return Math.min(highestValueOf(i), max);
+    }
+    return max;
+  }
+
+  public long getP50() {
+    return getValueAtPercentile(50);
+  }
+
+  public long getP95() {
+    return getValueAtPercentile(95);
+  }
+
+  public long getP99() {
+    return getValueAtPercentile(99);
+  }
+
+  public long getP999() {
+    return getValueAtPercentile(99.9);
+  }
+
+  private int indexOf(long value) {
+    if (value < subBuckets) return (int) value;
+    var magnitude = 63 - Long.numberOfLeadingZeros(value);
+    var sub = (int) (value >>> (magnitude - precisionBits + 1));
+    return subBuckets + (magnitude - precisionBits) * halfSubBuckets + (sub - halfSubBuckets);
+  }
+
+  private long highestValueOf(int index) {
+    if (index < subBuckets) return index;
+    var k = index - subBuckets;
+    var shift = k / halfSubBuckets + 1;
+    long sub = k % halfSubBuckets + halfSubBuckets;
+    return ((sub + 1) << shift) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram [count=" + count + ", mean=" + getMean() + ", p50=" + getP50() + ", p95=" + getP95()
+        + ", p99=" + getP99() + ", p99.9=" + getP999() + ", max=" + getMax() + "]";
+  }
+}
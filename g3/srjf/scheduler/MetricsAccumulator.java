@@ -0,0 +1,96 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Collects the per-process scheduling events while the schedule loop runs, so that the
+ * completion, turnaround, waiting and response times are known the moment the loop exits
+ * without walking the schedule table again.
+ *
+ * Processes are addressed by a dense slot number (0 .. processCount - 1) and the events
+ * are kept in primitive arrays, a value of -1 meaning the event did not happen yet.
+ */
+class MetricsAccumulator {
+  private final long[] firstDispatch;
+  private final long[] completion;
+  private int completed;
+
+  /**
+   * @param processCount number of process slots the accumulator tracks
+   */
+  MetricsAccumulator(int processCount) {
+    this.firstDispatch = new long[processCount];
+    this.completion = new long[processCount];
+    Arrays.fill(firstDispatch, -1);
+    Arrays.fill(completion, -1);
+  }
+
+  private MetricsAccumulator(long[] firstDispatch, long[] completion, int completed) {
+    this.firstDispatch = firstDispatch;
+    this.completion = completion;
+    this.completed = completed;
+  }
+
+  /**
+   * Records that the process got the CPU at the given instant. Only the first dispatch is
+   * kept since that is the one the response time is measured from.
+   *
+   * @param slot the slot of the dispatched process
+   * @param time the instant the CPU began executing the process
+   */
+  void dispatched(int slot, long time) {
+    if (firstDispatch[slot] < 0) firstDispatch[slot] = time;
+  }
+
+  /**
+   * Records that the process finished its execution at the given instant.
+   *
+   * @param slot the slot of the finished process
+   * @param time the instant the process finished executing
+   */
+  void completed(int slot, long time) {
+    if (completion[slot] < 0) completed++;
+    completion[slot] = time;
+  }
+
+  /**
+   * Forgets the events recorded after the given instant, as if the run had stopped there.
+   *
+   * @param slot the slot of the process
+   * @param time the last instant whose events are kept
+   */
+  void rollback(int slot, long time) {
+    if (firstDispatch[slot] > time) firstDispatch[slot] = -1;
+    if (completion[slot] > time) {
+      completion[slot] = -1;
+      completed--;
+    }
+  }
+
+  /**
+   * @return an independent copy of the recorded events
+   */
+  MetricsAccumulator copy() {
+    return new MetricsAccumulator(firstDispatch.clone(), completion.clone(), completed);
+  }
+
+  int size() {
+    return completion.length;
+  }
+
+  int getCompletedCount() {
+    return completed;
+  }
+
+  boolean isCompleted(int slot) {
+    return completion[slot] >= 0;
+  }
+
+  long getFirstDispatchTime(int slot) {
+    return firstDispatch[slot];
+  }
+
+  long getCompletionTime(int slot) {
+    return completion[slot];
+  }
+}
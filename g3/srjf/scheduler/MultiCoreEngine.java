@@ -0,0 +1,418 @@
+package g3.srjf.scheduler;
+
+/**
+ * Discrete event simulation of shortest remaining time first scheduling on several cores sharing one
+ * clock. Every core has its own run queues and its own {@link ScheduleTable}:
+ * <ul>
+ * <li>an arriving process goes to an idle core if there is one; otherwise, when preemptive, to the
+ * core whose next process has the most time left if the newcomer needs less, and to the least
+ * loaded core (queued plus remaining work) in any other case</li>
+ * <li>a core running out of work steals the shortest process of the core with the longest run
+ * queue</li>
+ * <li>a process pinned to a core is kept in a separate queue of that core, it is never placed
+ * elsewhere nor stolen</li>
+ * <li>a preempted process goes back to the run queue of the core it ran on</li>
+ * <li>once the decisions of an instant are taken, idle cores steal the processes free to run anywhere
+ * left waiting, preempted or beaten to their core by a pinned process</li>
+ * </ul>
+ * Decisions are only taken once every event of an instant has been handled, and only for the cores
+ * those events touched, so a step costs O(log n) per event plus a scan of the cores when a
+ * process arrives or a core needs to steal. Idle cores are kept in a bitset.
+ *
+ * With a {@link SwitchCostModel} a dispatch first spends the cost of the switch, migration included
+ * when the process last ran on another core, recorded as a {@link ScheduleTable#SWITCH} slice. The
+ * busy time of a core only counts the time it ran processes.
+ */
+class MultiCoreEngine {
+  private final Workload workload;
+  private final int cores;
+  private final boolean isPreemptive;
+  private final int[] affinity;
+  private final SwitchCostModel switchCost;
+  private final MetricsAccumulator metrics;
+  private final EventQueue events;
+
+  /*
+   * Per-process state: CPU time still needed and the core the process last ran on (-1 if never)
+   */
+  private final long[] remaining;
+  private final int[] lastCore;
+
+  /*
+   * Per-core state. A core is running a process, or idle since idleSince. The running process
+   * executes from runStart on, once the switch to it started at switchStart is over; lastRan is the
+   * process the core last ran, -1 if none. The switch stays open when its process is preempted before
+   * executing anything, and previousCore is the core the running process ran on before this one.
+   */
+  private final ScheduleTable[] scheduleTables;
+  private final RunQueue[] sharedQueues;
+  private final RunQueue[] pinnedQueues;
+  private final int[] running;
+  private final long[] runStart;
+  private final long[] switchStart;
+  private final int[] lastRan;
+  private final boolean[] switchOpen;
+  private final int[] previousCore;
+  private final int[] runStamp;
+  private final long[] idleSince;
+  private final long[] busyTime;
+
+  /*
+   * Cores that are idle with empty run queues, one bit per core
+   */
+  private final long[] available;
+
+  /*
+   * Cores touched by the events of the current instant, and whether their decisions left a process
+   * free to run anywhere waiting in a run queue
+   */
+  private final int[] dirty;
+  private final boolean[] isDirty;
+  private int dirtyCount;
+  private boolean isWaiting;
+
+  private int stamps;
+  private long timer;
+  private long finishTime;
+  private long steals;
+  private long migrations;
+  private long preemptions;
+  private long switches;
+  private long switchTime;
+
+  /**
+   * @param workload     the processes to be executed
+   * @param cores        the number of cores
+   * @param isPreemptive whether an arriving process can preempt a running one
+   * @param affinity     the core every process is pinned to, -1 for a process that can run anywhere;
+   *                     null if no process is pinned
+   */
+  MultiCoreEngine(Workload workload, int cores, boolean isPreemptive, int[] affinity) {
+    this(workload, cores, isPreemptive, affinity, null);
+  }
+
+  /**
+   * @param workload     the processes to be executed
+   * @param cores        the number of cores
+   * @param isPreemptive whether an arriving process can preempt a running one
+   * @param affinity     the core every process is pinned to, -1 for a process that can run anywhere;
+   *                     null if no process is pinned
+   * @param switchCost   the overhead of every dispatch, or null for none
+   */
+  MultiCoreEngine(Workload workload, int cores, boolean isPreemptive, int[] affinity, SwitchCostModel switchCost) {
+    this.workload = workload;
+    this.cores = cores;
+    this.isPreemptive = isPreemptive;
+    this.affinity = affinity;
+    this.switchCost = switchCost;
+    this.metrics = new MetricsAccumulator(workload.size());
+    this.events = new EventQueue(cores + 16);
+    this.remaining = new long[workload.size()];
+    this.lastCore = new int[workload.size()];
+    for (var i = 0; i < remaining.length; i++) {
+      remaining[i] = workload.getBurstTime(i);
+      lastCore[i] = -1;
+    }
+    this.scheduleTables = new ScheduleTable[cores];
+    this.sharedQueues = new RunQueue[cores];
+    this.pinnedQueues = new RunQueue[cores];
+    for (var core = 0; core < cores; core++) {
+      scheduleTables[core] = new ScheduleTable();
+      scheduleTables[core].setNames(workload::getName);
+      sharedQueues[core] = new RunQueue(remaining, workload);
+      pinnedQueues[core] = new RunQueue(remaining, workload);
+    }
+    this.running = new int[cores];
+    this.runStart = new long[cores];
+    this.switchStart = new long[cores];
+    this.lastRan = new int[cores];
+    this.switchOpen = new boolean[cores];
+    this.previousCore = new int[cores];
+    this.runStamp = new int[cores];
+    this.idleSince = new long[cores];
+    this.busyTime = new long[cores];
+    this.available = new long[(cores + 63) >>> 6];
+    this.dirty = new int[cores];
+    this.isDirty = new boolean[cores];
+    for (var core = 0; core < cores; core++) {
+      running[core] = -1;
+      lastRan[core] = -1;
+      setAvailable(core, true);
+    }
+  }
+
+  /**
+   * Runs a workload to completion.
+   *
+   * @return the immutable per-core schedules and the metrics of the run
+   */
+  MultiCoreResult simulate() {
+    run();
+    return new MultiCoreResult(workload, scheduleTables, busyTime, metrics, finishTime, steals, migrations, preemptions,
+        switches, switchTime);
+  }
+
+  /**
+   * Runs the simulation until every process has finished.
+   *
+   * @return the instant the last process finished
+   */
+  long run() {
+    var order = workload.getArrivalOrder();
+    var nextArrival = 0;
+    if (order.length > 0) {
+      events.add(workload.getArrivalTime(order[0]), EventQueue.ARRIVAL, order[0], 0);
+      nextArrival = 1;
+    }
+
+    while (!events.isEmpty()) {
+      timer = events.peekTime();
+
+      /** Handle every event happening at this instant before taking any decision */
+      while (!events.isEmpty() && events.peekTime() == timer) {
+        events.poll();
+        var process = events.polledProcess();
+        switch (events.polledType()) {
+          case EventQueue.ARRIVAL:
+            place(process);
+            if (nextArrival < order.length) {
+              var arriving = order[nextArrival++];
+              events.add(workload.getArrivalTime(arriving), EventQueue.ARRIVAL, arriving, 0);
+            }
+            break;
+          case EventQueue.COMPLETION:
+            var core = lastCore[process];
+            if (core < 0 || running[core] != process || events.polledStamp() != runStamp[core]) break;
+            stopRunning(core);
+            metrics.completed(process, timer);
+            finishTime = timer;
+            /** An arrival at this same instant can take the core instead of queuing behind a busy one */
+            if (sharedQueues[core].isEmpty() && pinnedQueues[core].isEmpty()) setAvailable(core, true);
+            markDirty(core);
+            break;
+          default:
+            throw new IllegalStateException("Unknown event type " + events.polledType());
+        }
+      }
+
+      for (var i = 0; i < dirtyCount; i++) {
+        isDirty[dirty[i]] = false;
+        decide(dirty[i]);
+      }
+      dirtyCount = 0;
+      if (isWaiting) balance();
+    }
+
+    /** Every table spans the whole run */
+    for (var core = 0; core < cores; core++) {
+      if (idleSince[core] < finishTime || scheduleTables[core].isEmpty())
+        scheduleTables[core].record(ScheduleTable.IDLE, idleSince[core], finishTime);
+    }
+    return finishTime;
+  }
+
+  /**
+   * Puts an arriving process in the run queue of a core.
+   */
+  private void place(int process) {
+    var core = affinity == null ? -1 : affinity[process];
+    if (core >= 0) {
+      pinnedQueues[core].add(process);
+    } else {
+      core = firstAvailable();
+      if (core < 0) core = pickBusyCore(process);
+      sharedQueues[core].add(process);
+    }
+    setAvailable(core, false);
+    markDirty(core);
+  }
+
+  /**
+   * @return the core whose running process the newcomer should preempt, or else the least loaded core.
+   *         A core is judged on the process it will run once this instant is decided, the shortest of
+   *         its running process and its queued ones, so arrivals at one instant spread over the cores
+   */
+  private int pickBusyCore(int process) {
+    var leastLoaded = 0;
+    var leastLoad = Long.MAX_VALUE;
+    var victim = -1;
+    var victimLeft = remaining[process];
+    for (var core = 0; core < cores; core++) {
+      var left = running[core] < 0 ? 0 : remaining[running[core]] - Math.max(0, timer - runStart[core]);
+      var load = sharedQueues[core].getWork() + pinnedQueues[core].getWork() + left;
+      if (load < leastLoad) {
+        leastLoad = load;
+        leastLoaded = core;
+      }
+      if (!isPreemptive) continue;
+      /** A shorter process queued on the core, placed at this same instant, already claims it */
+      var head = peekBest(core);
+      if (head >= 0) left = running[core] < 0 ? remaining[head] : Math.min(left, remaining[head]);
+      if (left > victimLeft) {
+        victimLeft = left;
+        victim = core;
+      }
+    }
+    return victim >= 0 ? victim : leastLoaded;
+  }
+
+  /**
+   * Takes the decisions of a core whose run queues or running process changed at this instant.
+   */
+  private void decide(int core) {
+    if (running[core] >= 0) {
+      if (!isPreemptive) return;
+      var head = peekBest(core);
+      var left = remaining[running[core]] - Math.max(0, timer - runStart[core]);
+      if (head < 0 || remaining[head] >= left) return;
+      var preempted = running[core];
+      if (timer > runStart[core]) stopRunning(core);
+      else withdraw(core);
+      queueOf(preempted, core).add(preempted);
+      preemptions++;
+    }
+    var next = pollBest(core);
+    var source = core;
+    if (next < 0 && (source = victimOf(core)) >= 0) {
+      steals++;
+      next = sharedQueues[source].poll();
+    }
+    if (next < 0) {
+      setAvailable(core, true);
+      return;
+    }
+    dispatch(core, next);
+    if (!sharedQueues[source].isEmpty()) isWaiting = true;
+  }
+
+  /**
+   * Lets the idle cores steal the processes free to run anywhere that the decisions of this instant
+   * left waiting, preempted or beaten to their core by a pinned process.
+   */
+  private void balance() {
+    isWaiting = false;
+    for (var core = firstAvailable(); core >= 0; core = firstAvailable()) {
+      var victim = victimOf(core);
+      if (victim < 0) return;
+      steals++;
+      dispatch(core, sharedQueues[victim].poll());
+    }
+  }
+
+  /**
+   * @return the process the core should run next, -1 if both its run queues are empty
+   */
+  private int peekBest(int core) {
+    var shared = sharedQueues[core];
+    var pinned = pinnedQueues[core];
+    if (shared.isEmpty()) return pinned.isEmpty() ? -1 : pinned.peek();
+    if (pinned.isEmpty()) return shared.peek();
+    return shared.precedes(pinned.peek(), shared.peek()) ? pinned.peek() : shared.peek();
+  }
+
+  private int pollBest(int core) {
+    var best = peekBest(core);
+    if (best >= 0) queueOf(best, core).poll();
+    return best;
+  }
+
+  private RunQueue queueOf(int process, int core) {
+    return affinity != null && affinity[process] >= 0 ? pinnedQueues[core] : sharedQueues[core];
+  }
+
+  /**
+   * @return the core with the longest shared run queue, whose shortest process the thief steals, -1 if
+   *         no core has a process to spare
+   */
+  private int victimOf(int thief) {
+    var victim = -1;
+    var longest = 0;
+    for (var core = 0; core < cores; core++) {
+      if (core != thief && sharedQueues[core].size() > longest) {
+        longest = sharedQueues[core].size();
+        victim = core;
+      }
+    }
+    return victim;
+  }
+
+  /**
+   * Gives a core to a process and schedules its completion, once the switch to the process is over.
+   * An open switch is carried on: the process starts once the switch, begun earlier for a preempted
+   * process, has cost what switching to this one costs.
+   */
+  private void dispatch(int core, int process) {
+    if (idleSince[core] < timer) scheduleTables[core].record(ScheduleTable.IDLE, idleSince[core], timer);
+    var migrated = lastCore[process] >= 0 && lastCore[process] != core;
+    if (migrated) migrations++;
+    var overhead = switchCost == null ? 0 : switchCost.cost(lastRan[core], process, migrated);
+    if (overhead < 0)
+      throw new IllegalStateException("Negative switch cost " + overhead + " for process " + workload.getPID(process));
+    if (lastRan[core] != process) switches++;
+    previousCore[core] = lastCore[process];
+    lastCore[process] = core;
+    setAvailable(core, false);
+    running[core] = process;
+    if (!switchOpen[core]) switchStart[core] = timer;
+    switchOpen[core] = false;
+    runStart[core] = Math.max(timer, switchStart[core] + overhead);
+    runStamp[core] = ++stamps;
+    metrics.dispatched(process, timer);
+    events.add(runStart[core] + remaining[process], EventQueue.COMPLETION, process, runStamp[core]);
+  }
+
+  /**
+   * Takes the core away from its running process, recording the switch to it and the slice it executed.
+   */
+  private void stopRunning(int core) {
+    var process = running[core];
+    if (runStart[core] > switchStart[core]) {
+      scheduleTables[core].record(ScheduleTable.SWITCH, switchStart[core], runStart[core]);
+      switchTime += runStart[core] - switchStart[core];
+    }
+    if (timer > runStart[core]) {
+      scheduleTables[core].record(workload.getPidIndex(process), runStart[core], timer);
+      busyTime[core] += timer - runStart[core];
+      remaining[process] -= timer - runStart[core];
+    }
+    lastRan[core] = process;
+    running[core] = -1;
+    runStamp[core] = 0;
+    idleSince[core] = timer;
+  }
+
+  /**
+   * Takes a core back from a process preempted before the end of the switch to it. The process ran
+   * nothing: its dispatch and migration are forgotten and the switch stays open for the next dispatch
+   * on the core, at this same instant.
+   */
+  private void withdraw(int core) {
+    var process = running[core];
+    if (lastRan[core] != process) switches--;
+    if (previousCore[core] >= 0 && previousCore[core] != core) migrations--;
+    lastCore[process] = previousCore[core];
+    metrics.rollback(process, switchStart[core] - 1);
+    switchOpen[core] = true;
+    running[core] = -1;
+    runStamp[core] = 0;
+    idleSince[core] = timer;
+  }
+
+  private void markDirty(int core) {
+    if (isDirty[core]) return;
+    isDirty[core] = true;
+    dirty[dirtyCount++] = core;
+  }
+
+  private void setAvailable(int core, boolean isAvailable) {
+    if (isAvailable) available[core >>> 6] |= 1L << core;
+    else available[core >>> 6] &= ~(1L << core);
+  }
+
+  private int firstAvailable() {
+    for (var word = 0; word < available.length; word++) {
+      if (available[word] != 0) return (word << 6) + Long.numberOfTrailingZeros(available[word]);
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,164 @@
+package g3.srjf.scheduler;
+
+/**
+ * Immutable outcome of a multi-core scheduling run: one frozen schedule table per core, the busy
+ * time and utilization of every core, the load balancing counters and the waiting, response and
+ * turnaround times of the processes, as averages and as histograms, and the context switches with
+ * the core time they cost.
+ *
+ * Response time is measured from the arrival of a process to the first time a core ran it.
+ */
+public final class MultiCoreResult {
+  private final ScheduleTable[] scheduleTables;
+  private final long[] busyTime;
+  private final long finishTime;
+  private final long steals;
+  private final long migrations;
+  private final long preemptions;
+  private final long switches;
+  private final long switchTime;
+  private final LatencyHistogram waitingTimeHistogram;
+  private final LatencyHistogram responseTimeHistogram;
+  private final LatencyHistogram turnAroundTimeHistogram;
+  private final long completed;
+
+  /**
+   * @param workload       the processes that were executed
+   * @param scheduleTables the schedule of every core, frozen by this constructor
+   * @param busyTime       the time every core spent running processes
+   * @param metrics        the first dispatch and completion of every process of the workload
+   * @param finishTime     the instant the last process finished
+   * @param steals         how many processes idle cores took from the run queue of another core
+   * @param migrations     how many times a process ran on a different core than the one it last ran on
+   * @param preemptions    how many times a running process was preempted
+   * @param switches       how many times a core went to another process than the one it last ran
+   * @param switchTime     the time the cores spent switching between processes
+   */
+  MultiCoreResult(Workload workload, ScheduleTable[] scheduleTables, long[] busyTime, MetricsAccumulator metrics,
+      long finishTime, long steals, long migrations, long preemptions, long switches, long switchTime) {
+    this.scheduleTables = scheduleTables.clone();
+    for (var scheduleTable : this.scheduleTables) scheduleTable.freeze();
+    this.busyTime = busyTime.clone();
+    this.finishTime = finishTime;
+    this.steals = steals;
+    this.migrations = migrations;
+    this.preemptions = preemptions;
+    this.switches = switches;
+    this.switchTime = switchTime;
+    this.waitingTimeHistogram = new LatencyHistogram();
+    this.responseTimeHistogram = new LatencyHistogram();
+    this.turnAroundTimeHistogram = new LatencyHistogram();
+    for (var process = 0; process < workload.size(); process++) {
+      if (!metrics.isCompleted(process)) continue;
+      var turnAround = metrics.getCompletionTime(process) - workload.getArrivalTime(process);
+      turnAroundTimeHistogram.record(turnAround);
+      waitingTimeHistogram.record(turnAround - workload.getBurstTime(process));
+      responseTimeHistogram.record(metrics.getFirstDispatchTime(process) - workload.getArrivalTime(process));
+    }
+    this.completed = metrics.getCompletedCount();
+  }
+
+  public int getCoreCount() {
+    return scheduleTables.length;
+  }
+
+  /**
+   * @param core index of the core
+   * @return the slices the core executed, idle time included, from 0 to the finish time
+   */
+  public ScheduleTable getScheduleTable(int core) {
+    return scheduleTables[core];
+  }
+
+  /**
+   * @param core index of the core
+   * @return the time the core spent running processes
+   */
+  public long getBusyTime(int core) {
+    return busyTime[core];
+  }
+
+  /**
+   * @param core index of the core
+   * @return the fraction of the run the core spent running processes, between 0 and 1
+   */
+  public double getUtilization(int core) {
+    return finishTime == 0 ? 0D : (double) busyTime[core] / finishTime;
+  }
+
+  /**
+   * @return the fraction of the total core time spent running processes, between 0 and 1
+   */
+  public double getUtilization() {
+    if (finishTime == 0) return 0D;
+    var busy = 0L;
+    for (var time : busyTime) busy += time;
+    return (double) busy / ((double) finishTime * busyTime.length);
+  }
+
+  public long getFinishTime() {
+    return finishTime;
+  }
+  public long getStealCount() {
+    return steals;
+  }
+  public long getMigrationCount() {
+    return migrations;
+  }
+  public long getPreemptionCount() {
+    return preemptions;
+  }
+  public long getContextSwitchCount() {
+    return switches;
+  }
+  public long getSwitchTime() {
+    return switchTime;
+  }
+
+  /**
+   * @return the share of the time the cores were not idle that went to running processes rather than
+   *         switching between them, 1 when they never switched at a cost
+   */
+  public double getCpuEfficiency() {
+    var busy = 0L;
+    for (var time : busyTime) busy += time;
+    return busy + switchTime == 0 ? 1D : (double) busy / (busy + switchTime);
+  }
+  public double getAverageTurnAroundTime() {
+    return turnAroundTimeHistogram.getMean();
+  }
+  public double getAverageWaitingTime() {
+    return waitingTimeHistogram.getMean();
+  }
+  public double getAverageResponseTime() {
+    return responseTimeHistogram.getMean();
+  }
+
+  /**
+   * @return processes completed per unit of time
+   */
+  public double getThroughput() {
+    return finishTime == 0 ? 0D : (double) completed / finishTime;
+  }
+
+  /**
+   * @return a copy of the histogram of the waiting times
+   */
+  public LatencyHistogram getWaitingTimeHistogram() {
+    return waitingTimeHistogram.copy();
+  }
+
+  /**
+   * @return a copy of the histogram of the response times
+   */
+  public LatencyHistogram getResponseTimeHistogram() {
+    return responseTimeHistogram.copy();
+  }
+
+  /**
+   * @return a copy of the histogram of the turnaround times
+   */
+  public LatencyHistogram getTurnAroundTimeHistogram() {
+    return turnAroundTimeHistogram.copy();
+  }
+}
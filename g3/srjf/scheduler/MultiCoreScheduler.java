@@ -0,0 +1,88 @@
+package g3.srjf.scheduler;
+
+/**
+ * Shortest remaining job first scheduling on a symmetric multiprocessor: every core has its own run
+ * queue, arriving processes are spread over the cores, idle cores steal work from busy ones and
+ * processes can be pinned to a core. See {@link MultiCoreEngine} for the balancing rules.
+ *
+ * A scheduler only holds its configuration, every call to {@link #schedule(Workload)} runs on its own
+ * state so concurrent calls are safe.
+ */
+public class MultiCoreScheduler {
+  private final int cores;
+  private final boolean isPreemptive;
+  private final SwitchCostModel switchCost;
+
+  /**
+   * @param cores        the number of simulated cores
+   * @param isPreemptive whether an arriving process can preempt a running one
+   * @throws IllegalArgumentException if there is no core
+   */
+  public MultiCoreScheduler(int cores, boolean isPreemptive) {
+    this(cores, isPreemptive, null);
+  }
+
+  /**
+   * @param cores        the number of simulated cores
+   * @param isPreemptive whether an arriving process can preempt a running one
+   * @param switchCost   the overhead of every dispatch on a core, e.g.
+   *                     {@link SwitchCostModel#migration(long, long)}; null for none
+   * @throws IllegalArgumentException if there is no core
+   */
+  public MultiCoreScheduler(int cores, boolean isPreemptive, SwitchCostModel switchCost) {
+    if (cores < 1) throw new IllegalArgumentException("At least one core is needed: " + cores);
+    this.cores = cores;
+    this.isPreemptive = isPreemptive;
+    this.switchCost = switchCost;
+  }
+
+  public int getCores() {
+    return cores;
+  }
+  public boolean isPreemptive() {
+    return isPreemptive;
+  }
+  public SwitchCostModel getSwitchCost() {
+    return switchCost;
+  }
+
+  /**
+   * Schedules a workload, any process being free to run on any core.
+   *
+   * @param workload the processes to be executed
+   * @return the per-core schedules and the metrics of the run
+   * @throws IllegalArgumentException if a process has I/O bursts
+   */
+  public MultiCoreResult schedule(Workload workload) {
+    checkNoIo(workload);
+    return new MultiCoreEngine(workload, cores, isPreemptive, null, switchCost).simulate();
+  }
+
+  /**
+   * Schedules a workload in which some processes are pinned to a core.
+   *
+   * @param workload the processes to be executed
+   * @param affinity for every process of the workload, the core it must run on, or -1 if it can run
+   *                 on any core
+   * @return the per-core schedules and the metrics of the run
+   * @throws IllegalArgumentException if there is not one affinity per process, an affinity is not a core
+   *                                  or a process has I/O bursts
+   */
+  public MultiCoreResult schedule(Workload workload, int[] affinity) {
+    checkNoIo(workload);
+    if (affinity.length != workload.size())
+      throw new IllegalArgumentException("Expected " + workload.size() + " affinities, got " + affinity.length);
+    for (var i = 0; i < affinity.length; i++) {
+      if (affinity[i] < -1 || affinity[i] >= cores)
+        throw new IllegalArgumentException("Process " + workload.getPID(i) + " is pinned to unknown core " + affinity[i]);
+    }
+    return new MultiCoreEngine(workload, cores, isPreemptive, affinity.clone(), switchCost).simulate();
+  }
+
+  /**
+   * The cores only run CPU bursts: I/O is simulated by the single CPU {@link SimulationEngine}.
+   */
+  private static void checkNoIo(Workload workload) {
+    if (workload.hasIo()) throw new IllegalArgumentException("Multi-core scheduling of I/O bursts is not supported");
+  }
+}
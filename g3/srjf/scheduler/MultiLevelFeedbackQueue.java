@@ -0,0 +1,82 @@
+package g3.srjf.scheduler;
+
+import java.util.List;
+
+/**
+ * Multi-level feedback queue scheduling: round robin levels of growing time quanta, processes being
+ * demoted a level each time they use up the quantum of their level and boosted back to the top level
+ * periodically. Short and interactive processes stay at the high priority levels without the
+ * scheduler knowing any burst time; see {@link MultiLevelFeedbackQueuePolicy} for the rules.
+ *
+ * The time quanta need the timer of the SimulationEngine, so this scheduler always runs on it; the
+ * schedule and the metrics go to the same table and maps as the other schedulers.
+ */
+public class MultiLevelFeedbackQueue extends Scheduler {
+  /*
+   * Time quantum of every level, from the highest priority level to the lowest
+   */
+  private long[] quanta;
+
+  /*
+   * Time between two boosts of every process to the top level, 0 for no boost
+   */
+  private long boostInterval;
+  private long demotionCount;
+
+  /**
+   * @param processes     list of processes to be executed
+   * @param quanta        time quantum of every level, from the highest priority level to the lowest
+   * @param boostInterval time between two boosts of every process to the top level, 0 for no boost
+   * @throws IllegalArgumentException if there is no level or more than 64, a quantum is not positive
+   *                                  or the boost interval is negative
+   */
+  public MultiLevelFeedbackQueue(List<PCB> processes, long[] quanta, long boostInterval) {
+    super(processes);
+    setQuanta(quanta);
+    setBoostInterval(boostInterval);
+  }
+
+  public long[] getQuanta() {
+    return quanta.clone();
+  }
+  /**
+   * @param quanta time quantum of every level, from the highest priority level to the lowest
+   * @throws IllegalArgumentException if there is no level or more than 64 or a quantum is not positive
+   */
+  public void setQuanta(long[] quanta) {
+    MultiLevelFeedbackQueuePolicy.checkQuanta(quanta);
+    this.quanta = quanta.clone();
+  }
+  public long getBoostInterval() {
+    return boostInterval;
+  }
+  /**
+   * @param boostInterval time between two boosts of every process to the top level, 0 for no boost
+   * @throws IllegalArgumentException if the boost interval is negative
+   */
+  public void setBoostInterval(long boostInterval) {
+    if (boostInterval < 0) throw new IllegalArgumentException("Negative boost interval: " + boostInterval);
+    this.boostInterval = boostInterval;
+  }
+  /**
+   * @return number of times a process was demoted a level during the last run
+   */
+  public long getDemotionCount() {
+    return demotionCount;
+  }
+
+  /**
+   * @return snapshot of the process exection as a {@code ScheduleTable }
+   */
+  public ScheduleTable multiLevelFeedbackQueueScheduler() {
+    var policy = new MultiLevelFeedbackQueuePolicy(quanta, boostInterval);
+    schedule(new Workload(getProcesses()), policy);
+    demotionCount = policy.getDemotionCount();
+    return getScheduleTable();
+  }
+
+  @Override
+  protected void reportMetrics(ScheduleReport report) {
+    report.count("Demotions", demotionCount);
+  }
+}
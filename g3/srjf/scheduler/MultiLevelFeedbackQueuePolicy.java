@@ -0,0 +1,221 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Multi-level feedback queue policy: every level is a round robin queue with its own time quantum,
+ * level 0 being the highest priority. A process starts at level 0 and keeps its level while it uses
+ * less than the quantum of the level; once the time it executed at the level, over any number of
+ * CPU bursts and preemptions, reaches the quantum, it is demoted one level. The last level is plain
+ * round robin. A ready process preempts the running one when it sits at a higher level.
+ *
+ * Every boost interval all processes go back to level 0 with a fresh allotment, so CPU bound
+ * processes demoted to the last level cannot starve behind interactive ones. The running process
+ * finishes the slice it was granted and comes back at level 0.
+ *
+ * The levels are intrusive FIFO lists over arrays indexed by process, and a bitmap holds the non-empty
+ * levels: picking the next process is one {@link Long#numberOfTrailingZeros(long)} and one unlink.
+ * The boost is applied lazily at the first call at or after the boost instant: the lists of the lower
+ * levels are appended to level 0 in level order, and every process carries the boost epoch its level
+ * was set in, a process of an older epoch being at level 0. A boost therefore costs O(levels) whatever
+ * the number of waiting processes.
+ */
+public class MultiLevelFeedbackQueuePolicy implements SchedulingPolicy {
+  private final long[] quanta;
+  private final long boostInterval;
+
+  private Workload workload;
+
+  /*
+   * Level, time executed at that level and boost epoch of every process, its remaining time when it
+   * was last dispatched and the number of CPU bursts it completed
+   */
+  private int[] level;
+  private long[] used;
+  private long[] epoch;
+  private long[] dispatchRemaining;
+  private int[] completedBursts;
+
+  /*
+   * FIFO of every level linked through next, and the bitmap of the non-empty levels
+   */
+  private int[] head;
+  private int[] tail;
+  private int[] next;
+  private long nonEmpty;
+  private int size;
+  private long currentEpoch;
+  private long demotions;
+
+  /**
+   * @param quanta        time quantum of every level, from the highest priority level to the lowest
+   * @param boostInterval time between two boosts of every process to level 0, 0 for no boost
+   * @throws IllegalArgumentException if there is no level or more than 64, a quantum is not positive
+   *                                  or the boost interval is negative
+   */
+  public MultiLevelFeedbackQueuePolicy(long[] quanta, long boostInterval) {
+    checkQuanta(quanta);
+    if (boostInterval < 0) throw new IllegalArgumentException("Negative boost interval: " + boostInterval);
+    this.quanta = quanta.clone();
+    this.boostInterval = boostInterval;
+  }
+
+  /**
+   * @throws IllegalArgumentException if there is no level or more than 64 or a quantum is not positive
+   */
+  static void checkQuanta(long[] quanta) {
+    if (quanta.length == 0 || quanta.length > Long.SIZE)
+      throw new IllegalArgumentException("Between 1 and " + Long.SIZE + " levels expected: " + quanta.length);
+    for (var quantum : quanta)
+      if (quantum <= 0) throw new IllegalArgumentException("Time quantum must be positive: " + quantum);
+  }
+
+  public long[] getQuanta() {
+    return quanta.clone();
+  }
+  public long getBoostInterval() {
+    return boostInterval;
+  }
+  /**
+   * @return number of demotions during the last run
+   */
+  public long getDemotionCount() {
+    return demotions;
+  }
+
+  @Override
+  public void reset(Workload workload) {
+    var n = workload.size();
+    this.workload = workload;
+    level = new int[n];
+    used = new long[n];
+    epoch = new long[n];
+    dispatchRemaining = new long[n];
+    completedBursts = new int[n];
+    next = new int[n];
+    head = new int[quanta.length];
+    tail = new int[quanta.length];
+    Arrays.fill(head, -1);
+    Arrays.fill(tail, -1);
+    nonEmpty = 0L;
+    size = 0;
+    currentEpoch = 0;
+    demotions = 0;
+  }
+
+  @Override
+  public void enqueue(int process, long remaining, long time) {
+    boost(time);
+    refresh(process);
+    append(process);
+  }
+
+  @Override
+  public void requeue(int process, long remaining, long time, boolean quantumExpired) {
+    boost(time);
+    account(process, dispatchRemaining[process] - remaining);
+    append(process);
+  }
+
+  @Override
+  public int dequeue(long time) {
+    boost(time);
+    if (nonEmpty == 0L) return -1;
+    var l = Long.numberOfTrailingZeros(nonEmpty);
+    var process = head[l];
+    head[l] = next[process];
+    if (head[l] < 0) {
+      tail[l] = -1;
+      nonEmpty &= ~(1L << l);
+    }
+    size--;
+    return process;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public long timeSlice(int process, long remaining, long time) {
+    boost(time);
+    refresh(process);
+    dispatchRemaining[process] = remaining;
+    return quanta[level[process]] - used[process];
+  }
+
+  @Override
+  public boolean shouldPreempt(int running, long remaining, long time) {
+    boost(time);
+    var runningLevel = epoch[running] == currentEpoch ? level[running] : 0;
+    return nonEmpty != 0L && Long.numberOfTrailingZeros(nonEmpty) < runningLevel;
+  }
+
+  @Override
+  public void completed(int process, long time) {
+    boost(time);
+    /** A process leaving after its last CPU burst is not demoted, it has no level to keep */
+    if (2 * ++completedBursts[process] - 1 == workload.getBurstCount(process)) return;
+    account(process, dispatchRemaining[process]);
+  }
+
+  /**
+   * Charges the time a process executed to its allotment at its level, demoting it once the allotment
+   * is used up. A process boosted while it ran starts over at level 0 instead.
+   */
+  private void account(int process, long executed) {
+    if (refresh(process)) return;
+    used[process] += executed;
+    if (used[process] >= quanta[level[process]]) {
+      if (level[process] < quanta.length - 1) {
+        level[process]++;
+        demotions++;
+      }
+      used[process] = 0;
+    }
+  }
+
+  /**
+   * Puts a process whose level was set before the last boost back at level 0.
+   *
+   * @return true if the process was boosted
+   */
+  private boolean refresh(int process) {
+    if (epoch[process] == currentEpoch) return false;
+    epoch[process] = currentEpoch;
+    level[process] = 0;
+    used[process] = 0;
+    return true;
+  }
+
+  private void append(int process) {
+    var l = level[process];
+    next[process] = -1;
+    if (tail[l] < 0) head[l] = process;
+    else next[tail[l]] = process;
+    tail[l] = process;
+    nonEmpty |= 1L << l;
+    size++;
+  }
+
+  /**
+   * Applies the boosts due at this time: the lower levels are appended to level 0 in level order, the
+   * processes in them being of an older epoch than the current one.
+   */
+  private void boost(long time) {
+    if (boostInterval == 0 || time / boostInterval == currentEpoch) return;
+    currentEpoch = time / boostInterval;
+    var lower = nonEmpty & ~1L;
+    while (lower != 0L) {
+      var l = Long.numberOfTrailingZeros(lower);
+      lower &= lower - 1;
+      if (tail[0] < 0) head[0] = head[l];
+      else next[tail[0]] = head[l];
+      tail[0] = tail[l];
+      head[l] = -1;
+      tail[l] = -1;
+    }
+    if (nonEmpty != 0L) nonEmpty = 1L;
+  }
+}
@@ -0,0 +1,278 @@
+package g3.srjf.scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Schedule table keeping its slices outside of the Java heap, for traces too long to sit in heap
+ * arrays without the garbage collector copying and scanning them. Every slice is a 20 byte record
+ * (process id, tInitial, tFinal) in chunks of 2^20 slices: chunks are direct buffers up to the memory
+ * budget (or the JVM limit on direct memory), the following ones are mapped from a temporary spill
+ * file, which the operating system writes back to disk when memory runs short. The first chunk starts small and grows, so a short
+ * schedule does not reserve a whole chunk.
+ *
+ * The table is read through the accessors of {@link ScheduleTable}, so the compute* metric passes
+ * of the {@link Scheduler}, the printers, {@link ScheduleReport} and {@link TraceFiles} read straight
+ * from the off-heap records. Direct buffers are released by the garbage collector once the table is
+ * unreachable, {@link #close()} deletes the spill file and must be called when the table is no
+ * longer needed. A table can hold up to {@code Integer.MAX_VALUE} slices.
+ */
+public class OffHeapScheduleTable extends ScheduleTable implements AutoCloseable {
+  /** Memory budget of the tables built without one */
+  public static final long DEFAULT_MEMORY_BYTES = 256L << 20;
+
+  static final int SLICE_BYTES = 20;
+  private static final int CHUNK_SHIFT = 20;
+  private static final int CHUNK_SLICES = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SLICES - 1;
+  private static final long CHUNK_BYTES = (long) CHUNK_SLICES * SLICE_BYTES;
+  private static final int FIRST_CHUNK_SLICES = 1 << 10;
+
+  private final long memoryBytes;
+  private final Path spillDirectory;
+
+  /*
+   * The chunks of records, every one but the first holding CHUNK_SLICES slices. directBytes and
+   * spilledBytes split their capacity between direct and mapped buffers.
+   */
+  private ByteBuffer[] chunks = new ByteBuffer[4];
+  private int chunkCount;
+  private long directBytes;
+  private long spilledBytes;
+  private boolean firstChunkSpilled;
+  private int size;
+
+  /*
+   * Created with the first chunk that does not fit in the memory budget; deleted when closed
+   */
+  private FileChannel spill;
+  private boolean closed;
+
+  /**
+   * Builds a table holding {@link #DEFAULT_MEMORY_BYTES} of slices in memory and spilling to the
+   * default temporary directory.
+   */
+  public OffHeapScheduleTable() {
+    this(DEFAULT_MEMORY_BYTES, Path.of(System.getProperty("java.io.tmpdir")));
+  }
+
+  /**
+   * @param memoryBytes    direct memory the table uses before spilling, 0 to spill from the first
+   *                       slice
+   * @param spillDirectory the directory of the spill file, created only if the table spills
+   * @throws IllegalArgumentException if the memory budget is negative
+   */
+  public OffHeapScheduleTable(long memoryBytes, Path spillDirectory) {
+    super(1);
+    if (memoryBytes < 0) throw new IllegalArgumentException("Negative memory budget: " + memoryBytes);
+    this.memoryBytes = memoryBytes;
+    this.spillDirectory = spillDirectory;
+  }
+
+  public long getMemoryBytes() {
+    return memoryBytes;
+  }
+  public Path getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * @return the bytes of slices held in direct buffers
+   */
+  public long getDirectBytes() {
+    return directBytes;
+  }
+
+  /**
+   * @return the bytes of slices mapped from the spill file
+   */
+  public long getSpilledBytes() {
+    return spilledBytes;
+  }
+
+  @Override
+  public void record(int processId, long tInitial, long tFinal) {
+    checkNotFrozen();
+    if (size > 0 && getProcessId(size - 1) == processId) {
+      chunk(size - 1).putLong(offset(size - 1) + 12, tFinal);
+      return;
+    }
+    append(processId, tInitial, tFinal);
+  }
+
+  @Override
+  public void append(int processId, long tInitial, long tFinal) {
+    checkNotFrozen();
+    checkOpen();
+    if (size == Integer.MAX_VALUE) throw new IllegalStateException("Schedule table is full");
+    ensureCapacity(size + 1);
+    var chunk = chunk(size);
+    var at = offset(size);
+    chunk.putInt(at, processId);
+    chunk.putLong(at + 4, tInitial);
+    chunk.putLong(at + 12, tFinal);
+    size++;
+  }
+
+  private void ensureCapacity(int slices) {
+    var last = chunkCount - 1;
+    var capacity = chunkCount == 0 ? 0 : (long) last * CHUNK_SLICES + chunks[last].capacity() / SLICE_BYTES;
+    if (slices <= capacity) return;
+    if (chunkCount == 0) {
+      chunks[chunkCount++] = newChunk(0, FIRST_CHUNK_SLICES, null);
+    } else if (chunkCount == 1 && chunks[0].capacity() < CHUNK_BYTES) {
+      /** Only the first chunk grows, by doubling, the next ones are allocated whole */
+      chunks[0] = newChunk(0, Math.min(CHUNK_SLICES, chunks[0].capacity() / SLICE_BYTES * 2), chunks[0]);
+    } else {
+      if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+      chunks[chunkCount] = newChunk(chunkCount, CHUNK_SLICES, null);
+      chunkCount++;
+    }
+  }
+
+  /**
+   * Allocates a chunk in direct memory if the budget allows it, in the spill file otherwise, and
+   * copies the content of the first chunk when it replaces it.
+   */
+  private ByteBuffer newChunk(int index, int slices, ByteBuffer replaced) {
+    var bytes = (long) slices * SLICE_BYTES;
+    if (replaced != null) {
+      if (firstChunkSpilled) spilledBytes -= replaced.capacity();
+      else directBytes -= replaced.capacity();
+    }
+    ByteBuffer chunk = null;
+    if (directBytes + bytes <= memoryBytes) {
+      try {
+        chunk = ByteBuffer.allocateDirect((int) bytes);
+        directBytes += bytes;
+      } catch (OutOfMemoryError e) {
+        /** The JVM limit on direct memory (-XX:MaxDirectMemorySize) is below the budget: spill */
+      }
+    }
+    var spilled = chunk == null;
+    if (spilled) {
+      chunk = map(index, bytes);
+      spilledBytes += bytes;
+    }
+    if (index == 0) firstChunkSpilled = spilled;
+    chunk.order(ByteOrder.nativeOrder());
+    /** A chunk mapped again over the same region of the spill file already holds its records */
+    if (replaced != null) chunk.put(0, replaced, 0, replaced.capacity());
+    return chunk;
+  }
+
+  private ByteBuffer map(int index, long bytes) {
+    try {
+      if (spill == null) {
+        var file = Files.createTempFile(spillDirectory, "schedule", ".slices");
+        spill = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+      }
+      return spill.map(FileChannel.MapMode.READ_WRITE, index * CHUNK_BYTES, bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot spill the schedule table to " + spillDirectory, e);
+    }
+  }
+
+  private ByteBuffer chunk(int index) {
+    checkOpen();
+    return chunks[index >>> CHUNK_SHIFT];
+  }
+
+  private void checkOpen() {
+    if (closed) throw new IllegalStateException("Schedule table is closed");
+  }
+
+  private static int offset(int index) {
+    return (index & CHUNK_MASK) * SLICE_BYTES;
+  }
+
+  @Override
+  public void clear() {
+    checkNotFrozen();
+    size = 0;
+  }
+
+  @Override
+  void truncate(int size, long lastFinal) {
+    checkNotFrozen();
+    if (size < 0 || size > this.size) throw new IndexOutOfBoundsException("Size " + size + ", size " + this.size);
+    this.size = size;
+    if (size > 0) chunk(size - 1).putLong(offset(size - 1) + 12, lastFinal);
+  }
+
+  /**
+   * @return a modifiable off-heap copy of the table, with the same memory budget and spill directory
+   */
+  @Override
+  public OffHeapScheduleTable copy() {
+    var copy = new OffHeapScheduleTable(memoryBytes, spillDirectory);
+    for (var i = 0; i < size; i++) copy.append(getProcessId(i), gettInitial(i), gettFinal(i));
+    copy.setNames(getNames());
+    return copy;
+  }
+
+  /** The chunks are kept as they are: shrinking them would copy the whole table */
+  @Override
+  void trimToSize() {
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int getProcessId(int index) {
+    checkIndex(index);
+    return chunk(index).getInt(offset(index));
+  }
+
+  @Override
+  public long gettInitial(int index) {
+    checkIndex(index);
+    return chunk(index).getLong(offset(index) + 4);
+  }
+
+  @Override
+  public long gettFinal(int index) {
+    checkIndex(index);
+    return chunk(index).getLong(offset(index) + 12);
+  }
+
+  @Override
+  public long getLastFinal() {
+    if (size == 0) throw new NoSuchElementException("Schedule table is empty");
+    return gettFinal(size - 1);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+  }
+
+  /**
+   * Releases the chunks and deletes the spill file. The table cannot be read afterwards.
+   *
+   * @throws UncheckedIOException if the spill file cannot be closed
+   */
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    chunks = null;
+    chunkCount = 0;
+    try {
+      if (spill != null) spill.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot delete the spill file of the schedule table", e);
+    }
+  }
+}
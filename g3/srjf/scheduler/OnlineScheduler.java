@@ -0,0 +1,281 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Shortest job first scheduling of an unbounded stream of processes. Processes are submitted as
+ * they arrive (in arrival order), the execution slices are handed to a callback as soon as they are
+ * over, and rolling metrics are kept for the processes completed so far.
+ *
+ * Nothing is kept for a process once it completes: its slot (index inside the primitive columns and
+ * the {@link IntReadyQueue}) is recycled for a later arrival, so memory is bounded by the number of
+ * processes waiting or running at the same time, not by the length of the stream.
+ *
+ * Decisions for an instant are only taken once the clock moves past it, so that all the processes
+ * arriving at the same instant are considered together and no zero length slice is emitted.
+ * Processes with the same remaining time are taken in submission order, which is their arrival order
+ * since submissions may not go back in time: slots are recycled and cannot break the tie themselves.
+ */
+public class OnlineScheduler {
+  private final boolean isPreemptive;
+  private final Consumer<ExecutionSnapshot> sink;
+
+  /*
+   * Columns of the live processes, indexed by slot. Free slots are chained through nextFree.
+   */
+  private String[] pID = new String[16];
+  private long[] burstTime = new long[16];
+  private long[] arrivalTime = new long[16];
+  private long[] remaining = new long[16];
+  private long[] firstDispatch = new long[16];
+  private long[] sequence = new long[16];
+  private int[] nextFree = new int[16];
+  private int freeSlot = -1;
+  private int usedSlots;
+  private long submitted;
+  private final IntReadyQueue readyQueue = new IntReadyQueue(16);
+
+  private long timer;
+  private long lastArrival;
+  private int running = -1;
+  private long runStart;
+  private boolean decisionPending;
+
+  /*
+   * The slice being built; it is only handed to the sink once the next slice starts, so that
+   * consecutive slices of the same process are merged
+   */
+  private String slicePID;
+  private long sliceStart;
+  private long sliceEnd;
+
+  /*
+   * Rolling metrics of the completed processes
+   */
+  private long completed;
+  private long sumTurnAroundTime;
+  private long sumWaitingTime;
+  private long sumResponseTime;
+  private final LatencyHistogram waitingTimeHistogram = new LatencyHistogram();
+  private final LatencyHistogram responseTimeHistogram = new LatencyHistogram();
+  private final LatencyHistogram turnAroundTimeHistogram = new LatencyHistogram();
+
+  /**
+   * @param isPreemptive tells the scheduler whether a newly arrived process can preempt the running one
+   * @param sink         receives every execution slice, idle time being reported with the "--" pID
+   */
+  public OnlineScheduler(boolean isPreemptive, Consumer<ExecutionSnapshot> sink) {
+    this.isPreemptive = isPreemptive;
+    this.sink = sink;
+  }
+
+  /**
+   * Submits a process arriving at {@code process.getArrivalTime()}. The clock first advances to that
+   * instant, completing whatever finishes before it.
+   *
+   * @param process the arriving process, its arrival time must not precede the previous submission
+   * @throws IllegalArgumentException if the process arrives before the previously submitted one, has a
+   *                                  negative burst time or has I/O bursts
+   */
+  public void submit(PCB process) {
+    if (process.getArrivalTime() < lastArrival)
+      throw new IllegalArgumentException("Process " + process.getPID() + " arrives at " + process.getArrivalTime()
+          + ", before the previous arrival at " + lastArrival);
+    if (process.getBurstTime() < 0)
+      throw new IllegalArgumentException("Process " + process.getPID() + " has a negative burst time");
+    if (process.hasIo()) throw new IllegalArgumentException("Process " + process.getPID() + " has I/O bursts");
+    advanceTo(process.getArrivalTime());
+    lastArrival = process.getArrivalTime();
+
+    var slot = allocateSlot();
+    pID[slot] = process.getPID();
+    burstTime[slot] = process.getBurstTime();
+    arrivalTime[slot] = process.getArrivalTime();
+    remaining[slot] = process.getBurstTime();
+    firstDispatch[slot] = -1;
+    sequence[slot] = submitted++;
+    readyQueue.add(slot, remaining[slot], sequence[slot]);
+    decisionPending = true;
+  }
+
+  /**
+   * Runs the CPU until the given instant. Arrivals submitted afterwards must not precede it.
+   *
+   * @param time the instant to advance the clock to, ignored if it is not after the current time
+   */
+  public void advanceTo(long time) {
+    if (time <= timer) return;
+    lastArrival = Math.max(lastArrival, time);
+    while (true) {
+      decide();
+      if (running < 0) {
+        emit(ScheduleTable.IDLE_PID, timer, time);
+        timer = time;
+        return;
+      }
+      var finishAt = runStart + remaining[running];
+      if (finishAt > time) {
+        timer = time;
+        return;
+      }
+      timer = finishAt;
+      complete();
+      /** The next process is only picked once the arrivals of this instant are submitted */
+      if (timer == time) return;
+    }
+  }
+
+  /**
+   * Runs every submitted process to completion and hands the last slice to the sink.
+   */
+  public void finish() {
+    while (true) {
+      decide();
+      if (running < 0) break;
+      timer = runStart + remaining[running];
+      complete();
+    }
+    flush();
+  }
+
+  /**
+   * Takes the decisions pending for the current instant: preempt the running process if a shorter one
+   * is ready, or give the idle CPU to the shortest ready process.
+   */
+  private void decide() {
+    if (!decisionPending && running >= 0) return;
+    decisionPending = false;
+    if (running >= 0 && isPreemptive && !readyQueue.isEmpty()) {
+      var left = remaining[running] - (timer - runStart);
+      if (readyQueue.getKey(readyQueue.peek()) < left) {
+        emit(pID[running], runStart, timer);
+        remaining[running] = left;
+        readyQueue.add(running, left, sequence[running]);
+        running = -1;
+      }
+    }
+    if (running < 0 && !readyQueue.isEmpty()) {
+      running = readyQueue.poll();
+      runStart = timer;
+      if (firstDispatch[running] < 0) firstDispatch[running] = timer;
+    }
+  }
+
+  /**
+   * The running process finishes at the current time: account for it and free its slot.
+   */
+  private void complete() {
+    var slot = running;
+    emit(pID[slot], runStart, timer);
+    var turnAround = timer - arrivalTime[slot];
+    completed++;
+    sumTurnAroundTime += turnAround;
+    sumWaitingTime += turnAround - burstTime[slot];
+    sumResponseTime += firstDispatch[slot] - arrivalTime[slot];
+    turnAroundTimeHistogram.record(turnAround);
+    waitingTimeHistogram.record(turnAround - burstTime[slot]);
+    responseTimeHistogram.record(firstDispatch[slot] - arrivalTime[slot]);
+    running = -1;
+    pID[slot] = null;
+    nextFree[slot] = freeSlot;
+    freeSlot = slot;
+  }
+
+  private int allocateSlot() {
+    if (freeSlot >= 0) {
+      var slot = freeSlot;
+      freeSlot = nextFree[slot];
+      return slot;
+    }
+    if (usedSlots == pID.length) {
+      var capacity = pID.length * 2;
+      pID = Arrays.copyOf(pID, capacity);
+      burstTime = Arrays.copyOf(burstTime, capacity);
+      arrivalTime = Arrays.copyOf(arrivalTime, capacity);
+      remaining = Arrays.copyOf(remaining, capacity);
+      firstDispatch = Arrays.copyOf(firstDispatch, capacity);
+      sequence = Arrays.copyOf(sequence, capacity);
+      nextFree = Arrays.copyOf(nextFree, capacity);
+      readyQueue.ensureCapacity(capacity);
+    }
+    return usedSlots++;
+  }
+
+  private void emit(String processId, long tInitial, long tFinal) {
+    if (processId.equals(slicePID) && sliceEnd == tInitial) {
+      sliceEnd = tFinal;
+      return;
+    }
+    flush();
+    slicePID = processId;
+    sliceStart = tInitial;
+    sliceEnd = tFinal;
+  }
+
+  private void flush() {
+    if (slicePID != null) sink.accept(new ExecutionSnapshot(slicePID, sliceStart, sliceEnd));
+    slicePID = null;
+  }
+
+  /**
+   * @return the current time of the simulation
+   */
+  public long getTime() {
+    return timer;
+  }
+
+  /**
+   * @return number of processes submitted and not completed yet, running one included
+   */
+  public int getLiveCount() {
+    return readyQueue.size() + (running >= 0 ? 1 : 0);
+  }
+
+  public long getCompletedCount() {
+    return completed;
+  }
+
+  public double getAverageTurnAroundTime() {
+    return completed == 0 ? 0D : (double) sumTurnAroundTime / completed;
+  }
+
+  public double getAverageWaitingTime() {
+    return completed == 0 ? 0D : (double) sumWaitingTime / completed;
+  }
+
+  /**
+   * @return the average time from the arrival of a process to the first time it got the CPU
+   */
+  public double getAverageResponseTime() {
+    return completed == 0 ? 0D : (double) sumResponseTime / completed;
+  }
+
+  /**
+   * @return a copy of the histogram of the waiting times of the processes completed so far
+   */
+  public LatencyHistogram getWaitingTimeHistogram() {
+    return waitingTimeHistogram.copy();
+  }
+
+  /**
+   * @return a copy of the histogram of the response times of the processes completed so far
+   */
+  public LatencyHistogram getResponseTimeHistogram() {
+    return responseTimeHistogram.copy();
+  }
+
+  /**
+   * @return a copy of the histogram of the turnaround times of the processes completed so far
+   */
+  public LatencyHistogram getTurnAroundTimeHistogram() {
+    return turnAroundTimeHistogram.copy();
+  }
+
+  /**
+   * @return processes completed per unit of time so far
+   */
+  public double getThroughput() {
+    return timer == 0 ? 0D : (double) completed / timer;
+  }
+}
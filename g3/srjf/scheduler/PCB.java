@@ -1,11 +1,19 @@
 package g3.srjf.scheduler;
 
+import java.util.Arrays;
+
 public class PCB implements Cloneable {
   private String pID;
-  private int burstTime;
-  private int arrivalTime = 0;
+  private long burstTime;
+  private long arrivalTime = 0;
   private int priority = 0;
 
+  /*
+   * CPU and I/O bursts alternating, starting and ending with a CPU burst, or null for a process made
+   * of the single CPU burst burstTime. With a sequence, burstTime is the total CPU time.
+   */
+  private long[] bursts;
+
   /**
    * PCB : Process Contorl Block
    * 
@@ -16,7 +24,7 @@ public class PCB implements Cloneable {
    *                    got
    * @param priority    the priority attached to the process
    */
-  public PCB(String pID, int burstTime, int arrivalTime, int priority) {
+  public PCB(String pID, long burstTime, long arrivalTime, int priority) {
     this.pID = pID;
     this.burstTime = burstTime;
     this.arrivalTime = arrivalTime;
@@ -32,7 +40,7 @@ public class PCB implements Cloneable {
    * @param arrivalTime Arrival Time} arrivalTime - The time at which the process
    *                    got
    */
-  public PCB(String pID, int burstTime, int arrivalTime) {
+  public PCB(String pID, long burstTime, long arrivalTime) {
     this.pID = pID;
     this.burstTime = burstTime;
     this.arrivalTime = arrivalTime;
@@ -47,7 +55,7 @@ public class PCB implements Cloneable {
    * @param priority  the priority attached to the process
    * @param pID       pID - Represents the current running process uniquely
    */
-  public PCB(int burstTime, int priority, String pID) {
+  public PCB(long burstTime, int priority, String pID) {
     this.pID = pID;
     this.burstTime = burstTime;
     this.priority = priority;
@@ -59,13 +67,29 @@ public class PCB implements Cloneable {
    * @param pID       pID - Represents the current running process uniquely
    * @param burstTime Burst Time - The cpu time a process require to execute
    */
-  public PCB(String pID, int burstTime) {
+  public PCB(String pID, long burstTime) {
     this.pID = pID;
     this.burstTime = burstTime;
     this.arrivalTime = 0;
     this.priority = 0;
   }
 
+  /**
+   * PCB : Process Contorl Block of a process alternating CPU and I/O bursts
+   * 
+   * @param pID         pID - Represents the current running process uniquely
+   * @param bursts      the CPU and I/O bursts of the process, in order: CPU, I/O, CPU, ..., CPU
+   * @param arrivalTime Arrival Time - The time at which the process got
+   * @param priority    the priority attached to the process
+   * @throws IllegalArgumentException if the sequence does not start and end with a CPU burst
+   */
+  public PCB(String pID, long[] bursts, long arrivalTime, int priority) {
+    this.pID = pID;
+    this.arrivalTime = arrivalTime;
+    this.priority = priority;
+    setBursts(bursts);
+  }
+
   public String getPID() {
     return pID;
   }
@@ -74,19 +98,55 @@ public class PCB implements Cloneable {
     this.pID = pID;
   }
 
-  public int getBurstTime() {
+  public long getBurstTime() {
     return burstTime;
   }
 
-  public void setBurstTime(int burstTime) {
+  /**
+   * @param burstTime the cpu time the process requires; a burst sequence is replaced by this single
+   *                  CPU burst
+   */
+  public void setBurstTime(long burstTime) {
     this.burstTime = burstTime;
+    this.bursts = null;
+  }
+
+  /**
+   * @return a copy of the CPU and I/O bursts of the process, in order (CPU, I/O, CPU, ..., CPU); a
+   *         single CPU burst for a process without I/O
+   */
+  public long[] getBursts() {
+    return bursts == null ? new long[] {burstTime} : bursts.clone();
+  }
+
+  /**
+   * Sets the CPU and I/O bursts of the process; the burst time becomes the total CPU time.
+   * 
+   * @param bursts the bursts, in order: CPU, I/O, CPU, ..., CPU
+   * @throws IllegalArgumentException if the sequence does not start and end with a CPU burst
+   */
+  public void setBursts(long... bursts) {
+    if (bursts.length % 2 == 0)
+      throw new IllegalArgumentException("Process " + pID + " must start and end with a CPU burst, got "
+          + bursts.length + " bursts");
+    var cpu = 0L;
+    for (var i = 0; i < bursts.length; i += 2) cpu += bursts[i];
+    this.burstTime = cpu;
+    this.bursts = bursts.length == 1 ? null : bursts.clone();
+  }
+
+  /**
+   * @return true if the process has I/O bursts between CPU bursts
+   */
+  public boolean hasIo() {
+    return bursts != null;
   }
 
-  public int getArrivalTime() {
+  public long getArrivalTime() {
     return arrivalTime;
   }
 
-  public void setArrivalTime(int arrivalTime) {
+  public void setArrivalTime(long arrivalTime) {
     this.arrivalTime = arrivalTime;
   }
 
@@ -101,11 +161,13 @@ public class PCB implements Cloneable {
   @Override
   public String toString() {
     return "PCB [PID=" + pID + ", burstTime=" + burstTime + ", arrivalTime=" + arrivalTime + ", priority=" + priority
-        + "]";
+        + (bursts == null ? "" : ", bursts=" + Arrays.toString(bursts)) + "]";
   }
 
   @Override
   protected PCB clone() {
-    return new PCB(pID, burstTime, arrivalTime, priority);
+    var clone = new PCB(pID, burstTime, arrivalTime, priority);
+    clone.bursts = bursts;
+    return clone;
   }
 }
\ No newline at end of file
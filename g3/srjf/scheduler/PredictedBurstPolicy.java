@@ -0,0 +1,165 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Shortest job first on predicted burst times: the ready queue is ordered by what a
+ * {@link BurstPredictor} expects a process to need instead of its exact burst time, which a real
+ * scheduler never knows. Every CPU burst is predicted once, when the process becomes ready for it;
+ * its predicted remaining time is the prediction minus the time the burst already executed, and 0
+ * once it outlived its prediction. When preemptive, a newly ready process preempts the running one if
+ * its prediction is shorter than the predicted remaining time of the running process (plus the
+ * preemption threshold).
+ *
+ * The predictor learns the actual burst when the CPU burst completes, so a process alternating CPU
+ * and I/O bursts is ranked on the history of its own earlier bursts. The error of every prediction
+ * (prediction minus actual burst) is accumulated so the quality of the predictor can be reported
+ * next to the waiting times it leads to.
+ */
+public class PredictedBurstPolicy implements SchedulingPolicy {
+  private final BurstPredictor predictor;
+  private final boolean isPreemptive;
+  private final long preemptionThreshold;
+  private Workload workload;
+  private IntReadyQueue readyQueue;
+
+  /*
+   * The prediction the current CPU burst of every process is ranked with, -1 until the process becomes
+   * ready for it, and the actual length of that burst
+   */
+  private long[] predicted;
+  private long[] burst;
+
+  /*
+   * Errors of the predictions of the completed CPU bursts
+   */
+  private long predictions;
+  private double sumError;
+  private double sumAbsoluteError;
+  private LatencyHistogram absoluteErrorHistogram;
+
+  /**
+   * @param predictor    estimates the burst of every process, reset at the start of every run
+   * @param isPreemptive whether a newly ready process can preempt the running process
+   */
+  public PredictedBurstPolicy(BurstPredictor predictor, boolean isPreemptive) {
+    this(predictor, isPreemptive, 0);
+  }
+
+  /**
+   * @param predictor           estimates the burst of every process, reset at the start of every run
+   * @param isPreemptive        whether a newly ready process can preempt the running process
+   * @param preemptionThreshold a ready process only preempts the running process if its prediction is
+   *                            more than this much shorter
+   * @throws IllegalArgumentException if the threshold is negative
+   */
+  public PredictedBurstPolicy(BurstPredictor predictor, boolean isPreemptive, long preemptionThreshold) {
+    if (preemptionThreshold < 0)
+      throw new IllegalArgumentException("Negative preemption threshold: " + preemptionThreshold);
+    this.predictor = predictor;
+    this.isPreemptive = isPreemptive;
+    this.preemptionThreshold = preemptionThreshold;
+  }
+
+  public BurstPredictor getPredictor() {
+    return predictor;
+  }
+  public boolean isPreemptive() {
+    return isPreemptive;
+  }
+  public long getPreemptionThreshold() {
+    return preemptionThreshold;
+  }
+
+  @Override
+  public void reset(Workload workload) {
+    this.workload = workload;
+    this.readyQueue = new IntReadyQueue(workload.size());
+    this.predicted = new long[workload.size()];
+    this.burst = new long[workload.size()];
+    Arrays.fill(predicted, -1);
+    this.predictions = 0;
+    this.sumError = 0D;
+    this.sumAbsoluteError = 0D;
+    this.absoluteErrorHistogram = new LatencyHistogram();
+    predictor.reset(workload);
+  }
+
+  @Override
+  public void enqueue(int process, long remaining, long time) {
+    if (predicted[process] < 0) {
+      predicted[process] = Math.max(0, predictor.predict(process));
+      burst[process] = remaining;
+    }
+    readyQueue.add(process, predictedRemaining(process, remaining), workload.getArrivalTime(process));
+  }
+
+  @Override
+  public void requeue(int process, long remaining, long time, boolean quantumExpired) {
+    readyQueue.add(process, predictedRemaining(process, remaining), workload.getArrivalTime(process));
+  }
+
+  /**
+   * The scheduler does not know the burst, but it knows how long the process already executed.
+   */
+  private long predictedRemaining(int process, long remaining) {
+    var executed = burst[process] - remaining;
+    return Math.max(0, predicted[process] - executed);
+  }
+
+  @Override
+  public int dequeue(long time) {
+    return readyQueue.isEmpty() ? -1 : readyQueue.poll();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return readyQueue.isEmpty();
+  }
+
+  @Override
+  public boolean shouldPreempt(int running, long remaining, long time) {
+    return isPreemptive && !readyQueue.isEmpty()
+        && predictedRemaining(running, remaining) - readyQueue.getKey(readyQueue.peek()) > preemptionThreshold;
+  }
+
+  @Override
+  public void completed(int process, long time) {
+    var error = predicted[process] - burst[process];
+    predictions++;
+    sumError += error;
+    sumAbsoluteError += Math.abs(error);
+    absoluteErrorHistogram.record(Math.abs(error));
+    predictor.observe(process, burst[process]);
+    predicted[process] = -1;
+  }
+
+  /**
+   * @return number of predictions checked against the actual burst, one per completed CPU burst
+   */
+  public long getPredictionCount() {
+    return predictions;
+  }
+
+  /**
+   * @return the mean of the prediction minus the actual burst: positive when the predictor
+   *         overestimates the bursts, negative when it underestimates them
+   */
+  public double getAverageError() {
+    return predictions == 0 ? 0D : sumError / predictions;
+  }
+
+  /**
+   * @return the mean distance between the prediction and the actual burst
+   */
+  public double getAverageAbsoluteError() {
+    return predictions == 0 ? 0D : sumAbsoluteError / predictions;
+  }
+
+  /**
+   * @return a copy of the histogram of the distances between the predictions and the actual bursts
+   */
+  public LatencyHistogram getAbsoluteErrorHistogram() {
+    return absoluteErrorHistogram.copy();
+  }
+}
@@ -0,0 +1,129 @@
+package g3.srjf.scheduler;
+
+/**
+ * Priority policy: the ready process with the best priority runs next, a lower
+ * {@link PCB#getPriority() priority} value being a higher priority. When preemptive, a newly ready
+ * process takes the CPU from the running one if its priority is strictly better.
+ *
+ * With aging, a waiting process gains one priority level per aging interval since it became ready,
+ * up to the best priority of the workload and never past it, so a low priority process cannot starve
+ * behind a stream of higher priority ones. Only waiting ages a process: the running process ranks
+ * with its own priority, so a higher priority arrival preempts it however long it waited before, and
+ * a preempted process starts aging again from its own priority. Under a sustained overload every
+ * process ends up aged to the top level, where processes go in the order of their arrival.
+ *
+ * Aging is computed in virtual time: the effective priority of a waiting process at time t is
+ * {@code max(top, priority - (t - readySince) / agingInterval)}. Before reaching the top level,
+ * ranking processes by it at any t is the same as ranking them by the fixed instant they reach the
+ * top level, {@code readySince + (priority - top) * agingInterval}; the processes past that instant
+ * move once, in that order, to a second queue ordered by arrival. The keys are set once when a
+ * process becomes ready, so aging never touches the ready queues: an event costs O(log n) however
+ * many processes wait. A waiting process that ages past the running one takes the CPU at the next
+ * event (an arrival, an I/O return or a completion), preemption being checked when processes become
+ * ready.
+ *
+ * Ties go to the process that arrived first and then to the lower index.
+ */
+public class PriorityPolicy implements SchedulingPolicy {
+  private final boolean isPreemptive;
+  private final long agingInterval;
+  private Workload workload;
+
+  /*
+   * Without aging, the ready processes by priority. With aging, the processes still aging by the
+   * instant they reach the top level, and the ones at the top level by arrival
+   */
+  private IntReadyQueue readyQueue;
+  private IntReadyQueue topLevel;
+
+  /*
+   * The best priority of the workload, the level aging stops at
+   */
+  private int top;
+
+  /**
+   * @param isPreemptive  whether a newly ready process can preempt the running process
+   * @param agingInterval time after which a waiting process gains one priority level, 0 for no aging
+   * @throws IllegalArgumentException if the aging interval is negative
+   */
+  public PriorityPolicy(boolean isPreemptive, long agingInterval) {
+    if (agingInterval < 0) throw new IllegalArgumentException("Negative aging interval: " + agingInterval);
+    this.isPreemptive = isPreemptive;
+    this.agingInterval = agingInterval;
+  }
+
+  public boolean isPreemptive() {
+    return isPreemptive;
+  }
+  public long getAgingInterval() {
+    return agingInterval;
+  }
+
+  @Override
+  public void reset(Workload workload) {
+    this.workload = workload;
+    this.readyQueue = new IntReadyQueue(workload.size());
+    this.topLevel = new IntReadyQueue(agingInterval == 0 ? 0 : workload.size());
+    this.top = Integer.MAX_VALUE;
+    for (var process = 0; process < workload.size(); process++) top = Math.min(top, workload.getPriority(process));
+  }
+
+  /**
+   * @throws ArithmeticException if the instant the process reaches the top level does not fit in a long
+   */
+  @Override
+  public void enqueue(int process, long remaining, long time) {
+    if (agingInterval == 0) {
+      readyQueue.add(process, workload.getPriority(process), workload.getArrivalTime(process));
+      return;
+    }
+    var aged = aging(process);
+    if (aged == 0) topLevel.add(process, 0, workload.getArrivalTime(process));
+    else readyQueue.add(process, Math.addExact(time, aged), workload.getArrivalTime(process));
+  }
+
+  /** A preempted process waits again, aging from its own priority */
+  @Override
+  public void requeue(int process, long remaining, long time, boolean quantumExpired) {
+    enqueue(process, remaining, time);
+  }
+
+  @Override
+  public int dequeue(long time) {
+    promote(time);
+    if (!topLevel.isEmpty()) return topLevel.poll();
+    return readyQueue.isEmpty() ? -1 : readyQueue.poll();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return readyQueue.isEmpty() && topLevel.isEmpty();
+  }
+
+  @Override
+  public boolean shouldPreempt(int running, long remaining, long time) {
+    if (!isPreemptive || isEmpty()) return false;
+    if (agingInterval == 0) return readyQueue.getKey(readyQueue.peek()) < workload.getPriority(running);
+    /** Both sides in waiting time still needed to reach the top level, the running process not aging */
+    promote(time);
+    var head = topLevel.isEmpty() ? readyQueue.getKey(readyQueue.peek()) - time : 0;
+    return head < aging(running);
+  }
+
+  /**
+   * @return the time a process must wait to age from its priority to the top level
+   */
+  private long aging(int process) {
+    return Math.multiplyExact((long) workload.getPriority(process) - top, agingInterval);
+  }
+
+  /**
+   * Moves the processes that reached the top level by this time to the top level queue.
+   */
+  private void promote(long time) {
+    while (!readyQueue.isEmpty() && agingInterval > 0 && readyQueue.getKey(readyQueue.peek()) <= time) {
+      var process = readyQueue.poll();
+      topLevel.add(process, 0, workload.getArrivalTime(process));
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package g3.srjf.scheduler;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Priority scheduling of the processes on their {@link PCB#getPriority() priority}, a lower value
+ * being a higher priority (as with Unix nice values), preemptive or not.
+ *
+ * With an aging interval a process gains one priority level per interval it waits, up to the best
+ * priority of the workload, so low priority processes cannot starve; see {@link PriorityPolicy} for
+ * how aging is kept O(log n) per event. Aging,
+ * a switch cost model and I/O bursts run on the SimulationEngine, plain priority scheduling on the
+ * comparator loop of {@link Scheduler}.
+ */
+public class PriorityScheduler extends Scheduler {
+  /*
+   * Time after which a waiting process gains one priority level, 0 for no aging
+   */
+  private long agingInterval;
+
+  public PriorityScheduler(List<PCB> processes) {
+    super(processes);
+  }
+
+  /**
+   * @param processes     list of processes to be executed
+   * @param agingInterval time after which a waiting process gains one priority level, 0 for no aging
+   * @throws IllegalArgumentException if the aging interval is negative
+   */
+  public PriorityScheduler(List<PCB> processes, long agingInterval) {
+    super(processes);
+    setAgingInterval(agingInterval);
+  }
+
+  public long getAgingInterval() {
+    return agingInterval;
+  }
+  /**
+   * @param agingInterval time after which a waiting process gains one priority level, 0 for no aging
+   * @throws IllegalArgumentException if the aging interval is negative
+   */
+  public void setAgingInterval(long agingInterval) {
+    if (agingInterval < 0) throw new IllegalArgumentException("Negative aging interval: " + agingInterval);
+    this.agingInterval = agingInterval;
+  }
+
+  /**
+   * 
+   * @param isPreemptive : tell the scheduler to wether a coming process of higher priority can pre-empt the
+   *                       currently executing process or not, default value is true
+   * @return snapshot of the process exection as a {@code ScheduleTable }
+   */
+  public ScheduleTable priorityScheduler(boolean isPreemptive) {
+    if (agingInterval > 0 || getSwitchCostModel() != null || hasIo())
+      return schedule(new Workload(getProcesses()), new PriorityPolicy(isPreemptive, agingInterval));
+
+    /**
+     * The process queue is in the order of arrival, processes arriving at the same time in the order of
+     * their priority and then of their position in the list
+     */
+    Comparator<PCB> processQueueComparator = (PCB p1, PCB p2) -> {
+      if (p1.getArrivalTime() != p2.getArrivalTime()) return Long.compare(p1.getArrivalTime(), p2.getArrivalTime());
+      if (p1.getPriority() != p2.getPriority()) return Integer.compare(p1.getPriority(), p2.getPriority());
+      return Integer.compare(getSlot(p1.getPID()), getSlot(p2.getPID()));
+    };
+
+    /**
+     * The ready queue puts the highest priority (lowest value) in front. Ties go to the process that
+     * arrived first and then to the one listed first, the same order as the PriorityPolicy
+     */
+    Comparator<PCB> readyQueueComparator = (PCB p1, PCB p2) -> {
+      if (p1.getPriority() != p2.getPriority()) return Integer.compare(p1.getPriority(), p2.getPriority());
+      if (p1.getArrivalTime() != p2.getArrivalTime()) return Long.compare(p1.getArrivalTime(), p2.getArrivalTime());
+      return Integer.compare(getSlot(p1.getPID()), getSlot(p2.getPID()));
+    };
+    return schedule(processQueueComparator, readyQueueComparator, isPreemptive);
+  }
+
+  public ScheduleTable priorityScheduler() {
+    return priorityScheduler(true);
+  }
+}
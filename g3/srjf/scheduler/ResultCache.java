@@ -0,0 +1,162 @@
+package g3.srjf.scheduler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Size bounded cache of scheduling results, so that asking again for the schedule of a workload
+ * already simulated with the same policy skips the simulation. Entries are keyed by the
+ * {@link Workload#fingerprint() fingerprint} of the workload and a key describing the policy and
+ * its parameters, the least recently used entry being evicted when the cache is full.
+ *
+ * A hit is only reported after the cached workload is checked to hold the same content as the one
+ * asked for, so a fingerprint collision is a miss and never returns the wrong schedule. Cached
+ * results are immutable {@link ScheduleResult}s and can be handed to any number of threads.
+ *
+ * The cache is thread safe. Simulations run outside of its lock, so two threads missing on the same
+ * key at the same time both simulate and the last one stores its result.
+ */
+public class ResultCache {
+  private final int maxEntries;
+  private final LinkedHashMap<Key, ScheduleResult> entries;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  private static final class Key {
+    final long fingerprint;
+    final String policyKey;
+
+    Key(long fingerprint, String policyKey) {
+      this.fingerprint = fingerprint;
+      this.policyKey = policyKey;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) return false;
+      var other = (Key) obj;
+      return fingerprint == other.fingerprint && policyKey.equals(other.policyKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(fingerprint) * 31 + policyKey.hashCode();
+    }
+  }
+
+  /**
+   * @param maxEntries number of results the cache holds before evicting the least recently used one
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public ResultCache(int maxEntries) {
+    if (maxEntries <= 0) throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, ScheduleResult> eldest) {
+        if (size() <= ResultCache.this.maxEntries) return false;
+        evictions++;
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns the shortest remaining time first schedule of a workload, simulating it only if it is not
+   * cached yet.
+   *
+   * @param workload     the processes to be executed
+   * @param isPreemptive whether a newly arrived process can preempt the running one
+   * @return the immutable schedule and metrics of the workload
+   */
+  public ScheduleResult shortestRemaining(Workload workload, boolean isPreemptive) {
+    return shortestRemaining(workload, isPreemptive, 0);
+  }
+
+  /**
+   * Returns the shortest remaining time first schedule of a workload with a preemption threshold,
+   * simulating it only if it is not cached yet.
+   *
+   * @param workload            the processes to be executed
+   * @param isPreemptive        whether a newly arrived process can preempt the running one
+   * @param preemptionThreshold how much shorter than the running process a ready process must be to
+   *                            preempt it
+   * @return the immutable schedule and metrics of the workload
+   */
+  public ScheduleResult shortestRemaining(Workload workload, boolean isPreemptive, long preemptionThreshold) {
+    var policyKey = isPreemptive ? "srtf:preemptive" : "srtf:non-preemptive";
+    if (isPreemptive && preemptionThreshold != 0) policyKey += ":threshold=" + preemptionThreshold;
+    return get(workload, policyKey, () -> new ShortestRemainingTimePolicy(isPreemptive, preemptionThreshold));
+  }
+
+  /**
+   * Returns the schedule of a workload under a policy, simulating it only if it is not cached yet.
+   *
+   * @param workload  the processes to be executed
+   * @param policyKey identifies the policy and all the parameters it is built with: two policies with
+   *                  the same key must produce the same schedule
+   * @param policy    creates the policy if the workload has to be simulated
+   * @return the immutable schedule and metrics of the workload
+   */
+  public ScheduleResult get(Workload workload, String policyKey, Supplier<? extends SchedulingPolicy> policy) {
+    var key = new Key(workload.fingerprint(), policyKey);
+    synchronized (this) {
+      var cached = entries.get(key);
+      if (cached != null && cached.getWorkload().contentEquals(workload)) {
+        hits++;
+        return cached;
+      }
+      misses++;
+    }
+    var result = SimulationEngine.simulate(workload, policy.get());
+    synchronized (this) {
+      entries.put(key, result);
+    }
+    return result;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getHitCount() {
+    return hits;
+  }
+
+  public synchronized long getMissCount() {
+    return misses;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictions;
+  }
+
+  /**
+   * @return the fraction of the requests answered from the cache, 0 if there was none
+   */
+  public synchronized double getHitRate() {
+    var requests = hits + misses;
+    return requests == 0 ? 0D : (double) hits / requests;
+  }
+
+  /**
+   * Drops every cached result, the statistics are kept.
+   */
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "ResultCache [size=" + entries.size() + ", maxEntries=" + maxEntries + ", hits=" + hits + ", misses="
+        + misses + ", evictions=" + evictions + "]";
+  }
+}
@@ -0,0 +1,70 @@
+package g3.srjf.scheduler;
+
+/**
+ * Round robin policy: ready processes wait in a FIFO queue and each one runs for at most one time
+ * quantum before going back to the tail of the queue. A newly ready process never preempts the
+ * running one, it waits for the quantum to expire.
+ *
+ * The FIFO is a ring buffer of process indices; a process is in it at most once, so its capacity
+ * is the number of processes of the workload.
+ */
+public class RoundRobinPolicy implements SchedulingPolicy {
+  private final long quantum;
+  private int[] fifo;
+  private int head;
+  private int size;
+
+  /**
+   * @param quantum the time a process may run before it goes back to the ready queue
+   * @throws IllegalArgumentException if the quantum is not positive
+   */
+  public RoundRobinPolicy(long quantum) {
+    if (quantum <= 0) throw new IllegalArgumentException("Time quantum must be positive: " + quantum);
+    this.quantum = quantum;
+  }
+
+  public long getQuantum() {
+    return quantum;
+  }
+
+  @Override
+  public void reset(Workload workload) {
+    fifo = new int[Math.max(workload.size(), 1)];
+    head = 0;
+    size = 0;
+  }
+
+  @Override
+  public void enqueue(int process, long remaining, long time) {
+    fifo[(head + size++) % fifo.length] = process;
+  }
+
+  @Override
+  public void requeue(int process, long remaining, long time, boolean quantumExpired) {
+    enqueue(process, remaining, time);
+  }
+
+  @Override
+  public int dequeue(long time) {
+    if (size == 0) return -1;
+    var process = fifo[head];
+    head = (head + 1) % fifo.length;
+    size--;
+    return process;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public long timeSlice(int process, long remaining, long time) {
+    return quantum;
+  }
+
+  @Override
+  public boolean shouldPreempt(int running, long remaining, long time) {
+    return false;
+  }
+}
@@ -0,0 +1,117 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Run queue of one simulated core: a binary min-heap of process indices ordered by remaining time,
+ * then by arrival time and finally by index, like {@link IntReadyQueue}.
+ *
+ * Unlike {@link IntReadyQueue} it does not keep per-process arrays sized for the whole workload:
+ * the remaining times are read from the array shared by every core and the heap only grows with
+ * the number of processes actually queued on the core, so a simulation with many cores costs
+ * memory proportional to the workload and not to cores * workload. The remaining time of a process
+ * must not change while it is queued.
+ */
+class RunQueue {
+  private final long[] remaining;
+  private final Workload workload;
+  private int[] heap = new int[16];
+  private int size;
+
+  /*
+   * Sum of the remaining times of the queued processes
+   */
+  private long work;
+
+  /**
+   * @param remaining the remaining time of every process of the workload
+   * @param workload  the workload giving the arrival times used to break ties
+   */
+  RunQueue(long[] remaining, Workload workload) {
+    this.remaining = remaining;
+    this.workload = workload;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return the CPU time needed by all the queued processes
+   */
+  long getWork() {
+    return work;
+  }
+
+  void add(int process) {
+    if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+    heap[size] = process;
+    work += remaining[process];
+    siftUp(size++);
+  }
+
+  /**
+   * @return the index of the process at the front of the queue
+   * @throws NoSuchElementException if the queue is empty
+   */
+  int peek() {
+    if (size == 0) throw new NoSuchElementException("Run queue is empty");
+    return heap[0];
+  }
+
+  /**
+   * Removes and returns the process at the front of the queue.
+   *
+   * @return the index of the removed process
+   * @throws NoSuchElementException if the queue is empty
+   */
+  int poll() {
+    var front = peek();
+    work -= remaining[front];
+    if (--size > 0) {
+      heap[0] = heap[size];
+      siftDown(0);
+    }
+    return front;
+  }
+
+  /**
+   * @return true if process a must run before process b
+   */
+  boolean precedes(int a, int b) {
+    if (remaining[a] != remaining[b]) return remaining[a] < remaining[b];
+    var arrivalA = workload.getArrivalTime(a);
+    var arrivalB = workload.getArrivalTime(b);
+    if (arrivalA != arrivalB) return arrivalA < arrivalB;
+    return a < b;
+  }
+
+  private void siftUp(int i) {
+    var process = heap[i];
+    while (i > 0) {
+      var parent = (i - 1) >>> 1;
+      if (!precedes(process, heap[parent])) break;
+      heap[i] = heap[parent];
+      i = parent;
+    }
+    heap[i] = process;
+  }
+
+  private void siftDown(int i) {
+    var process = heap[i];
+    var half = size >>> 1;
+    while (i < half) {
+      var child = 2 * i + 1;
+      if (child + 1 < size && precedes(heap[child + 1], heap[child])) child++;
+      if (!precedes(heap[child], process)) break;
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = process;
+  }
+}
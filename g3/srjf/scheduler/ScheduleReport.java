@@ -0,0 +1,327 @@
+package g3.srjf.scheduler;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the processes, the schedule and the metrics of a run to any {@link Appendable} (a Writer,
+ * a PrintStream, a StringBuilder...) as text, CSV or JSON.
+ *
+ * Output goes through a fixed size buffer that is handed to the target every {@link #CHUNK_SIZE}
+ * characters, so rendering is linear in the size of the report and a schedule of millions of slices
+ * is never materialized as a single string.
+ *
+ * The text format is the one the {@code Scheduler.print} methods always printed. A CSV report is a
+ * sequence of tables, one per section, separated by an empty line. A JSON report is a single object
+ * with one member per section; it is completed by {@link #finish()}.
+ */
+public class ScheduleReport implements Flushable {
+  /** Number of characters buffered before they are written to the target */
+  public static final int CHUNK_SIZE = 8192;
+
+  public enum Format {
+    TEXT, CSV, JSON
+  }
+
+  private static final String NEW_LINE = System.lineSeparator();
+
+  private final Appendable out;
+  private final Format format;
+  private final StringBuilder buffer = new StringBuilder(CHUNK_SIZE + 256);
+  private int sections;
+  private boolean finished;
+
+  /**
+   * @param out    where the report is written
+   * @param format the format of the report
+   */
+  public ScheduleReport(Appendable out, Format format) {
+    this.out = out;
+    this.format = format;
+  }
+
+  public Format getFormat() {
+    return format;
+  }
+
+  /**
+   * Renders the list of processes.
+   *
+   * @param processes The list of PCBs.
+   * @return this report
+   */
+  public ScheduleReport processes(List<PCB> processes) {
+    switch (format) {
+      case TEXT:
+        line(" ----------------- PROCESSES ---------------- ");
+        line("PID   BurstT(ms)     ArrivalT(ms)     Priority");
+        for (var process : processes) {
+          buffer.append(process.getPID()).append("    ").append(process.getBurstTime()).append("              ")
+              .append(process.getArrivalTime()).append("                ").append(process.getPriority());
+          endLine();
+        }
+        line(" -------------------------------------------- ");
+        break;
+      case CSV:
+        beginSection();
+        line("pid,burst_time,arrival_time,priority");
+        for (var process : processes) {
+          csv(process.getPID()).append(',').append(process.getBurstTime()).append(',')
+              .append(process.getArrivalTime()).append(',').append(process.getPriority());
+          endLine();
+        }
+        break;
+      default:
+        beginSection();
+        json("processes").append(":[");
+        var first = true;
+        for (var process : processes) {
+          if (!first) buffer.append(',');
+          first = false;
+          buffer.append("{\"pid\":");
+          json(process.getPID()).append(",\"burstTime\":").append(process.getBurstTime()).append(",\"arrivalTime\":")
+              .append(process.getArrivalTime()).append(",\"priority\":").append(process.getPriority()).append('}');
+          chunk();
+        }
+        buffer.append(']');
+        break;
+    }
+    chunk();
+    return this;
+  }
+
+  /**
+   * Renders the process execution schedule.
+   *
+   * @param scheduleTable The schedule table containing execution snapshots.
+   * @return this report
+   */
+  public ScheduleReport schedule(ScheduleTable scheduleTable) {
+    var n = scheduleTable.size();
+    switch (format) {
+      case TEXT:
+        line(" -------- Process Execution Schedule -------- ");
+        buffer.append('[');
+        for (var i = 0; i < n; i++) {
+          buffer.append(scheduleTable.gettInitial(i)).append(" <- ").append(scheduleTable.getPID(i)).append(" -> ");
+          chunk();
+        }
+        if (n > 0) buffer.append(scheduleTable.getLastFinal());
+        buffer.append(']');
+        endLine();
+        line(" -------- ------- --------- -------- -------- ");
+        break;
+      case CSV:
+        beginSection();
+        line("pid,t_initial,t_final");
+        for (var i = 0; i < n; i++) {
+          csv(scheduleTable.getPID(i)).append(',').append(scheduleTable.gettInitial(i)).append(',')
+              .append(scheduleTable.gettFinal(i));
+          endLine();
+        }
+        break;
+      default:
+        beginSection();
+        json("schedule").append(":[");
+        for (var i = 0; i < n; i++) {
+          if (i > 0) buffer.append(',');
+          buffer.append("{\"pid\":");
+          json(scheduleTable.getPID(i)).append(",\"tInitial\":").append(scheduleTable.gettInitial(i))
+              .append(",\"tFinal\":").append(scheduleTable.gettFinal(i)).append('}');
+          chunk();
+        }
+        buffer.append(']');
+        break;
+    }
+    chunk();
+    return this;
+  }
+
+  /**
+   * Renders a per-process metric.
+   *
+   * @param header  The header string.
+   * @param mapData The map of data to render.
+   * @return this report
+   */
+  public ScheduleReport metric(String header, Map<String, Long> mapData) {
+    switch (format) {
+      case TEXT:
+        line(" ------ " + header + " ------ ");
+        for (var entry : mapData.entrySet()) {
+          buffer.append("   ").append(entry.getKey()).append(" : ").append(entry.getValue()).append("ms");
+          endLine();
+        }
+        line(" ------ ---------- ----- ------ ");
+        break;
+      case CSV:
+        beginSection();
+        buffer.append("pid,");
+        csv(header);
+        endLine();
+        for (var entry : mapData.entrySet()) {
+          csv(entry.getKey()).append(',').append(entry.getValue());
+          endLine();
+        }
+        break;
+      default:
+        beginSection();
+        json(header).append(":{");
+        var first = true;
+        for (var entry : mapData.entrySet()) {
+          if (!first) buffer.append(',');
+          first = false;
+          json(entry.getKey()).append(':').append(entry.getValue());
+          chunk();
+        }
+        buffer.append('}');
+        break;
+    }
+    chunk();
+    return this;
+  }
+
+  /**
+   * Renders a single value, in proc/ms if the header is about the throughput and in ms otherwise.
+   *
+   * @param header The header string.
+   * @param value  The value to render.
+   * @return this report
+   */
+  public ScheduleReport value(String header, double value) {
+    switch (format) {
+      case TEXT:
+        buffer.append(" - ").append(header).append(": ").append(value)
+            .append(header.contains("Throughput") || header.contains("throughput") ? "proc/ms" : "ms");
+        endLine();
+        break;
+      case CSV:
+        beginSection();
+        csv(header);
+        endLine();
+        buffer.append(value);
+        endLine();
+        break;
+      default:
+        beginSection();
+        json(header).append(':');
+        if (Double.isFinite(value)) buffer.append(value);
+        else buffer.append("null");
+        break;
+    }
+    chunk();
+    return this;
+  }
+
+  /**
+   * Renders a single count of events, as a whole number without a unit.
+   *
+   * @param header The header string.
+   * @param count  The count to render.
+   * @return this report
+   */
+  public ScheduleReport count(String header, long count) {
+    switch (format) {
+      case TEXT:
+        buffer.append(" - ").append(header).append(": ").append(count);
+        endLine();
+        break;
+      case CSV:
+        beginSection();
+        csv(header);
+        endLine();
+        buffer.append(count);
+        endLine();
+        break;
+      default:
+        beginSection();
+        json(header).append(':').append(count);
+        break;
+    }
+    chunk();
+    return this;
+  }
+
+  /**
+   * Completes the report (closing the JSON object) and flushes it. Nothing can be rendered afterwards.
+   */
+  public void finish() {
+    if (finished) return;
+    if (format == Format.JSON) buffer.append(sections == 0 ? "{}" : "}");
+    finished = true;
+    flush();
+  }
+
+  /**
+   * Writes the buffered characters to the target, and flushes the target if it is {@link Flushable}.
+   *
+   * @throws UncheckedIOException if the target fails
+   */
+  @Override
+  public void flush() {
+    try {
+      write();
+      if (out instanceof Flushable) ((Flushable) out).flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void beginSection() {
+    if (finished) throw new IllegalStateException("Report is finished");
+    if (format == Format.JSON) buffer.append(sections == 0 ? '{' : ',');
+    else if (format == Format.CSV && sections > 0) endLine();
+    sections++;
+  }
+
+  private void line(String text) {
+    buffer.append(text);
+    endLine();
+  }
+
+  private void endLine() {
+    buffer.append(NEW_LINE);
+    chunk();
+  }
+
+  /** Hands the buffer to the target once it holds a full chunk */
+  private void chunk() {
+    if (buffer.length() < CHUNK_SIZE) return;
+    try {
+      write();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void write() throws IOException {
+    if (buffer.length() == 0) return;
+    out.append(buffer);
+    buffer.setLength(0);
+  }
+
+  /** Quotes a field holding a separator, a quote or a control character such as a line break */
+  private StringBuilder csv(String field) {
+    var quoted = false;
+    for (var i = 0; i < field.length() && !quoted; i++) {
+      var c = field.charAt(i);
+      quoted = c == ',' || c == '"' || c < 0x20;
+    }
+    if (!quoted) return buffer.append(field);
+    return buffer.append('"').append(field.replace("\"", "\"\"")).append('"');
+  }
+
+  private StringBuilder json(String text) {
+    buffer.append('"');
+    for (var i = 0; i < text.length(); i++) {
+      var c = text.charAt(i);
+      if (c == '"' || c == '\\') buffer.append('\\').append(c);
+      else if (c < 0x20) buffer.append(String.format("\\u%04x", (int) c));
+      else buffer.append(c);
+    }
+    return buffer.append('"');
+  }
+}
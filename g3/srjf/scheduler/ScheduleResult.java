@@ -0,0 +1,266 @@
+package g3.srjf.scheduler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable outcome of one scheduling run: the frozen schedule table, the per-process completion,
+ * turnaround, waiting and response times and their averages, histograms of the waiting, response
+ * and turnaround times, the throughput, the CPU utilization, the I/O overlap, and the context
+ * switches with the CPU time they cost. A result holds no reference to the scheduler or the
+ * policy that produced it and can be shared between threads.
+ *
+ * The response time of a process is, as in the maps of {@link Scheduler}, the instant it first got
+ * the CPU; the average and the histogram of the response times use the same definition.
+ *
+ * The waiting time of a process alternating CPU and I/O bursts is the time it spent ready: its
+ * turnaround time minus its CPU and I/O time.
+ *
+ * The per-process maps box one entry per process, so they are only built the first time one of
+ * them is asked for; the averages and the histograms come straight from the primitive metrics.
+ */
+public final class ScheduleResult {
+  private final Workload workload;
+  private final MetricsAccumulator metrics;
+  private final ScheduleTable scheduleTable;
+  private final LatencyHistogram waitingTimeHistogram;
+  private final LatencyHistogram responseTimeHistogram;
+  private final LatencyHistogram turnAroundTimeHistogram;
+  private final double averageTurnAroundTime;
+  private final double averageWaitingTime;
+  private final double averageResponseTime;
+  private final double throughput;
+  private final long finishTime;
+  private final long switchCount;
+  private final long switchTime;
+  private final long busyTime;
+  private final long ioBusyTime;
+  private final long overlapTime;
+
+  /*
+   * Per-process maps, built on first use
+   */
+  private volatile Maps maps;
+
+  private static final class Maps {
+    final Map<String, Long> completionTime;
+    final Map<String, Long> turnAroundTime;
+    final Map<String, Long> waitingTime;
+    final Map<String, Long> responseTime;
+
+    Maps(Map<String, Long> completionTime, Map<String, Long> turnAroundTime, Map<String, Long> waitingTime,
+        Map<String, Long> responseTime) {
+      this.completionTime = Collections.unmodifiableMap(completionTime);
+      this.turnAroundTime = Collections.unmodifiableMap(turnAroundTime);
+      this.waitingTime = Collections.unmodifiableMap(waitingTime);
+      this.responseTime = Collections.unmodifiableMap(responseTime);
+    }
+  }
+
+  /**
+   * Derives the metrics of a run from the events its loop recorded.
+   *
+   * @param workload      the processes that were executed
+   * @param scheduleTable the schedule the run produced, frozen by this constructor
+   * @param metrics       the first dispatch and completion of every process of the workload, not to be
+   *                      modified afterwards
+   * @param finishTime    the instant the CPU finished executing the last process
+   */
+  ScheduleResult(Workload workload, ScheduleTable scheduleTable, MetricsAccumulator metrics, long finishTime) {
+    this(workload, scheduleTable, metrics, finishTime, countSwitches(scheduleTable), 0, 0, 0);
+  }
+
+  /**
+   * Derives the metrics of a run from the events its loop recorded.
+   *
+   * @param workload      the processes that were executed
+   * @param scheduleTable the schedule the run produced, frozen by this constructor
+   * @param metrics       the first dispatch and completion of every process of the workload, not to be
+   *                      modified afterwards
+   * @param finishTime    the instant the CPU finished executing the last process
+   * @param switchCount   number of times the CPU went to another process than the one that last executed
+   * @param switchTime    time the CPU spent switching between processes
+   * @param ioBusyTime    time during which at least one process was in I/O
+   * @param overlapTime   time during which at least one process was in I/O while the CPU executed
+   *                      another one
+   */
+  ScheduleResult(Workload workload, ScheduleTable scheduleTable, MetricsAccumulator metrics, long finishTime,
+      long switchCount, long switchTime, long ioBusyTime, long overlapTime) {
+    this.workload = workload;
+    this.metrics = metrics;
+    this.scheduleTable = scheduleTable.freeze();
+    this.waitingTimeHistogram = new LatencyHistogram();
+    this.responseTimeHistogram = new LatencyHistogram();
+    this.turnAroundTimeHistogram = new LatencyHistogram();
+    var sumTurnAround = 0D;
+    var sumWaiting = 0D;
+    var sumResponse = 0D;
+    var busy = 0L;
+    for (var process = 0; process < workload.size(); process++) {
+      if (!metrics.isCompleted(process)) continue;
+      var turnAround = metrics.getCompletionTime(process) - workload.getArrivalTime(process);
+      var waiting = turnAround - workload.getBurstTime(process) - workload.getIoTime(process);
+      sumTurnAround += turnAround;
+      sumWaiting += waiting;
+      sumResponse += metrics.getFirstDispatchTime(process);
+      busy += workload.getBurstTime(process);
+      turnAroundTimeHistogram.record(turnAround);
+      waitingTimeHistogram.record(waiting);
+      responseTimeHistogram.record(metrics.getFirstDispatchTime(process));
+    }
+    var completed = metrics.getCompletedCount();
+    this.averageTurnAroundTime = completed == 0 ? 0D : sumTurnAround / completed;
+    this.averageWaitingTime = completed == 0 ? 0D : sumWaiting / completed;
+    this.averageResponseTime = completed == 0 ? 0D : sumResponse / completed;
+    this.throughput = workload.size() == 0 ? 0D : (double) workload.size() / finishTime;
+    this.finishTime = finishTime;
+    this.switchCount = switchCount;
+    this.switchTime = switchTime;
+    this.busyTime = busy;
+    this.ioBusyTime = ioBusyTime;
+    this.overlapTime = overlapTime;
+  }
+
+  /**
+   * Counts the slices of a schedule that give the CPU to another process than the one that last
+   * executed, for the runs recording no switch overhead.
+   */
+  private static long countSwitches(ScheduleTable scheduleTable) {
+    var switches = 0L;
+    var last = ScheduleTable.IDLE;
+    for (var i = 0; i < scheduleTable.size(); i++) {
+      var id = scheduleTable.getProcessId(i);
+      if (id < 0 || id == last) continue;
+      switches++;
+      last = id;
+    }
+    return switches;
+  }
+
+  private Maps maps() {
+    var built = maps;
+    if (built != null) return built;
+    synchronized (this) {
+      if (maps != null) return maps;
+      var n = workload.size();
+      var completion = new HashMap<String, Long>(n * 4 / 3 + 1);
+      var turnAround = new HashMap<String, Long>(n * 4 / 3 + 1);
+      var waiting = new HashMap<String, Long>(n * 4 / 3 + 1);
+      var response = new HashMap<String, Long>(n * 4 / 3 + 1);
+      for (var process = 0; process < n; process++) {
+        if (!metrics.isCompleted(process)) continue;
+        var pID = workload.getPID(process);
+        var processTurnAround = metrics.getCompletionTime(process) - workload.getArrivalTime(process);
+        completion.put(pID, metrics.getCompletionTime(process));
+        turnAround.put(pID, processTurnAround);
+        waiting.put(pID, processTurnAround - workload.getBurstTime(process) - workload.getIoTime(process));
+        response.putIfAbsent(pID, metrics.getFirstDispatchTime(process));
+      }
+      maps = new Maps(completion, turnAround, waiting, response);
+      return maps;
+    }
+  }
+
+  Workload getWorkload() {
+    return workload;
+  }
+
+  public ScheduleTable getScheduleTable() {
+    return scheduleTable;
+  }
+  public Map<String, Long> getCompletionTime() {
+    return maps().completionTime;
+  }
+  public Map<String, Long> getTurnAroundTime() {
+    return maps().turnAroundTime;
+  }
+  public Map<String, Long> getWaitingTime() {
+    return maps().waitingTime;
+  }
+  public Map<String, Long> getResponseTime() {
+    return maps().responseTime;
+  }
+  public double getAverageTurnAroundTime() {
+    return averageTurnAroundTime;
+  }
+  public double getAverageWaitingTime() {
+    return averageWaitingTime;
+  }
+  public double getAverageResponseTime() {
+    return averageResponseTime;
+  }
+  public double getThroughput() {
+    return throughput;
+  }
+  public long getFinishTime() {
+    return finishTime;
+  }
+
+  /**
+   * @return number of dispatches that gave the CPU to another process than the one that last executed,
+   *         the first dispatch included and a process preempted before the end of its switch not counting
+   */
+  public long getContextSwitchCount() {
+    return switchCount;
+  }
+
+  /**
+   * @return time the CPU spent switching between processes, 0 without a {@link SwitchCostModel}
+   */
+  public long getSwitchTime() {
+    return switchTime;
+  }
+
+  /**
+   * @return the share of the time the CPU was not idle that went to executing processes rather than
+   *         switching between them, 1 when it never switched at a cost
+   */
+  public double getCpuEfficiency() {
+    return busyTime + switchTime == 0 ? 1D : (double) busyTime / (busyTime + switchTime);
+  }
+
+  /**
+   * @return the fraction of the run the CPU spent executing processes, between 0 and 1
+   */
+  public double getCpuUtilization() {
+    return finishTime == 0 ? 0D : (double) busyTime / finishTime;
+  }
+
+  /**
+   * @return time during which at least one process was in I/O
+   */
+  public long getIoBusyTime() {
+    return ioBusyTime;
+  }
+
+  /**
+   * @return the fraction of the I/O time during which the CPU was executing a process, between 0 and 1:
+   *         the part of the I/O that was hidden behind computation; 0 without I/O
+   */
+  public double getIoOverlap() {
+    return ioBusyTime == 0 ? 0D : (double) overlapTime / ioBusyTime;
+  }
+
+  /**
+   * @return a copy of the histogram of the waiting times
+   */
+  public LatencyHistogram getWaitingTimeHistogram() {
+    return waitingTimeHistogram.copy();
+  }
+
+  /**
+   * @return a copy of the histogram of the response times, taken like those of the map as the first
+   *         time each process got the CPU
+   */
+  public LatencyHistogram getResponseTimeHistogram() {
+    return responseTimeHistogram.copy();
+  }
+
+  /**
+   * @return a copy of the histogram of the turnaround times
+   */
+  public LatencyHistogram getTurnAroundTimeHistogram() {
+    return turnAroundTimeHistogram.copy();
+  }
+}
@@ -0,0 +1,244 @@
+package g3.srjf.scheduler;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * The schedule (execution trace) produced by a scheduler, stored column by column: the process
+ * id, the instant the CPU began executing it and the instant it finished or suspended it are
+ * kept in growable primitive arrays (an int id and two long instants), so a slice costs 20 bytes
+ * instead of a list node plus an {@code ExecutionSnapshot} object.
+ *
+ * Idle CPU time is recorded with the {@link #IDLE} id instead of the "--" process id, and the
+ * overhead of the context switches charged by a {@link SwitchCostModel} with the {@link #SWITCH} id. The table
+ * is also a read-only {@code List<ExecutionSnapshot>}, whose elements are created on access and
+ * are copies: modifying them does not change the table. {@link OffHeapScheduleTable} keeps the
+ * slices outside of the Java heap instead.
+ */
+public class ScheduleTable extends AbstractList<ExecutionSnapshot> implements RandomAccess {
+  /** Process id of the slices during which the CPU is idle */
+  public static final int IDLE = -1;
+
+  /** The pID idle slices are reported with */
+  public static final String IDLE_PID = "--";
+
+  /** Process id of the slices the CPU spends switching to the next process */
+  public static final int SWITCH = -2;
+
+  /** The pID switch slices are reported with */
+  public static final String SWITCH_PID = "<>";
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private int[] process;
+  private long[] tInitial;
+  private long[] tFinal;
+  private int size;
+
+  /*
+   * A frozen table rejects every modification, which makes it safe to share between threads
+   */
+  private boolean frozen;
+
+  /*
+   * Resolves a process id to its pID
+   */
+  private IntFunction<String> names;
+
+  public ScheduleTable() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /**
+   * @param capacity number of slices the table can hold before growing
+   */
+  public ScheduleTable(int capacity) {
+    capacity = Math.max(capacity, 1);
+    this.process = new int[capacity];
+    this.tInitial = new long[capacity];
+    this.tFinal = new long[capacity];
+    this.names = id -> "P" + id;
+  }
+
+  /**
+   * @param names resolves the process ids recorded in the table to their pIDs
+   */
+  public void setNames(IntFunction<String> names) {
+    checkNotFrozen();
+    this.names = names;
+  }
+
+  /**
+   * Records that the CPU executed a process from tInitial to tFinal. If the last slice of the table
+   * belongs to the same process, the slice is extended instead of a new one being added.
+   *
+   * @param processId the id of the executed process, {@link #IDLE} or {@link #SWITCH}
+   * @param tInitial  the instant the CPU began exectuing the process
+   * @param tFinal    the instant the CPU finished/suspended executing the process
+   */
+  public void record(int processId, long tInitial, long tFinal) {
+    checkNotFrozen();
+    if (size > 0 && process[size - 1] == processId) {
+      this.tFinal[size - 1] = tFinal;
+      return;
+    }
+    append(processId, tInitial, tFinal);
+  }
+
+  /**
+   * Adds a slice at the end of the table as it is, without merging it into the previous one.
+   *
+   * @param processId the id of the executed process, {@link #IDLE} or {@link #SWITCH}
+   * @param tInitial  the instant the CPU began exectuing the process
+   * @param tFinal    the instant the CPU finished/suspended executing the process
+   */
+  public void append(int processId, long tInitial, long tFinal) {
+    checkNotFrozen();
+    if (size == process.length) grow();
+    process[size] = processId;
+    this.tInitial[size] = tInitial;
+    this.tFinal[size] = tFinal;
+    size++;
+  }
+
+  private void grow() {
+    var capacity = process.length + (process.length >> 1) + 1;
+    process = Arrays.copyOf(process, capacity);
+    tInitial = Arrays.copyOf(tInitial, capacity);
+    tFinal = Arrays.copyOf(tFinal, capacity);
+  }
+
+  /** Removes every slice, keeping the allocated columns */
+  @Override
+  public void clear() {
+    checkNotFrozen();
+    size = 0;
+  }
+
+  /**
+   * Drops the slices recorded after the first size ones and sets back the end of the last slice kept,
+   * which later records may have extended.
+   *
+   * @param size      number of slices to keep
+   * @param lastFinal the end of the last slice kept, ignored if size is 0
+   */
+  void truncate(int size, long lastFinal) {
+    checkNotFrozen();
+    if (size < 0 || size > this.size) throw new IndexOutOfBoundsException("Size " + size + ", size " + this.size);
+    this.size = size;
+    if (size > 0) tFinal[size - 1] = lastFinal;
+  }
+
+  /**
+   * @return a modifiable copy of the table, resolving process ids with the same names
+   */
+  public ScheduleTable copy() {
+    var copy = new ScheduleTable(size);
+    System.arraycopy(process, 0, copy.process, 0, size);
+    System.arraycopy(tInitial, 0, copy.tInitial, 0, size);
+    System.arraycopy(tFinal, 0, copy.tFinal, 0, size);
+    copy.size = size;
+    copy.names = names;
+    return copy;
+  }
+
+  /**
+   * Makes the table immutable: the columns are trimmed to the number of slices and any later
+   * modification throws {@code UnsupportedOperationException}.
+   *
+   * @return this table
+   */
+  public ScheduleTable freeze() {
+    if (!frozen) {
+      trimToSize();
+      frozen = true;
+    }
+    return this;
+  }
+
+  /** Shrinks the columns to the number of slices, before the table is frozen */
+  void trimToSize() {
+    process = Arrays.copyOf(process, size);
+    tInitial = Arrays.copyOf(tInitial, size);
+    tFinal = Arrays.copyOf(tFinal, size);
+  }
+
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  void checkNotFrozen() {
+    if (frozen) throw new UnsupportedOperationException("Schedule table is frozen");
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  public int getProcessId(int index) {
+    checkIndex(index);
+    return process[index];
+  }
+
+  public boolean isIdle(int index) {
+    return getProcessId(index) == IDLE;
+  }
+
+  public boolean isSwitch(int index) {
+    return getProcessId(index) == SWITCH;
+  }
+
+  public String getPID(int index) {
+    var id = getProcessId(index);
+    if (id == IDLE) return IDLE_PID;
+    return id == SWITCH ? SWITCH_PID : names.apply(id);
+  }
+
+  public long gettInitial(int index) {
+    checkIndex(index);
+    return tInitial[index];
+  }
+
+  public long gettFinal(int index) {
+    checkIndex(index);
+    return tFinal[index];
+  }
+
+  /**
+   * @return the instant the CPU finished executing the last slice
+   * @throws NoSuchElementException if the table is empty
+   */
+  public long getLastFinal() {
+    if (size == 0) throw new NoSuchElementException("Schedule table is empty");
+    return tFinal[size - 1];
+  }
+
+  /**
+   * @return a copy of the slice at the given index
+   */
+  @Override
+  public ExecutionSnapshot get(int index) {
+    return new ExecutionSnapshot(getPID(index), gettInitial(index), gettFinal(index));
+  }
+
+  /**
+   * @return a copy of the last slice of the table
+   * @throws NoSuchElementException if the table is empty
+   */
+  public ExecutionSnapshot getLast() {
+    if (size() == 0) throw new NoSuchElementException("Schedule table is empty");
+    return get(size() - 1);
+  }
+
+  IntFunction<String> getNames() {
+    return names;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+  }
+}
@@ -4,54 +4,79 @@ import java.util.Comparator;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.LinkedList;
 import java.util.PriorityQueue;
-
-public class Scheduler {
+import java.util.function.Supplier;
+
+/**
+ * Base of the schedulers: runs the processes and keeps the schedule table and the metrics of the last
+ * run.
+ *
+ * The scheduler owns the tables it creates, a plain {@link ScheduleTable} or one of the
+ * {@link #setScheduleTableFactory(Supplier) factory}: such a table stays readable until the next run
+ * replaces it or the scheduler is closed, and is then closed if it is {@link AutoCloseable} (e.g. an
+ * {@link OffHeapScheduleTable}, releasing its buffers and its spill file). Copy it to keep it longer.
+ * Tables taken from the {@link ResultCache} or set with {@link #setScheduleTable(ScheduleTable)} belong
+ * to whoever made them and are never closed by the scheduler.
+ */
+public class Scheduler implements AutoCloseable {
   /*
    * List of processes to be executed. Each process is represented by a PCB
    * (Process Control Block) object.
    */
   private List<PCB> processes;
 
+  /*
+   * Index from process id to a dense slot number, and the PCB held by each slot. It is built
+   * once per scheduling run so that the metric computations can resolve a process in constant
+   * time instead of scanning the process list for every execution snapshot.
+   */
+  private Map<String, Integer> processIndex;
+  private PCB[] indexedProcesses;
+
   /*
    * Map to store the turnaround time for each process. The key is the process id
-   * (String), and the value is the turnaround time (Integer). Turnaround time is the total
+   * (String), and the value is the turnaround time (Long). Turnaround time is the total
    * time taken from the submission of a process to its completion.
    */
-  private Map<String, Integer> turnAroundTime;
+  private Map<String, Long> turnAroundTime;
 
   /*
    * Map to store the waiting time for each process. The key is the process id
-   * (String), and the value is the waiting time (Integer). Waiting time is the total time
+   * (String), and the value is the waiting time (Long). Waiting time is the total time
    * spent by the process in the ready state waiting for the CPU. It is calculated as
    * turnaround time minus burst time (the actual time the process spends
    * executing on the CPU).
    */
-  private Map<String, Integer> waitingTime;
+  private Map<String, Long> waitingTime;
 
   /*
    * Map to store the completion time for each process. The key is the process id
-   * (String), and the value is the completion time (Integer). Completion time is the time
+   * (String), and the value is the completion time (Long). Completion time is the time
    * at which the process finishes its execution.
    */
-  private Map<String, Integer> completionTime;
+  private Map<String, Long> completionTime;
 
   /*
    * Map to store the response time for each process. The key is the process id
-   * (String), and the value is the response time (Integer). Response time is the time from
-   * submission (arrival time) of a request until the first response is produced (i.e., the first
-   * time the process gets the CPU).
+   * (String), and the value is the response time (Long). Response time is taken here as the
+   * instant the first response is produced (i.e., the first time the process gets the CPU), not
+   * its distance from the arrival.
+   */
+  private Map<String, Long> responseTime;
+
+  /*
+   * The schedule table, which contains snapshots of the execution at different times.
+   * Each snapshot (process id, tInitial, tFinal) is stored column by column in a ScheduleTable,
+   * which can also be read as a list of ExecutionSnapshot objects.
    */
-  private Map<String, Integer> responseTime;
+  private ScheduleTable scheduleTable;
 
   /*
-   * Linked list to store the schedule table, which contains snapshots of the
-   * execution at different times.
-   * Each snapshot is represented by an ExecutionSnapshot object, which captures
-   * the state of the system at a specific time.
+   * Whether the scheduleTable was created by this scheduler, which closes it when it is replaced
    */
-  private LinkedList<ExecutionSnapshot> scheduleTable;
+  private boolean ownsScheduleTable;
 
   /*
    * Average turnaround time for all processes. This is calculated as the sum of
@@ -78,21 +103,61 @@ public class Scheduler {
    */
   private double throughput;
 
+  /*
+   * Histograms of the waiting, response and turnaround times of the last run. They take a fixed
+   * amount of memory whatever the number of processes and give the percentiles (p50, p99...) the
+   * averages hide. Response times are recorded as in the map, the instant of the first dispatch.
+   */
+  private LatencyHistogram waitingTimeHistogram;
+  private LatencyHistogram responseTimeHistogram;
+  private LatencyHistogram turnAroundTimeHistogram;
+
+  /*
+   * Context switches of the last run: how many times the CPU went to another process than the one
+   * that last executed, the time spent switching and the share of the non idle CPU time that went to
+   * the processes. Switches only cost time in the runs simulated with a switch cost model.
+   */
+  private long contextSwitchCount;
+  private long switchTime;
+  private double cpuEfficiency;
+
+  /*
+   * Share of the last run the CPU spent executing processes, and share of the time processes spent
+   * in I/O that the CPU executed another process meanwhile (0 when no process does I/O)
+   */
+  private double cpuUtilization;
+  private double ioOverlap;
+
+  /*
+   * When set, shortest remaining time runs on workloads are looked up in (and stored into) this cache
+   */
+  private ResultCache resultCache;
+
+  /*
+   * Notified of the events of every run simulated by this scheduler, null when nobody listens
+   */
+  private SchedulerListener listener;
+
+  /*
+   * Creates the table every run records its schedule into, e.g. OffHeapScheduleTable::new for
+   * schedules larger than the heap; null for a plain ScheduleTable. Results taken from the
+   * resultCache keep the table they were simulated with.
+   */
+  private Supplier<? extends ScheduleTable> scheduleTableFactory;
+
+  /*
+   * Overhead charged on every dispatch of the runs on a workload, null for none. Those runs bypass
+   * the resultCache, whose results are simulated without overhead.
+   */
+  private SwitchCostModel switchCostModel;
+
   /**
    * @param processes list of processes to be executed
    */
 
   public Scheduler(List<PCB> processes) {
     this.processes = processes;
-    this.turnAroundTime = new HashMap<>();
-    this.waitingTime = new HashMap<>();
-    this.completionTime = new HashMap<>();
-    this.responseTime = new HashMap<>();
-    this.scheduleTable = new LinkedList<>();
-    this.averageTurnAroundTime = 0D;
-    this.averageWaitingTime = 0D;
-    this.averageResponseTime = 0D;
-    this.throughput = 0D;
+    reset();
   }
 
   public List<PCB> getProcesses() {
@@ -100,30 +165,36 @@ public class Scheduler {
   }
   public void setProcesses(List<PCB> processes) {
     this.processes = processes;
+    this.processIndex = null;
   }
-  public Map<String, Integer> getTurnAroundTime() {
+  public Map<String, Long> getTurnAroundTime() {
     return turnAroundTime;
   }
-  public void setTurnAroundTime(Map<String, Integer> turnAroundTime) {
+  public void setTurnAroundTime(Map<String, Long> turnAroundTime) {
     this.turnAroundTime = turnAroundTime;
   }
-  public Map<String, Integer> getWaitingTime() {
+  public Map<String, Long> getWaitingTime() {
     return waitingTime;
   }
-  public void setWaitingTime(Map<String, Integer> waitingTime) {
+  public void setWaitingTime(Map<String, Long> waitingTime) {
     this.waitingTime = waitingTime;
   }
-  public Map<String, Integer> getCompletionTime() {
+  public Map<String, Long> getCompletionTime() {
     return completionTime;
   }
-  public void setCompletionTime(Map<String, Integer> completionTime) {
+  public void setCompletionTime(Map<String, Long> completionTime) {
     this.waitingTime = completionTime;
   }
-  public LinkedList<ExecutionSnapshot> getScheduleTable() {
+  public ScheduleTable getScheduleTable() {
     return this.scheduleTable;
   }
-  public void setScheduleTable(LinkedList<ExecutionSnapshot> scheduleTable) {
-    this.scheduleTable = scheduleTable;
+  /**
+   * @param scheduleTable a table the caller keeps ownership of; the table it replaces is closed if the
+   *                      scheduler created it
+   */
+  public void setScheduleTable(ScheduleTable scheduleTable) {
+    if (!scheduleTable.isFrozen()) scheduleTable.setNames(this::getSlotPID);
+    replaceScheduleTable(scheduleTable, false);
   }
   public double getAverageTurnAroundTime() {
     return averageTurnAroundTime;
@@ -137,10 +208,10 @@ public class Scheduler {
   public void setAverageWaitingTime(double averageWaitingTime) {
     this.averageWaitingTime = averageWaitingTime;
   }
-  public Map<String, Integer> getResponseTime() {
+  public Map<String, Long> getResponseTime() {
     return responseTime;
   }
-  public void setResponseTime(Map<String, Integer> responseTime) {
+  public void setResponseTime(Map<String, Long> responseTime) {
     this.responseTime = responseTime;
   }
   public double getAverageResponseTime() {
@@ -155,87 +226,287 @@ public class Scheduler {
   public void setThroughput(double throughput) {
     this.throughput = throughput;
   }
+  public LatencyHistogram getWaitingTimeHistogram() {
+    return waitingTimeHistogram;
+  }
+  public LatencyHistogram getResponseTimeHistogram() {
+    return responseTimeHistogram;
+  }
+  public LatencyHistogram getTurnAroundTimeHistogram() {
+    return turnAroundTimeHistogram;
+  }
+  public long getContextSwitchCount() {
+    return contextSwitchCount;
+  }
+  public long getSwitchTime() {
+    return switchTime;
+  }
+  public double getCpuEfficiency() {
+    return cpuEfficiency;
+  }
+  public double getCpuUtilization() {
+    return cpuUtilization;
+  }
+  public double getIoOverlap() {
+    return ioOverlap;
+  }
+  public ResultCache getResultCache() {
+    return resultCache;
+  }
+  public void setResultCache(ResultCache resultCache) {
+    this.resultCache = resultCache;
+  }
+  public SchedulerListener getListener() {
+    return listener;
+  }
+  public void setListener(SchedulerListener listener) {
+    this.listener = listener;
+  }
+  public Supplier<? extends ScheduleTable> getScheduleTableFactory() {
+    return scheduleTableFactory;
+  }
+  public void setScheduleTableFactory(Supplier<? extends ScheduleTable> scheduleTableFactory) {
+    this.scheduleTableFactory = scheduleTableFactory;
+  }
+  public SwitchCostModel getSwitchCostModel() {
+    return switchCostModel;
+  }
+  public void setSwitchCostModel(SwitchCostModel switchCostModel) {
+    this.switchCostModel = switchCostModel;
+  }
   
   /**
    * Returns the process control block (PCB) for a given process ID.
    * 
    * @param pID The process ID to search for.
    * @return The PCB of the process with the specified ID.
+   * @throws NoSuchElementException if no process has the given ID
    */
   public PCB getProcess(String pID){
-    return processes.stream().filter(p -> p.getPID().equals(pID)).findFirst().get();
+    if (processIndex == null) indexProcesses();
+    var slot = processIndex.get(pID);
+    if (slot == null) throw new NoSuchElementException("No process with pID " + pID);
+    return indexedProcesses[slot];
   }
-  public void saveSnapshot(String pId, int tInit, int tFinal) {
-    if (!scheduleTable.isEmpty() && scheduleTable.getLast().getProcessId().equals(pId))
-      scheduleTable.getLast().settFinal(tFinal);
-    else
-      scheduleTable.addLast(new ExecutionSnapshot(pId, tInit, tFinal));
+
+  /**
+   * @return true if a process has I/O bursts, which only the simulation engine models
+   */
+  protected boolean hasIo() {
+    for (var process : processes) {
+      if (process.hasIo()) return true;
+    }
+    return false;
   }
-  public void computeResponseTime() {
-    var processSnapshot = this.getScheduleTable();
-    var it = processSnapshot.iterator();
-    while (it.hasNext()) {
-      var curr = it.next();
-      if(curr.getProcessId().contains("--")) continue;
-      if (!responseTime.containsKey(curr.getProcessId())) {
-        responseTime.put(curr.getProcessId(), curr.gettInitial());
-      }
+
+  /**
+   * Builds the process id to slot index. If two processes share the same id the first one
+   * in the process list wins, which is what the former linear scan returned.
+   */
+  private void indexProcesses() {
+    processIndex = new HashMap<>(processes.size() * 4 / 3 + 1);
+    indexedProcesses = new PCB[processes.size()];
+    var slots = 0;
+    for (PCB process : processes) {
+      if (processIndex.putIfAbsent(process.getPID(), slots) == null) indexedProcesses[slots++] = process;
     }
+  }
 
-    double sum = 0.0;
-    var mapIt = responseTime.entrySet().iterator();
-    while (mapIt.hasNext()) {
-      sum += mapIt.next().getValue();
+  /**
+   * Publishes the events gathered by the accumulator during a run into the metric maps
+   * and computes the averages and the throughput. This walks the processes once and never
+   * touches the schedule table.
+   * 
+   * @param metrics    the events recorded by the schedule loop
+   * @param finishTime the instant the CPU finished executing the last process
+   */
+  private void publishMetrics(MetricsAccumulator metrics, long finishTime) {
+    for (var slot = 0; slot < metrics.size(); slot++) {
+      if (!metrics.isCompleted(slot)) continue;
+      var process = indexedProcesses[slot];
+      var turnAround = metrics.getCompletionTime(slot) - process.getArrivalTime();
+      completionTime.put(process.getPID(), metrics.getCompletionTime(slot));
+      turnAroundTime.put(process.getPID(), turnAround);
+      waitingTime.put(process.getPID(), turnAround - process.getBurstTime());
+      responseTime.putIfAbsent(process.getPID(), metrics.getFirstDispatchTime(slot));
+      turnAroundTimeHistogram.record(turnAround);
+      waitingTimeHistogram.record(turnAround - process.getBurstTime());
+      responseTimeHistogram.record(metrics.getFirstDispatchTime(slot));
     }
+    this.averageTurnAroundTime = average(turnAroundTime);
+    this.averageWaitingTime = average(waitingTime);
+    this.averageResponseTime = average(responseTime);
+    this.throughput = (double) processes.size() / finishTime;
+    var busy = 0L;
+    for (var process : processes) busy += process.getBurstTime();
+    this.cpuUtilization = finishTime == 0 ? 0D : (double) busy / finishTime;
+  }
 
-    this.averageResponseTime = sum / responseTime.size();
+  /**
+   * Takes over the schedule and the metrics of a run made on a workload.
+   * 
+   * @param result the outcome of the run
+   * @param owned  whether the table of the result was created by this scheduler
+   */
+  private void adoptResult(ScheduleResult result, boolean owned) {
+    replaceScheduleTable(result.getScheduleTable(), owned);
+    this.completionTime = new HashMap<>(result.getCompletionTime());
+    this.turnAroundTime = new HashMap<>(result.getTurnAroundTime());
+    this.waitingTime = new HashMap<>(result.getWaitingTime());
+    this.responseTime = new HashMap<>(result.getResponseTime());
+    this.averageTurnAroundTime = result.getAverageTurnAroundTime();
+    this.averageWaitingTime = result.getAverageWaitingTime();
+    this.averageResponseTime = result.getAverageResponseTime();
+    this.throughput = result.getThroughput();
+    this.waitingTimeHistogram = result.getWaitingTimeHistogram();
+    this.responseTimeHistogram = result.getResponseTimeHistogram();
+    this.turnAroundTimeHistogram = result.getTurnAroundTimeHistogram();
+    this.contextSwitchCount = result.getContextSwitchCount();
+    this.switchTime = result.getSwitchTime();
+    this.cpuEfficiency = result.getCpuEfficiency();
+    this.cpuUtilization = result.getCpuUtilization();
+    this.ioOverlap = result.getIoOverlap();
   }
-  public void computeCompletionTime() {
-    var processSnapshot = this.getScheduleTable();
-    var it = processSnapshot.iterator();
-    while (it.hasNext()) {
-      var curr = it.next();
-      if(curr.getProcessId().contains("--")) continue;
-      completionTime.put(curr.getProcessId(), curr.gettFinal());
-    }
+
+  /**
+   * Discards the schedule and the metrics of the previous run, so every run starts from scratch
+   * instead of adding to the maps of the runs before it.
+   */
+  private void reset() {
+    this.turnAroundTime = new HashMap<>();
+    this.waitingTime = new HashMap<>();
+    this.completionTime = new HashMap<>();
+    this.responseTime = new HashMap<>();
+    var table = newScheduleTable();
+    table.setNames(this::getSlotPID);
+    replaceScheduleTable(table, true);
+    this.averageTurnAroundTime = 0D;
+    this.averageWaitingTime = 0D;
+    this.averageResponseTime = 0D;
+    this.throughput = 0D;
+    this.waitingTimeHistogram = new LatencyHistogram();
+    this.responseTimeHistogram = new LatencyHistogram();
+    this.turnAroundTimeHistogram = new LatencyHistogram();
+    this.contextSwitchCount = 0;
+    this.switchTime = 0;
+    this.cpuEfficiency = 1D;
+    this.cpuUtilization = 0D;
+    this.ioOverlap = 0D;
   }
-  public void computeTurnAroundTime(){
-    var processSnapshot = this.getScheduleTable();
-    var it = processSnapshot.iterator();
-    while (it.hasNext()) {
-      var curr = it.next();
-      if(curr.getProcessId().contains("--")) continue;  
-      turnAroundTime.put(curr.getProcessId(), curr.gettFinal() - getProcess(curr.getProcessId()).getArrivalTime());
+
+  private ScheduleTable newScheduleTable() {
+    return scheduleTableFactory == null ? new ScheduleTable() : scheduleTableFactory.get();
+  }
+
+  /**
+   * Makes a table the schedule table, closing the one it replaces if this scheduler owns it.
+   */
+  private void replaceScheduleTable(ScheduleTable table, boolean owned) {
+    if (table != scheduleTable && ownsScheduleTable) close(scheduleTable);
+    this.scheduleTable = table;
+    this.ownsScheduleTable = owned;
+  }
+
+  private static void close(ScheduleTable table) {
+    if (!(table instanceof AutoCloseable)) return;
+    try {
+      ((AutoCloseable) table).close();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IllegalStateException("Cannot close the schedule table", e);
     }
+  }
+
+  /**
+   * Closes the schedule table of the last run if this scheduler created it. The scheduler can still
+   * run afterwards, but the table of the last run cannot be read anymore.
+   */
+  @Override
+  public void close() {
+    if (ownsScheduleTable) close(scheduleTable);
+    ownsScheduleTable = false;
+  }
 
+  private static double average(Map<String, Long> mapData) {
     double sum = 0.0;
-    var mapIt = turnAroundTime.entrySet().iterator();
-    while (mapIt.hasNext()) {
-      sum += mapIt.next().getValue();
+    for (var value : mapData.values()) sum += value;
+    return sum / mapData.size();
+  }
+  /**
+   * Records an execution slice in the schedule table, "--" standing for idle CPU time.
+   * 
+   * @param pId    the process executed during the slice
+   * @param tInit  the instant the CPU began exectuing the process
+   * @param tFinal the instant the CPU finished/suspended executing the process
+   */
+  public void saveSnapshot(String pId, long tInit, long tFinal) {
+    /** The table of a run on the engine is frozen and may be shared with a cache: record into a copy */
+    if (scheduleTable.isFrozen()) replaceScheduleTable(scheduleTable.copy(), true);
+    if (pId.equals(ScheduleTable.IDLE_PID)) {
+      scheduleTable.record(ScheduleTable.IDLE, tInit, tFinal);
+      return;
+    }
+    if (processIndex == null) indexProcesses();
+    var slot = processIndex.get(pId);
+    if (slot == null) throw new NoSuchElementException("No process with pID " + pId);
+    scheduleTable.record(slot, tInit, tFinal);
+  }
+  /**
+   * Returns the position of a process in the process list, duplicated pIDs counting once. This is the
+   * last tie-breaker of the comparators, the one the primitive path uses too.
+   * 
+   * @param pID the process ID
+   * @return the slot of the first process with that ID
+   * @throws NoSuchElementException if no process has the given ID
+   */
+  protected int getSlot(String pID) {
+    if (processIndex == null) indexProcesses();
+    var slot = processIndex.get(pID);
+    if (slot == null) throw new NoSuchElementException("No process with pID " + pID);
+    return slot;
+  }
+  private String getSlotPID(int slot) {
+    if (processIndex == null) indexProcesses();
+    return indexedProcesses[slot].getPID();
+  }
+  public void computeResponseTime() {
+    var table = this.getScheduleTable();
+    for (var i = 0; i < table.size(); i++) {
+      if (table.isIdle(i) || table.isSwitch(i)) continue;
+      responseTime.putIfAbsent(table.getPID(i), table.gettInitial(i));
     }
 
-    this.averageTurnAroundTime = sum / turnAroundTime.size();
+    this.averageResponseTime = average(responseTime);
   }
-  public void computeWaitingTime(){
-    var processSnapshot = this.getScheduleTable();
-    var it = processSnapshot.iterator();
-    while (it.hasNext()) {
-      var curr = it.next();
-      if(curr.getProcessId().contains("--")) continue;
-      waitingTime.put(curr.getProcessId(),
-          turnAroundTime.get(curr.getProcessId()) - getProcess(curr.getProcessId()).getBurstTime());
+  public void computeCompletionTime() {
+    var table = this.getScheduleTable();
+    for (var i = 0; i < table.size(); i++) {
+      if (table.isIdle(i) || table.isSwitch(i)) continue;
+      completionTime.put(table.getPID(i), table.gettFinal(i));
+    }
+  }
+  public void computeTurnAroundTime(){
+    var table = this.getScheduleTable();
+    for (var i = 0; i < table.size(); i++) {
+      if (table.isIdle(i) || table.isSwitch(i)) continue;
+      turnAroundTime.put(table.getPID(i), table.gettFinal(i) - getProcess(table.getPID(i)).getArrivalTime());
     }
 
-    double sum = 0.0;
-    var mapIt = waitingTime.entrySet().iterator();
-    while (mapIt.hasNext()) {
-      sum += mapIt.next().getValue();
+    this.averageTurnAroundTime = average(turnAroundTime);
+  }
+  public void computeWaitingTime(){
+    var table = this.getScheduleTable();
+    for (var i = 0; i < table.size(); i++) {
+      if (table.isIdle(i) || table.isSwitch(i)) continue;
+      var pID = table.getPID(i);
+      waitingTime.put(pID, turnAroundTime.get(pID) - getProcess(pID).getBurstTime());
     }
 
-    this.averageWaitingTime = sum / waitingTime.size();
+    this.averageWaitingTime = average(waitingTime);
   }
   public void computeThroughput() {
-    this.throughput = (double) processes.size() / scheduleTable.getLast().gettFinal();
+    this.throughput = (double) processes.size() / scheduleTable.getLastFinal();
   }
   
   /**
@@ -243,20 +514,8 @@ public class Scheduler {
    * 
    * @param scheduleTable The schedule table containing execution snapshots.
    */
-  public static void print(LinkedList<ExecutionSnapshot> scheduleTable) {
-    System.out.println(" -------- Process Execution Schedule -------- ");
-    // for (var row : scheduleTable)
-    //   System.out.println("  [" + row.gettInitial() + " <- " + row.getProcessId() + " -> " + row.gettFinal() + "]");
-    var it = scheduleTable.iterator();
-    String row = "[";
-
-    while (it.hasNext()) {
-      var curr = it.next();
-      row += curr.gettInitial() + " <- " + curr.getProcessId() + " -> ";
-    }
-    row += scheduleTable.getLast().gettFinal() + "]";
-    System.out.println(row);
-    System.out.println(" -------- ------- --------- -------- -------- ");
+  public static void print(ScheduleTable scheduleTable) {
+    new ScheduleReport(System.out, ScheduleReport.Format.TEXT).schedule(scheduleTable).flush();
   }
 
   /**
@@ -265,15 +524,7 @@ public class Scheduler {
    * @param processes The list of PCBs.
    */
   public static void print(List<PCB> processes) {
-    System.out.println(" ----------------- PROCESSES ---------------- ");
-    System.out.println("PID   BurstT(ms)     ArrivalT(ms)     Priority");
-    for (var procces : processes) {
-      System.out.println(
-          procces.getPID() + "    " + procces.getBurstTime() + "              " + procces.getArrivalTime()
-              + "                "
-              + procces.getPriority());
-    }
-    System.out.println(" -------------------------------------------- ");
+    new ScheduleReport(System.out, ScheduleReport.Format.TEXT).processes(processes).flush();
   }
 
   /**
@@ -282,11 +533,8 @@ public class Scheduler {
    * @param header  The header string.
    * @param mapData The map of data to print.
    */
-  public static void print(String header, Map<String, Integer> mapData) {
-    System.out.println(" ------ " + header + " ------ ");
-    for (var entry : mapData.entrySet())
-      System.out.println("   " + entry.getKey() + " : " + entry.getValue() + "ms");
-    System.out.println(" ------ ---------- ----- ------ ");
+  public static void print(String header, Map<String, Long> mapData) {
+    new ScheduleReport(System.out, ScheduleReport.Format.TEXT).metric(header, mapData).flush();
   }
   
   /**
@@ -296,26 +544,64 @@ public class Scheduler {
    * @param value  The value to print.
    */
   public static void print(String header, double value) {
-    if(header.contains("Throughput") || header.contains("throughput"))
-      System.out.println(" - " + header + ": " + value + "proc/ms");
-    else
-      System.out.println(" - " + header + ": " + value + "ms");
+    new ScheduleReport(System.out, ScheduleReport.Format.TEXT).value(header, value).flush();
+  }
+
+  /**
+   * Writes the processes, the schedule and every metric of the last run as one report.
+   * 
+   * @param out    where the report is written
+   * @param format the format of the report
+   */
+  public void report(Appendable out, ScheduleReport.Format format) {
+    var report = new ScheduleReport(out, format)
+        .processes(processes)
+        .schedule(scheduleTable)
+        .metric("Turnaround time", turnAroundTime)
+        .metric("Response time", responseTime)
+        .metric("Completion Time", completionTime)
+        .metric("Waiting time", waitingTime)
+        .value("Average turnaround time", averageTurnAroundTime)
+        .value("Average waiting time", averageWaitingTime)
+        .value("Average response time", averageResponseTime)
+        .value("Throughput", throughput);
+    reportMetrics(report);
+    report.finish();
   }
 
   /**
+   * Adds the metrics only a kind of scheduler has to the report of the last run, after the common ones.
+   * 
+   * @param report the report being written
+   */
+  protected void reportMetrics(ScheduleReport report) {
+  }
+
+  /**
+   * Runs the processes with comparators on their PCBs. A process with I/O bursts runs its total CPU
+   * time in one go here, the I/O being ignored: {@link #schedule(Workload, SchedulingPolicy)} simulates it.
+   * 
    * @param processQueueComparator Comparator to sort the proccess queue
    * @param readyQueueComparator   The comparator used to order ready queue inside the priority queue
    * @param isPreemptive  tells the scheduler whether to use preemptive or non-premeemptive scheduling
-   * @return schedule(execution) snapshot as a LinkedList of {@code ExecutionSnapshot }
+   * @return schedule(execution) snapshot as a {@code ScheduleTable }
    */
-  public LinkedList<ExecutionSnapshot> schedule(Comparator<PCB> processQueueComparator, Comparator<PCB> readyQueueComparator, boolean isPreemptive) {
+  public ScheduleTable schedule(Comparator<PCB> processQueueComparator, Comparator<PCB> readyQueueComparator, boolean isPreemptive) {
+    reset();
+
+    // Index the processes once for this run so the metric computations resolve pIDs in O(1)
+    indexProcesses();
+
     // To not mutate the original process queue: make deep copy of the queue to work with
     var processesCopy = new LinkedList<PCB>();
     for (PCB process : processes) processesCopy.add(process.clone());
+    var listener = this.listener;
+    if (listener != null) listener.runStarted(processesCopy.size());
     
     // Check if the process queue is empty
     if (processesCopy.size() == 0) {
-      scheduleTable.addLast(new ExecutionSnapshot("--", 0, 0));
+      scheduleTable.record(ScheduleTable.IDLE, 0, 0);
+      if (listener != null) listener.runFinished(0);
       return scheduleTable;
     }
 
@@ -323,97 +609,209 @@ public class Scheduler {
     processesCopy.sort(processQueueComparator);
 
     /**
-     * Make a ready queue (process priority queue), remove the first process in the process queue and add 
-     * it to the ppq. ppq is a priority queue in which it is always guaranteed that element with highest 
-     * priority is at the top/front (depends on the readyQueueComparator) provided 
+     * Make a ready queue (process priority queue). ppq is a priority queue in which it is always guaranteed
+     * that element with highest priority is at the top/front (depends on the readyQueueComparator) provided
      * 
      * timer: used as clock to keep track of the cpu time
      **/
     var ppq = new PriorityQueue<PCB>(readyQueueComparator);
-    ppq.add(processesCopy.removeFirst());
-    var timer = 0;
+    var timer = 0L;
+
+    /**
+     * The metrics are gathered while the loop runs: the first time a process gets the CPU and the
+     * time it finishes are all that is needed to derive every metric once the loop exits
+     */
+    var metrics = new MetricsAccumulator(indexedProcesses.length);
+    var lastSlot = -1;
 
-    // As long as ready-queue is not empty: the processor keeps executing
-    while (!ppq.isEmpty()) {
+    // As long as there are processes waiting to arrive or to execute: the processor keeps executing
+    while (!processesCopy.isEmpty() || !ppq.isEmpty()) {
       /**
-       * If the process at the front of the top of the ready queue arrived late meaning arrived after the timer
-       * has started, there is cpu cycle wastage we need to keep track of.
-       * Example if the first process arrives 1second after the timer started
+       * Move every process arrived till now from the process queue to the ready queue at once. If none is
+       * ready the cpu stays idle until the next arrival: the whole gap is recorded in one go and the timer
+       * jumps straight to the next arrival, along with all the processes arriving at that same instant
        */
-      if (ppq.peek().getArrivalTime() > timer) {
-        saveSnapshot("--", timer, ppq.peek().getArrivalTime());
-        timer = ppq.peek().getArrivalTime();
-        continue;
+      admit(processesCopy, ppq, timer, listener);
+      if (ppq.isEmpty()) {
+        var nextArrival = processesCopy.getFirst().getArrivalTime();
+        saveSnapshot(ScheduleTable.IDLE_PID, timer, nextArrival);
+        if (listener != null) listener.idle(timer, nextArrival);
+        timer = nextArrival;
+        admit(processesCopy, ppq, timer, listener);
       }
 
       /** Take the front process inside the ready queue for execution */
       var currentProcess = ppq.poll();
+      int slot = processIndex.get(currentProcess.getPID());
+      metrics.dispatched(slot, timer);
+      if (slot != lastSlot) contextSwitchCount++;
+      lastSlot = slot;
+      if (listener != null) listener.dequeued(currentProcess.getPID(), timer);
 
       /**
-       * In case of preemptive scheduling: Until the next processe's arrival time, the currently executing process
-       * goes on execution unless it is done executing. We do this because we need to make sure if the next process
-       * has lower burst time/higher priority it will pre-empete the currently executing process.
-       * 
-       * let's find the next arrival time : 
-       *    If the processCopy is empty we have no next process
-       *    Else we will take the process at the front inside the process queue and get it arrival time
-       **/
-      var nextProcessArrivalTime = processesCopy.isEmpty() ? null : processesCopy.getFirst().getArrivalTime();
-
-      /**
-       * Then:
-       *  - If the scheduling is not preemptive: the next coming process will not pre-empete the currently executing process
-       *  - Or If there is no more process to be executed
-       *  - Or If the currently executing process gets done executing before the next process arrives
-       * Execution can just continue and
-       *    # Save the snapshot of the exectuion
-       *    # Advance the timer by burst time of the executed process (time it took to execute the current process)
-       *    # Save - completion time and update the timer
-       */
-      if (!isPreemptive || processesCopy.isEmpty() || timer + currentProcess.getBurstTime() <= nextProcessArrivalTime) {
-        saveSnapshot(currentProcess.getPID(), timer, timer + currentProcess.getBurstTime());
-        timer += currentProcess.getBurstTime();
-      }
-      /** Else
-       * The scheduling is preemptive and there is next process to be executed and the current process will not be done executed,
-       * thus we let the current process execute partly  or till the next process arrives and then push it back to ppq or the 
-       * ready queue with the remaining burst time
-       * 
-       * - The remaining burst time for the process is calculated as 
-       *      # timer + current process burst time - next process arrival time
-       * - And advance the timer to the next processe's arrival time
+       * The current process runs until it is done or until an arrival takes the cpu from it. Every arrival
+       * it outlasts is only added to the ready queue, the current process itself does not go through the
+       * ready queue again.
        */
-      else {
+      while (true) {
+        /**
+         * let's find the next arrival time : 
+         *    If the processCopy is empty we have no next process
+         *    Else we will take the process at the front inside the process queue and get it arrival time
+         **/
+        Long nextProcessArrivalTime = processesCopy.isEmpty() ? null : processesCopy.getFirst().getArrivalTime();
+
+        /**
+         * Then:
+         *  - If the scheduling is not preemptive: the next coming process will not pre-empete the currently executing process
+         *  - Or If there is no more process to be executed
+         *  - Or If the currently executing process gets done executing before the next process arrives
+         * Execution can just continue and
+         *    # Save the snapshot of the exectuion
+         *    # Advance the timer by burst time of the executed process (time it took to execute the current process)
+         *    # Save - completion time and update the timer
+         */
+        if (!isPreemptive || processesCopy.isEmpty() || timer + currentProcess.getBurstTime() <= nextProcessArrivalTime) {
+          saveSnapshot(currentProcess.getPID(), timer, timer + currentProcess.getBurstTime());
+          timer += currentProcess.getBurstTime();
+          metrics.completed(slot, timer);
+          if (listener != null) listener.completed(currentProcess.getPID(), timer);
+          break;
+        }
+
+        /** Else
+         * The scheduling is preemptive and the current process will not be done executing when the next process
+         * arrives, thus we let the current process execute till the next process arrives, with the remaining
+         * burst time calculated as
+         *      # timer + current process burst time - next process arrival time
+         * and advance the timer to the next processe's arrival time
+         */
         saveSnapshot(currentProcess.getPID(), timer, nextProcessArrivalTime);
         currentProcess.setBurstTime(currentProcess.getBurstTime() - (nextProcessArrivalTime - timer));
         timer = nextProcessArrivalTime;
+
+        /**
+         * The current process keeps the cpu, without going through the ready queue, if it comes strictly before
+         * the front of the ready queue and not after any process arriving at this instant: the same process
+         * the ready queue would give back if it was sent there before the arrivals are admitted
+         */
+        var keepsCpu = ppq.isEmpty() || readyQueueComparator.compare(currentProcess, ppq.peek()) < 0;
+        for (var arriving : processesCopy) {
+          if (!keepsCpu || arriving.getArrivalTime() > timer) break;
+          keepsCpu = readyQueueComparator.compare(currentProcess, arriving) <= 0;
+        }
+        if (keepsCpu) {
+          admit(processesCopy, ppq, timer, listener);
+          continue;
+        }
+
+        /** Otherwise it goes back to the ready queue with the remaining burst time, ahead of the arrivals */
         ppq.add(currentProcess);
+        if (listener != null) listener.enqueued(currentProcess.getPID(), timer, ppq.size());
+        admit(processesCopy, ppq, timer, listener);
+        /** A process sent back to the ready queue was preempted if another one is now in front of it */
+        if (listener != null && ppq.peek() != currentProcess)
+          listener.preempted(currentProcess.getPID(), timer, currentProcess.getBurstTime());
+        break;
       }
-
-      /**
-       * If there are other processes arrived till now, we move them from the process queue to the ready the ready queue  
-       **/
-      while (!processesCopy.isEmpty() && processesCopy.getFirst().getArrivalTime() <= timer)
-        ppq.add(processesCopy.removeFirst());
-
-      /**
-       * Check if processCopy is not empty and readyQueue is empty: this means that the process at the front of the process queue
-       * has not arrived yet, thus we have to forcefully push it inside the ready queue: other wise the execution will cease before finishing
-       */
-      if (!processesCopy.isEmpty() && ppq.isEmpty())
-        ppq.add(processesCopy.removeFirst());
     }
     /**
-     * Finally calculate completion, turnaround, waiting, and response times
-     * And the throughput of the cpu
+     * Finally publish completion, turnaround, waiting, and response times
+     * And the throughput of the cpu from the events recorded during the loop
      */
-    
-    computeCompletionTime();
-    computeTurnAroundTime();
-    computeWaitingTime();
-    computeResponseTime();
-    computeThroughput();
+    publishMetrics(metrics, timer);
+    if (listener != null) listener.runFinished(timer);
     /* and return the execution snapshot */
     return this.scheduleTable;
   }
-}
\ No newline at end of file
+
+  /**
+   * Moves every process arrived at or before the given time from the process queue to the ready queue.
+   */
+  private static void admit(LinkedList<PCB> processQueue, PriorityQueue<PCB> readyQueue, long time,
+      SchedulerListener listener) {
+    while (!processQueue.isEmpty() && processQueue.getFirst().getArrivalTime() <= time) {
+      var arriving = processQueue.removeFirst();
+      readyQueue.add(arriving);
+      if (listener != null) listener.enqueued(arriving.getPID(), time, readyQueue.size());
+    }
+  }
+
+  /**
+   * Shortest remaining time scheduling on primitive columns. It produces the same kind of schedule
+   * as {@link #schedule(Comparator, Comparator, boolean)} with the shortest job first comparators,
+   * but the processes are read into a {@link Workload} instead of being cloned and the ready queue
+   * is an {@link IntReadyQueue}.
+   * 
+   * @param isPreemptive tells the scheduler whether to use preemptive or non-premeemptive scheduling
+   * @return schedule(execution) snapshot as a {@code ScheduleTable }
+   */
+  public ScheduleTable scheduleShortestRemaining(boolean isPreemptive) {
+    return schedule(new Workload(processes), isPreemptive);
+  }
+
+  /**
+   * Shortest remaining time scheduling run directly on the columns of a workload, with the
+   * {@link ShortestRemainingTimePolicy}. Ties on the remaining time are broken by arrival time and
+   * then by position in the workload. If a {@link ResultCache} is set, a workload already scheduled
+   * in the same mode is not simulated again.
+   * 
+   * @param workload     the processes to be executed
+   * @param isPreemptive tells the scheduler whether to use preemptive or non-premeemptive scheduling
+   * @return schedule(execution) snapshot as a {@code ScheduleTable }
+   */
+  public ScheduleTable schedule(Workload workload, boolean isPreemptive) {
+    return schedule(workload, isPreemptive, 0);
+  }
+
+  /**
+   * Shortest remaining time scheduling of a workload where a ready process only preempts the running
+   * one if it needs more than the threshold less time, e.g. the cost of the context switch it causes.
+   * 
+   * @param workload            the processes to be executed
+   * @param isPreemptive        tells the scheduler whether to use preemptive or non-premeemptive scheduling
+   * @param preemptionThreshold the least gain, in remaining time, a preemption must bring
+   * @return schedule(execution) snapshot as a {@code ScheduleTable }
+   * @throws IllegalArgumentException if the threshold is negative
+   */
+  public ScheduleTable schedule(Workload workload, boolean isPreemptive, long preemptionThreshold) {
+    if (resultCache == null || switchCostModel != null)
+      return schedule(workload, new ShortestRemainingTimePolicy(isPreemptive, preemptionThreshold));
+    adoptResult(resultCache.shortestRemaining(workload, isPreemptive, preemptionThreshold), false);
+    return this.scheduleTable;
+  }
+
+  /**
+   * Runs a workload through the event driven {@link SimulationEngine} with the given policy. The
+   * workload is only read, the engine jumps from event to event and the metrics are gathered while
+   * it runs. Every dispatch is charged the overhead of the {@link #getSwitchCostModel() switch cost model}.
+   * 
+   * @param workload the processes to be executed
+   * @param policy   decides which ready process gets the CPU and when the running one is preempted
+   * @return schedule(execution) snapshot as a {@code ScheduleTable }
+   */
+  public ScheduleTable schedule(Workload workload, SchedulingPolicy policy) {
+    var table = newScheduleTable();
+    ScheduleResult result;
+    try {
+      result = SimulationEngine.simulate(workload, policy, listener, table, switchCostModel);
+    } catch (RuntimeException e) {
+      close(table);
+      throw e;
+    }
+    adoptResult(result, true);
+    return this.scheduleTable;
+  }
+
+  /**
+   * Runs a workload through the {@link SimulationEngine} without a Scheduler instance, e.g. to replay
+   * a workload read with {@link TraceFiles#readWorkload(java.nio.file.Path)}.
+   * 
+   * @param workload the processes to be executed
+   * @param policy   decides which ready process gets the CPU, used by this run only
+   * @return the immutable schedule and metrics of the run
+   */
+  public static ScheduleResult simulate(Workload workload, SchedulingPolicy policy) {
+    return SimulationEngine.simulate(workload, policy);
+  }
+}
@@ -0,0 +1,118 @@
+package g3.srjf.scheduler;
+
+/**
+ * {@link SchedulerListener} counting the events of the runs it listens to: heap operations on the
+ * ready queue, preemptions, completions, idle gaps and idle time, the largest ready queue seen and
+ * the wall clock time spent in the runs.
+ *
+ * Counters add up over runs until {@link #reset()}. They are plain fields: a counter must only be
+ * used by one run at a time.
+ */
+public class SchedulerCounters implements SchedulerListener {
+  private long runs;
+  private long enqueues;
+  private long dequeues;
+  private long preemptions;
+  private long completions;
+  private long idleGaps;
+  private long idleTime;
+  private int readyQueueHighWater;
+  private long runNanos;
+  private long runStartedAt;
+
+  @Override
+  public void runStarted(int processCount) {
+    runs++;
+    runStartedAt = System.nanoTime();
+  }
+
+  @Override
+  public void enqueued(String pID, long time, int readyQueueSize) {
+    enqueues++;
+    if (readyQueueSize > readyQueueHighWater) readyQueueHighWater = readyQueueSize;
+  }
+
+  @Override
+  public void dequeued(String pID, long time) {
+    dequeues++;
+  }
+
+  @Override
+  public void preempted(String pID, long time, long remaining) {
+    preemptions++;
+  }
+
+  @Override
+  public void completed(String pID, long time) {
+    completions++;
+  }
+
+  @Override
+  public void idle(long tInitial, long tFinal) {
+    idleGaps++;
+    idleTime += tFinal - tInitial;
+  }
+
+  @Override
+  public void runFinished(long finishTime) {
+    runNanos += System.nanoTime() - runStartedAt;
+  }
+
+  public void reset() {
+    runs = 0;
+    enqueues = 0;
+    dequeues = 0;
+    preemptions = 0;
+    completions = 0;
+    idleGaps = 0;
+    idleTime = 0;
+    readyQueueHighWater = 0;
+    runNanos = 0;
+  }
+
+  public long getRuns() {
+    return runs;
+  }
+  public long getEnqueues() {
+    return enqueues;
+  }
+  public long getDequeues() {
+    return dequeues;
+  }
+  public long getPreemptions() {
+    return preemptions;
+  }
+  public long getCompletions() {
+    return completions;
+  }
+  public long getIdleGaps() {
+    return idleGaps;
+  }
+  public long getIdleTime() {
+    return idleTime;
+  }
+  public int getReadyQueueHighWater() {
+    return readyQueueHighWater;
+  }
+
+  /**
+   * @return the number of insertions and removals made on the ready queue
+   */
+  public long getHeapOperations() {
+    return enqueues + dequeues;
+  }
+
+  /**
+   * @return the wall clock time spent in the runs, in nanoseconds
+   */
+  public long getRunNanos() {
+    return runNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "SchedulerCounters [runs=" + runs + ", enqueues=" + enqueues + ", dequeues=" + dequeues + ", preemptions="
+        + preemptions + ", completions=" + completions + ", idleGaps=" + idleGaps + ", idleTime=" + idleTime
+        + ", readyQueueHighWater=" + readyQueueHighWater + ", runNanos=" + runNanos + "]";
+  }
+}
@@ -0,0 +1,76 @@
+package g3.srjf.scheduler;
+
+/**
+ * Callbacks from inside a scheduling run: what goes in and out of the ready queue, preemptions,
+ * completions and idle gaps. Every method does nothing by default, so a listener only implements
+ * the events it needs.
+ *
+ * A scheduler without listener only pays a null check per event. A listener is called on the
+ * thread running the simulation, synchronously, so it must be cheap and must not modify the
+ * scheduler. {@link SchedulerCounters} counts the events, {@link JfrSchedulerListener} turns them into
+ * Java Flight Recorder events.
+ */
+public interface SchedulerListener {
+  /**
+   * A run begins.
+   *
+   * @param processCount the number of processes to be executed
+   */
+  default void runStarted(int processCount) {
+  }
+
+  /**
+   * A process was added to the ready queue, because it arrived or went back to the queue.
+   *
+   * @param pID            the process
+   * @param time           the current time
+   * @param readyQueueSize the number of processes in the ready queue, this one included
+   */
+  default void enqueued(String pID, long time, int readyQueueSize) {
+  }
+
+  /**
+   * A process was removed from the front of the ready queue to get the CPU.
+   *
+   * @param pID  the process
+   * @param time the current time
+   */
+  default void dequeued(String pID, long time) {
+  }
+
+  /**
+   * The running process lost the CPU to another process before finishing.
+   *
+   * @param pID       the preempted process
+   * @param time      the current time
+   * @param remaining the CPU time the process still needs
+   */
+  default void preempted(String pID, long time, long remaining) {
+  }
+
+  /**
+   * A process finished executing.
+   *
+   * @param pID  the process
+   * @param time the current time
+   */
+  default void completed(String pID, long time) {
+  }
+
+  /**
+   * The CPU had nothing to execute (a "--" slice of the schedule).
+   *
+   * @param tInitial the instant the CPU became idle
+   * @param tFinal   the instant the CPU got a process again
+   */
+  default void idle(long tInitial, long tFinal) {
+  }
+
+  /**
+   * A run is over.
+   *
+   * @param finishTime the instant the last process finished
+   */
+  default void runFinished(long finishTime) {
+  }
+}
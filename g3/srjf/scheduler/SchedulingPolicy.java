@@ -0,0 +1,81 @@
+package g3.srjf.scheduler;
+
+/**
+ * A scheduling policy plugged into the {@link SimulationEngine}. The engine owns the clock, the
+ * event queue and the bookkeeping of the running process; the policy owns the ready queue and
+ * decides which ready process runs next, for how long, and whether the running process must give
+ * the CPU up when the ready queue changes.
+ *
+ * Processes are identified by their index in the {@link Workload} being simulated. Times are the
+ * simulation clock, remaining times are what is left of the current CPU burst of a process.
+ */
+public interface SchedulingPolicy {
+  /**
+   * Prepares the policy for a run on the given workload, discarding the state of any earlier run.
+   *
+   * @param workload the processes about to be simulated
+   */
+  void reset(Workload workload);
+
+  /**
+   * A process became ready: it just arrived or came back from I/O.
+   *
+   * @param process   index of the process
+   * @param remaining CPU time the process still needs
+   * @param time      the current time
+   */
+  void enqueue(int process, long remaining, long time);
+
+  /**
+   * The running process left the CPU without finishing, it goes back to the ready queue.
+   *
+   * @param process        index of the process
+   * @param remaining      CPU time the process still needs
+   * @param time           the current time
+   * @param quantumExpired true if the time slice of the process ran out, false if it was preempted
+   */
+  void requeue(int process, long remaining, long time, boolean quantumExpired);
+
+  /**
+   * Removes the process that gets the CPU next from the ready queue.
+   *
+   * @param time the current time
+   * @return the index of the process, or -1 if no process is ready
+   */
+  int dequeue(long time);
+
+  /**
+   * @return true if no process is ready
+   */
+  boolean isEmpty();
+
+  /**
+   * @param process   index of the process being dispatched
+   * @param remaining CPU time the process still needs
+   * @param time      the current time
+   * @return how long the process may run before the policy is asked again, the engine never runs it
+   *         longer than its remaining time. {@code Long.MAX_VALUE} lets it run to completion.
+   */
+  default long timeSlice(int process, long remaining, long time) {
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Called after processes became ready while another one is running.
+   *
+   * @param running   index of the running process
+   * @param remaining CPU time the running process still needs
+   * @param time      the current time
+   * @return true if the running process must be preempted
+   */
+  boolean shouldPreempt(int running, long remaining, long time);
+
+  /**
+   * The running process finished its CPU burst.
+   *
+   * @param process index of the process
+   * @param time    the current time
+   */
+  default void completed(int process, long time) {
+  }
+}
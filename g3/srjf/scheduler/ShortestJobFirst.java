@@ -1,40 +1,139 @@
 package g3.srjf.scheduler;
 
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
 
 public class ShortestJobFirst extends Scheduler {
+  /*
+   * When set, the scheduler runs on the event driven SimulationEngine with the
+   * ShortestRemainingTimePolicy (an int-array ready queue) instead of the comparator
+   * based PriorityQueue of PCBs.
+   */
+  private boolean primitiveReadyQueue;
+
+  /*
+   * A ready process only preempts the running one if it needs more than this much less time, so
+   * preemptions gaining less than the cost of a context switch are not taken. Like a switch cost
+   * model, a threshold runs the scheduler on the SimulationEngine.
+   */
+  private long preemptionThreshold;
+
+  /*
+   * When set, the ready queue is ordered by the bursts this predictor expects instead of the exact
+   * burst times, and the errors of its predictions during the last run are kept next to the
+   * waiting times they lead to.
+   */
+  private BurstPredictor burstPredictor;
+  private double averagePredictionError;
+  private double averageAbsolutePredictionError;
+  private LatencyHistogram predictionErrorHistogram = new LatencyHistogram();
+
   public ShortestJobFirst(List<PCB> processes) {
     super(processes);
   }
 
+  public boolean isPrimitiveReadyQueue() {
+    return primitiveReadyQueue;
+  }
+  public void setPrimitiveReadyQueue(boolean primitiveReadyQueue) {
+    this.primitiveReadyQueue = primitiveReadyQueue;
+  }
+  public long getPreemptionThreshold() {
+    return preemptionThreshold;
+  }
+  /**
+   * @param preemptionThreshold the least gain, in remaining time, a preemption must bring; 0 preempts
+   *                            for any gain
+   * @throws IllegalArgumentException if the threshold is negative
+   */
+  public void setPreemptionThreshold(long preemptionThreshold) {
+    if (preemptionThreshold < 0)
+      throw new IllegalArgumentException("Negative preemption threshold: " + preemptionThreshold);
+    this.preemptionThreshold = preemptionThreshold;
+  }
+  public BurstPredictor getBurstPredictor() {
+    return burstPredictor;
+  }
+  public void setBurstPredictor(BurstPredictor burstPredictor) {
+    this.burstPredictor = burstPredictor;
+  }
+  /**
+   * @return the mean of the predicted minus the actual burst over the last run, positive when the
+   *         predictor overestimates; 0 if the run did not use a predictor
+   */
+  public double getAveragePredictionError() {
+    return averagePredictionError;
+  }
+  public double getAverageAbsolutePredictionError() {
+    return averageAbsolutePredictionError;
+  }
+  /**
+   * @return the histogram of the distances between the predicted and the actual bursts of the last run
+   */
+  public LatencyHistogram getPredictionErrorHistogram() {
+    return predictionErrorHistogram;
+  }
+
   /**
    * 
    * @param isPreemptive : tell the scheduler to wether the coming process can pre-empite the currently
    *                       executing process or not, default value is true
-   * @return snapshot of the process exection as a linked list
+   * @return snapshot of the process exection as a {@code ScheduleTable }
    */
-  public LinkedList<ExecutionSnapshot> shortestRemainingJobFirstScheduler(boolean isPreemptive) {
+  public ScheduleTable shortestRemainingJobFirstScheduler(boolean isPreemptive) {
+    averagePredictionError = 0D;
+    averageAbsolutePredictionError = 0D;
+    predictionErrorHistogram = new LatencyHistogram();
+    if (burstPredictor != null) {
+      var policy = new PredictedBurstPolicy(burstPredictor, isPreemptive, preemptionThreshold);
+      schedule(new Workload(getProcesses()), policy);
+      averagePredictionError = policy.getAverageError();
+      averageAbsolutePredictionError = policy.getAverageAbsoluteError();
+      predictionErrorHistogram = policy.getAbsoluteErrorHistogram();
+      return getScheduleTable();
+    }
+
+    /**
+     * Only the primitive path can be cached: its results depend on the workload and the mode alone. The
+     * switch costs, the preemption threshold and the I/O bursts are only modelled by the simulation engine.
+     */
+    if (primitiveReadyQueue || getResultCache() != null || getSwitchCostModel() != null || preemptionThreshold > 0
+        || hasIo())
+      return schedule(new Workload(getProcesses()), isPreemptive, preemptionThreshold);
+
     /**
      * The process queue will be in the order of their arrival time and if two
-     * process arrives at the same time, their burst time will be used as a comparator
+     * process arrives at the same time, their burst time will be used as a comparator.
+     * Times are compared with Long.compare: a difference of two times can overflow
      */
     Comparator<PCB> processQueueComparator = (PCB p1, PCB p2) -> {
-      return p1.getArrivalTime() == p2.getArrivalTime() ? p1.getBurstTime() - p2.getBurstTime()
-          : p1.getArrivalTime() - p2.getArrivalTime();
+      if (p1.getArrivalTime() != p2.getArrivalTime()) return Long.compare(p1.getArrivalTime(), p2.getArrivalTime());
+      if (p1.getBurstTime() != p2.getBurstTime()) return Long.compare(p1.getBurstTime(), p2.getBurstTime());
+      return Integer.compare(getSlot(p1.getPID()), getSlot(p2.getPID()));
     };
 
     /**
      * The ready queue will be order based on the burst time, since the job with shortest
-     * burst time need to be at the front of the process priotity queue
+     * burst time need to be at the front of the process priotity queue. Ties go to the process
+     * that arrived first and then to the one listed first, the same order as the primitive path
      */
-    Comparator<PCB> readyQueueComparator = (PCB p1, PCB p2) -> p1.getBurstTime() - p2.getBurstTime();
+    Comparator<PCB> readyQueueComparator = (PCB p1, PCB p2) -> {
+      if (p1.getBurstTime() != p2.getBurstTime()) return Long.compare(p1.getBurstTime(), p2.getBurstTime());
+      if (p1.getArrivalTime() != p2.getArrivalTime()) return Long.compare(p1.getArrivalTime(), p2.getArrivalTime());
+      return Integer.compare(getSlot(p1.getPID()), getSlot(p2.getPID()));
+    };
     return schedule(processQueueComparator, readyQueueComparator, isPreemptive);
   }
   
-  public LinkedList<ExecutionSnapshot> shortestRemainingJobFirstScheduler() {
+  public ScheduleTable shortestRemainingJobFirstScheduler() {
     return shortestRemainingJobFirstScheduler(true);
   }
 
+  @Override
+  protected void reportMetrics(ScheduleReport report) {
+    if (burstPredictor == null) return;
+    report.value("Average prediction error", averagePredictionError)
+        .value("Average absolute prediction error", averageAbsolutePredictionError);
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package g3.srjf.scheduler;
+
+/**
+ * Shortest job first policy: the ready process with the shortest remaining CPU time runs next.
+ * When preemptive (shortest remaining time first) a newly ready process takes the CPU from the
+ * running one if it needs strictly less time than what the running process has left, or, with a
+ * preemption threshold, if it needs more than the threshold less: a switch that costs more than it
+ * saves is not taken.
+ *
+ * The ready queue is an {@link IntReadyQueue}, so ties on the remaining time go to the process
+ * that arrived first and then to the lower index.
+ */
+public class ShortestRemainingTimePolicy implements SchedulingPolicy {
+  private final boolean isPreemptive;
+  private final long preemptionThreshold;
+  private Workload workload;
+  private IntReadyQueue readyQueue;
+
+  /**
+   * @param isPreemptive whether a newly ready process can preempt the running process
+   */
+  public ShortestRemainingTimePolicy(boolean isPreemptive) {
+    this(isPreemptive, 0);
+  }
+
+  /**
+   * @param isPreemptive        whether a newly ready process can preempt the running process
+   * @param preemptionThreshold a ready process only preempts the running process if it needs more
+   *                            than this much less time than the running process has left, 0 for any gain
+   * @throws IllegalArgumentException if the threshold is negative
+   */
+  public ShortestRemainingTimePolicy(boolean isPreemptive, long preemptionThreshold) {
+    if (preemptionThreshold < 0)
+      throw new IllegalArgumentException("Negative preemption threshold: " + preemptionThreshold);
+    this.isPreemptive = isPreemptive;
+    this.preemptionThreshold = preemptionThreshold;
+  }
+
+  public boolean isPreemptive() {
+    return isPreemptive;
+  }
+  public long getPreemptionThreshold() {
+    return preemptionThreshold;
+  }
+
+  @Override
+  public void reset(Workload workload) {
+    this.workload = workload;
+    this.readyQueue = new IntReadyQueue(workload.size());
+  }
+
+  @Override
+  public void enqueue(int process, long remaining, long time) {
+    readyQueue.add(process, remaining, workload.getArrivalTime(process));
+  }
+
+  @Override
+  public void requeue(int process, long remaining, long time, boolean quantumExpired) {
+    readyQueue.add(process, remaining, workload.getArrivalTime(process));
+  }
+
+  @Override
+  public int dequeue(long time) {
+    return readyQueue.isEmpty() ? -1 : readyQueue.poll();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return readyQueue.isEmpty();
+  }
+
+  @Override
+  public boolean shouldPreempt(int running, long remaining, long time) {
+    /** remaining - key cannot overflow: both are remaining times, never negative */
+    return isPreemptive && !readyQueue.isEmpty()
+        && remaining - readyQueue.getKey(readyQueue.peek()) > preemptionThreshold;
+  }
+}
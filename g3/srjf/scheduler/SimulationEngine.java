@@ -0,0 +1,397 @@
+package g3.srjf.scheduler;
+
+/**
+ * Discrete event simulation of a single CPU. Instead of stepping through time the engine jumps from
+ * one event to the next (arrival, completion, quantum expiry), so the cost of a run is proportional
+ * to the number of events and not to the simulated time span.
+ *
+ * Which process runs, and for how long, is decided by a {@link SchedulingPolicy}. The engine records
+ * every execution slice in a {@link ScheduleTable} and the first dispatch and completion of every
+ * process in a {@link MetricsAccumulator}.
+ *
+ * With a {@link SwitchCostModel} every dispatch first spends the cost of the switch, recorded as a
+ * {@link ScheduleTable#SWITCH} slice, and the process only executes once it is over. The policy sees
+ * a process preempted during its switch as having executed nothing. The response time of a process
+ * is still measured up to its first dispatch, the switch counting as waiting time.
+ *
+ * A process alternating CPU and I/O bursts leaves the CPU at the end of each CPU burst and waits in
+ * the I/O-wait queue: an IO_RETURN event in the event queue, at the instant its I/O burst is over,
+ * which makes it ready again with its next CPU burst. Every process does its own I/O, so I/O bursts
+ * of different processes overlap each other and the CPU; the engine measures how much.
+ *
+ * Only the next arrival is kept inside the event queue, the others are read from the arrival order
+ * of the workload as the simulation advances, so the queue stays small however large the workload is.
+ */
+class SimulationEngine {
+  private final Workload workload;
+  private final SchedulingPolicy policy;
+  private final ScheduleTable scheduleTable;
+  private final MetricsAccumulator metrics;
+  private final EventQueue events;
+  private final SchedulerListener listener;
+  private final SwitchCostModel switchCost;
+
+  /*
+   * CPU time every process still needs for its current CPU burst, and the position of that burst in
+   * its burst sequence (null when no process does I/O)
+   */
+  private final long[] remaining;
+  private final int[] phase;
+
+  /*
+   * Number of processes in I/O, the time at least one of them was, the part of that time the CPU was
+   * executing a process, and the instant they were last accounted up to
+   */
+  private int blocked;
+  private long ioBusyTime;
+  private long overlapTime;
+  private long accountedUpTo;
+
+  /*
+   * The running process (-1 when the CPU is idle), the instant it got the CPU and the stamp of the
+   * event that ends its time slice. A preemption changes the stamp, which cancels that event.
+   */
+  private int running = -1;
+  private long runStart;
+  private int runStamp;
+  private int stamps;
+
+  /*
+   * The process that last executed on the CPU (-1 before the first dispatch) and the instant the
+   * switch to the running process began: it executes from runStart on, which is later when the
+   * switch has a cost. The switch stays open when its process is preempted before executing anything.
+   */
+  private int lastRan = -1;
+  private long switchStart;
+  private boolean switchOpen;
+  private long switches;
+  private long switchTime;
+
+  /*
+   * Position of the next arrival inside the arrival order of the workload
+   */
+  private int nextArrival;
+  private long timer;
+
+  /*
+   * Number of processes in the ready queue of the policy
+   */
+  private int readyCount;
+
+  /**
+   * @param workload the processes to be executed
+   * @param policy   the policy deciding which process runs
+   */
+  SimulationEngine(Workload workload, SchedulingPolicy policy) {
+    this(workload, policy, null);
+  }
+
+  /**
+   * @param workload the processes to be executed
+   * @param policy   the policy deciding which process runs
+   * @param listener notified of the events of the run, or null
+   */
+  SimulationEngine(Workload workload, SchedulingPolicy policy, SchedulerListener listener) {
+    this(workload, policy, listener, new ScheduleTable());
+  }
+
+  /**
+   * @param workload      the processes to be executed
+   * @param policy        the policy deciding which process runs
+   * @param listener      notified of the events of the run, or null
+   * @param scheduleTable the empty table the schedule is recorded into
+   */
+  SimulationEngine(Workload workload, SchedulingPolicy policy, SchedulerListener listener,
+      ScheduleTable scheduleTable) {
+    this(workload, policy, listener, scheduleTable, null);
+  }
+
+  /**
+   * @param workload      the processes to be executed
+   * @param policy        the policy deciding which process runs
+   * @param listener      notified of the events of the run, or null
+   * @param scheduleTable the empty table the schedule is recorded into
+   * @param switchCost    the overhead of every dispatch, or null for none
+   */
+  SimulationEngine(Workload workload, SchedulingPolicy policy, SchedulerListener listener,
+      ScheduleTable scheduleTable, SwitchCostModel switchCost) {
+    this.workload = workload;
+    this.policy = policy;
+    this.listener = listener;
+    this.scheduleTable = scheduleTable;
+    this.switchCost = switchCost;
+    this.metrics = new MetricsAccumulator(workload.size());
+    this.events = new EventQueue(16);
+    this.remaining = new long[workload.size()];
+    for (var i = 0; i < remaining.length; i++) remaining[i] = workload.getBurst(i, 0);
+    this.phase = workload.hasIo() ? new int[workload.size()] : null;
+  }
+
+  /**
+   * Runs a workload to completion with the given policy. Every call works on its own state, so runs
+   * of different workloads, each with its own policy instance, can execute concurrently.
+   *
+   * @param workload the processes to be executed
+   * @param policy   the policy deciding which process runs, used by this run only
+   * @return the immutable schedule and metrics of the run
+   */
+  static ScheduleResult simulate(Workload workload, SchedulingPolicy policy) {
+    return simulate(workload, policy, null);
+  }
+
+  /**
+   * Runs a workload to completion with the given policy, notifying a listener of the events of the run.
+   *
+   * @param workload the processes to be executed
+   * @param policy   the policy deciding which process runs, used by this run only
+   * @param listener notified of the events of the run, or null
+   * @return the immutable schedule and metrics of the run
+   */
+  static ScheduleResult simulate(Workload workload, SchedulingPolicy policy, SchedulerListener listener) {
+    return simulate(workload, policy, listener, new ScheduleTable());
+  }
+
+  /**
+   * Runs a workload to completion with the given policy, recording the schedule into the given table.
+   *
+   * @param workload      the processes to be executed
+   * @param policy        the policy deciding which process runs, used by this run only
+   * @param listener      notified of the events of the run, or null
+   * @param scheduleTable the empty table the schedule is recorded into, frozen once the run is over
+   * @return the immutable schedule and metrics of the run
+   */
+  static ScheduleResult simulate(Workload workload, SchedulingPolicy policy, SchedulerListener listener,
+      ScheduleTable scheduleTable) {
+    return simulate(workload, policy, listener, scheduleTable, null);
+  }
+
+  /**
+   * Runs a workload to completion with the given policy, charging the overhead of every dispatch.
+   *
+   * @param workload      the processes to be executed
+   * @param policy        the policy deciding which process runs, used by this run only
+   * @param listener      notified of the events of the run, or null
+   * @param scheduleTable the empty table the schedule is recorded into, frozen once the run is over
+   * @param switchCost    the overhead of every dispatch, or null for none
+   * @return the immutable schedule and metrics of the run
+   */
+  static ScheduleResult simulate(Workload workload, SchedulingPolicy policy, SchedulerListener listener,
+      ScheduleTable scheduleTable, SwitchCostModel switchCost) {
+    var engine = new SimulationEngine(workload, policy, listener, scheduleTable, switchCost);
+    var finishTime = engine.run();
+    return new ScheduleResult(workload, engine.scheduleTable, engine.metrics, finishTime, engine.switches,
+        engine.switchTime, engine.ioBusyTime, engine.overlapTime);
+  }
+
+  MetricsAccumulator getMetrics() {
+    return metrics;
+  }
+
+  ScheduleTable getScheduleTable() {
+    return scheduleTable;
+  }
+
+  /**
+   * @return number of dispatches that gave the CPU to another process than the one that last executed,
+   *         a process preempted before the end of the switch to it not counting
+   */
+  long getSwitchCount() {
+    return switches;
+  }
+
+  /**
+   * @return time the CPU spent switching between processes
+   */
+  long getSwitchTime() {
+    return switchTime;
+  }
+
+  /**
+   * @return time during which at least one process was in I/O
+   */
+  long getIoBusyTime() {
+    return ioBusyTime;
+  }
+
+  /**
+   * @return time during which at least one process was in I/O while the CPU executed another one
+   */
+  long getOverlapTime() {
+    return overlapTime;
+  }
+
+  /**
+   * Runs the simulation until every process has finished.
+   *
+   * @return the instant the CPU finished executing the last process
+   */
+  long run() {
+    var order = workload.getArrivalOrder();
+    policy.reset(workload);
+    scheduleTable.setNames(workload::getName);
+    if (listener != null) listener.runStarted(order.length);
+    if (order.length == 0) {
+      scheduleTable.record(ScheduleTable.IDLE, 0, 0);
+      if (listener != null) listener.runFinished(0);
+      return 0;
+    }
+
+    timer = 0;
+    if (workload.getArrivalTime(order[0]) > 0) recordIdle(0, workload.getArrivalTime(order[0]));
+    events.add(workload.getArrivalTime(order[0]), EventQueue.ARRIVAL, order[0], 0);
+    nextArrival = 1;
+
+    while (!events.isEmpty()) {
+      timer = events.peekTime();
+      if (blocked > 0) accountIo();
+      accountedUpTo = timer;
+
+      /** Handle every event happening at this instant before taking any decision */
+      var readyChanged = false;
+      while (!events.isEmpty() && events.peekTime() == timer) {
+        events.poll();
+        var process = events.polledProcess();
+        switch (events.polledType()) {
+          case EventQueue.ARRIVAL:
+            policy.enqueue(process, remaining[process], timer);
+            enqueued(process);
+            readyChanged = true;
+            if (nextArrival < order.length) {
+              var arriving = order[nextArrival++];
+              events.add(workload.getArrivalTime(arriving), EventQueue.ARRIVAL, arriving, 0);
+            }
+            break;
+          case EventQueue.COMPLETION:
+            if (process != running || events.polledStamp() != runStamp) break;
+            stopRunning();
+            var finished = phase == null || phase[process] == workload.getBurstCount(process) - 1;
+            if (finished) metrics.completed(process, timer);
+            policy.completed(process, timer);
+            if (!finished) startIo(process);
+            else if (listener != null) listener.completed(workload.getPID(process), timer);
+            break;
+          case EventQueue.IO_RETURN:
+            blocked--;
+            remaining[process] = workload.getBurst(process, ++phase[process]);
+            policy.enqueue(process, remaining[process], timer);
+            enqueued(process);
+            readyChanged = true;
+            break;
+          case EventQueue.QUANTUM_EXPIRY:
+            if (process != running || events.polledStamp() != runStamp) break;
+            stopRunning();
+            policy.requeue(process, remaining[process], timer, true);
+            enqueued(process);
+            break;
+          default:
+            throw new IllegalStateException("Unknown event type " + events.polledType());
+        }
+      }
+
+      /** New processes are ready: the policy decides whether the running process keeps the CPU */
+      if (running >= 0 && readyChanged && policy.shouldPreempt(running, remaining[running] - Math.max(0, timer - runStart), timer)) {
+        var preempted = running;
+        if (timer > runStart) stopRunning();
+        else withdraw();
+        if (listener != null) listener.preempted(workload.getPID(preempted), timer, remaining[preempted]);
+        policy.requeue(preempted, remaining[preempted], timer, false);
+        enqueued(preempted);
+      }
+
+      if (running < 0) {
+        var next = policy.dequeue(timer);
+        if (next >= 0) {
+          readyCount--;
+          if (listener != null) listener.dequeued(workload.getPID(next), timer);
+          dispatch(next);
+        } else {
+          /** Nothing runs, so pending completions and expiries belong to preempted slices: drop them */
+          while (!events.isEmpty() && events.peekType() != EventQueue.ARRIVAL && events.peekType() != EventQueue.IO_RETURN)
+            events.poll();
+          if (!events.isEmpty()) recordIdle(timer, events.peekTime());
+        }
+      }
+    }
+    if (listener != null) listener.runFinished(timer);
+    return timer;
+  }
+
+  /**
+   * Sends a process that finished a CPU burst to the I/O-wait queue until its I/O burst is over.
+   */
+  private void startIo(int process) {
+    var io = workload.getBurst(process, ++phase[process]);
+    blocked++;
+    events.add(timer + io, EventQueue.IO_RETURN, process, 0);
+  }
+
+  /**
+   * Accounts the time since the previous instant, during which processes were in I/O and the
+   * running process, if any, executed from the end of its switch on.
+   */
+  private void accountIo() {
+    ioBusyTime += timer - accountedUpTo;
+    if (running >= 0) overlapTime += Math.max(0, timer - Math.max(accountedUpTo, runStart));
+  }
+
+  private void enqueued(int process) {
+    readyCount++;
+    if (listener != null) listener.enqueued(workload.getPID(process), timer, readyCount);
+  }
+
+  private void recordIdle(long tInitial, long tFinal) {
+    scheduleTable.record(ScheduleTable.IDLE, tInitial, tFinal);
+    if (listener != null) listener.idle(tInitial, tFinal);
+  }
+
+  /**
+   * Gives the CPU to a process and schedules the event ending its time slice, which starts once the
+   * switch to the process is over. An open switch is carried on: the process starts once the switch,
+   * begun earlier for a preempted process, has cost what switching to this one costs.
+   */
+  private void dispatch(int process) {
+    var overhead = switchCost == null ? 0 : switchCost.cost(lastRan, process, false);
+    if (overhead < 0)
+      throw new IllegalStateException("Negative switch cost " + overhead + " for process " + workload.getPID(process));
+    if (process != lastRan) switches++;
+    running = process;
+    if (!switchOpen) switchStart = timer;
+    switchOpen = false;
+    runStart = Math.max(timer, switchStart + overhead);
+    runStamp = ++stamps;
+    metrics.dispatched(process, timer);
+    var slice = Math.min(remaining[process], policy.timeSlice(process, remaining[process], timer));
+    var type = slice == remaining[process] ? EventQueue.COMPLETION : EventQueue.QUANTUM_EXPIRY;
+    events.add(runStart + slice, type, process, runStamp);
+  }
+
+  /**
+   * Takes the CPU away from the running process, recording the switch to it and the slice it executed.
+   */
+  private void stopRunning() {
+    if (runStart > switchStart) {
+      scheduleTable.record(ScheduleTable.SWITCH, switchStart, runStart);
+      switchTime += runStart - switchStart;
+    }
+    if (timer > runStart) {
+      scheduleTable.record(workload.getPidIndex(running), runStart, timer);
+      remaining[running] -= timer - runStart;
+    }
+    lastRan = running;
+    running = -1;
+    runStamp = 0;
+  }
+
+  /**
+   * Takes the CPU back from a process preempted before the end of the switch to it. The process
+   * executed nothing: its dispatch is forgotten and the switch stays open for the next dispatch, at
+   * this same instant, so a preemption at the end of a switch costs no second switch.
+   */
+  private void withdraw() {
+    if (running != lastRan) switches--;
+    metrics.rollback(running, switchStart - 1);
+    switchOpen = true;
+    running = -1;
+    runStamp = 0;
+  }
+}
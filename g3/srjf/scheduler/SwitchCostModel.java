@@ -0,0 +1,67 @@
+package g3.srjf.scheduler;
+
+import java.util.function.IntToLongFunction;
+
+/**
+ * Overhead of handing a CPU to a process. The simulation charges the cost as a switch slice
+ * ({@link ScheduleTable#SWITCH}) between the dispatch of the process and the moment it starts
+ * executing; the CPU does no useful work during the slice. A process preempted before its switch is
+ * over has executed nothing and is not counted as a context switch: the switch goes on toward the
+ * process dispatched in its place.
+ *
+ * Processes are identified by their index in the {@link Workload}.
+ */
+@FunctionalInterface
+public interface SwitchCostModel {
+  /** Model charging nothing, the schedule is the one of a run without a model */
+  SwitchCostModel NONE = (previous, next, migrated) -> 0;
+
+  /**
+   * @param previous the process that last executed on the CPU, -1 if none did yet
+   * @param next     the process being dispatched
+   * @param migrated whether {@code next} last executed on another CPU
+   * @return the time spent switching before {@code next} executes, not negative
+   */
+  long cost(int previous, int next, boolean migrated);
+
+  /**
+   * @param switchCost the time charged whenever the CPU goes to another process than the previous one
+   * @return a model charging a fixed cost per context switch; giving the CPU back to the process that
+   *         last held it costs nothing
+   * @throws IllegalArgumentException if the cost is negative
+   */
+  static SwitchCostModel fixed(long switchCost) {
+    checkCost(switchCost);
+    return (previous, next, migrated) -> previous == next ? 0 : switchCost;
+  }
+
+  /**
+   * Context switch followed by the reload of the caches of the process: the warm-up depends on the
+   * process (its working set), and is not paid when the process gets the CPU back right away.
+   *
+   * @param switchCost the time charged whenever the CPU goes to another process than the previous one
+   * @param warmup     the cache warm-up penalty of every process, not negative
+   * @return a model charging {@code switchCost + warmup(next)} on every context switch
+   * @throws IllegalArgumentException if the cost is negative
+   */
+  static SwitchCostModel cacheWarmup(long switchCost, IntToLongFunction warmup) {
+    checkCost(switchCost);
+    return (previous, next, migrated) -> previous == next ? 0 : switchCost + warmup.applyAsLong(next);
+  }
+
+  /**
+   * @param switchCost    the time charged whenever the CPU goes to another process than the previous one
+   * @param migrationCost the time charged on top when the process last executed on another CPU
+   * @return a model charging the migration of a process between CPUs on top of the context switch
+   * @throws IllegalArgumentException if a cost is negative
+   */
+  static SwitchCostModel migration(long switchCost, long migrationCost) {
+    checkCost(switchCost);
+    checkCost(migrationCost);
+    return (previous, next, migrated) -> previous == next ? 0 : switchCost + (migrated ? migrationCost : 0);
+  }
+
+  private static void checkCost(long cost) {
+    if (cost < 0) throw new IllegalArgumentException("Negative switch cost: " + cost);
+  }
+}
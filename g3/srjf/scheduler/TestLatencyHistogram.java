@@ -0,0 +1,163 @@
+package g3.srjf.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Records random values in {@link LatencyHistogram}s of every precision and checks them against the
+ * sorted values: small values are counted exactly, a large one lands in a bucket no wider than the
+ * precision promises, every percentile lies between the exact value at its rank and that value plus
+ * the bucket width, and merging histograms gives the histogram of all their values.
+ *
+ * Usage: {@code TestLatencyHistogram [rounds [seed]]}. A mismatch throws an
+ * {@link IllegalStateException}.
+ */
+public class TestLatencyHistogram {
+  private static final double[] PERCENTILES = { 0, 1, 25, 50, 75, 90, 95, 99, 99.9, 100 };
+
+  private TestLatencyHistogram() {
+  }
+
+  private static void check(String what, Object expected, Object actual) {
+    if (expected.equals(actual)) return;
+    throw new IllegalStateException(what + "\n expected " + expected + "\n      got " + actual);
+  }
+
+  /**
+   * Draws a value of a random magnitude, so every bucket range gets some, keeping the sum of a few
+   * thousand of them exact in a double.
+   */
+  private static long randomValue(Random random) {
+    var magnitude = random.nextInt(40);
+    return random.nextLong() >>> (63 - magnitude);
+  }
+
+  /**
+   * @return the count, the extremes, the mean and the value at every checked percentile
+   */
+  private static List<Object> summary(LatencyHistogram histogram) {
+    var summary = new ArrayList<Object>();
+    summary.add(histogram.getCount());
+    summary.add(histogram.getMin());
+    summary.add(histogram.getMax());
+    summary.add(histogram.getMean());
+    for (var percentile : PERCENTILES) summary.add(histogram.getValueAtPercentile(percentile));
+    return summary;
+  }
+
+  /**
+   * A value under 2^precisionBits comes back exactly; a larger one comes back as the upper end of its
+   * bucket, at most 2^-(precisionBits - 1) of the value above it.
+   */
+  static void checkBucketPrecision(int precisionBits, Random random) {
+    var histogram = new LatencyHistogram(precisionBits);
+    for (var i = 0; i < 300; i++) {
+      var value = i < Math.min(256, 1 << precisionBits) ? i : random.nextInt(1 << precisionBits);
+      histogram.reset();
+      histogram.record(value);
+      histogram.record(Long.MAX_VALUE);
+      check(precisionBits + " bits: exact value " + value, (long) value, histogram.getP50());
+    }
+    for (var i = 0; i < 200; i++) {
+      var value = random.nextLong() >>> (1 + random.nextInt(63));
+      histogram.reset();
+      histogram.record(value);
+      histogram.record(Long.MAX_VALUE);
+      var reported = histogram.getP50();
+      check(precisionBits + " bits: " + value + " within its bucket, got " + reported, true,
+          reported >= value && reported - value <= value >>> (precisionBits - 1));
+    }
+  }
+
+  /**
+   * The value at a percentile is the one of rank ceil(percentile * count / 100) among the sorted
+   * values, up to the width of its bucket and never above the largest value; the count, the extremes
+   * and the mean are exact.
+   */
+  static void checkPercentiles(int precisionBits, Random random) {
+    var values = new long[1 + random.nextInt(2000)];
+    var histogram = new LatencyHistogram(precisionBits);
+    var sum = 0D;
+    for (var i = 0; i < values.length; i++) {
+      values[i] = randomValue(random);
+      histogram.record(values[i]);
+      sum += values[i];
+    }
+    Arrays.sort(values);
+    var what = precisionBits + " bits, " + values.length + " values: ";
+    check(what + "count, min, max and mean", List.of((long) values.length, values[0], values[values.length - 1],
+        sum / values.length), List.of(histogram.getCount(), histogram.getMin(), histogram.getMax(), histogram.getMean()));
+    for (var percentile : PERCENTILES) {
+      var rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * values.length));
+      var exact = values[(int) rank - 1];
+      var reported = histogram.getValueAtPercentile(percentile);
+      check(what + "p" + percentile + " of exact value " + exact + ", got " + reported, true,
+          reported >= exact && reported - exact <= exact >>> (precisionBits - 1)
+              && reported <= values[values.length - 1]);
+    }
+    check(what + "p100", values[values.length - 1], histogram.getValueAtPercentile(100));
+  }
+
+  /**
+   * Histograms merged with add, with merge or copied hold exactly the values of a histogram that
+   * recorded them all; histograms of different precisions do not merge.
+   */
+  static void checkMerge(int precisionBits, Random random) {
+    var parts = new ArrayList<LatencyHistogram>();
+    var all = new LatencyHistogram(precisionBits);
+    for (var part = 0; part < 1 + random.nextInt(4); part++) {
+      var histogram = new LatencyHistogram(precisionBits);
+      for (var i = random.nextInt(500); i > 0; i--) {
+        var value = randomValue(random);
+        histogram.record(value);
+        all.record(value);
+      }
+      parts.add(histogram);
+    }
+    var what = precisionBits + " bits, " + parts.size() + " parts: ";
+    var added = new LatencyHistogram(precisionBits);
+    for (var part : parts) added.add(part);
+    check(what + "added", summary(all), summary(added));
+    check(what + "merged", summary(all), summary(LatencyHistogram.merge(parts)));
+    check(what + "copied", summary(all), summary(all.copy()));
+
+    var other = precisionBits == 16 ? 15 : precisionBits + 1;
+    try {
+      added.add(new LatencyHistogram(other));
+      throw new IllegalStateException(what + "merged a histogram of " + other + " bits");
+    } catch (IllegalArgumentException e) {
+      /** Expected */
+    }
+  }
+
+  /**
+   * An empty histogram reports zeros, and a negative value is refused.
+   */
+  static void checkEmpty() {
+    var empty = LatencyHistogram.merge(List.of());
+    check("empty histogram", List.of(0L, 0L, 0L, 0D, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L), summary(empty));
+    try {
+      empty.record(-1);
+      throw new IllegalStateException("recorded a negative value");
+    } catch (IllegalArgumentException e) {
+      /** Expected */
+    }
+  }
+
+  public static void main(String[] args) {
+    var rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+    var seed = args.length > 1 ? Long.parseLong(args[1]) : 12L;
+    var random = new Random(seed);
+    for (var precisionBits = 2; precisionBits <= 16; precisionBits++) {
+      checkBucketPrecision(precisionBits, random);
+      for (var round = 0; round < rounds; round++) {
+        checkPercentiles(precisionBits, random);
+        checkMerge(precisionBits, random);
+      }
+    }
+    checkEmpty();
+    System.out.println(rounds + " rounds (seed " + seed + "): latency histograms hold their precision");
+  }
+}
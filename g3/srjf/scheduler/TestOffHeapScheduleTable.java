@@ -0,0 +1,134 @@
+package g3.srjf.scheduler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs schedulers recording into {@link OffHeapScheduleTable}s that spill to a temporary directory
+ * from the first slice, and checks the spill files are released: the table of a run is closed when
+ * the next run replaces it and when the scheduler is closed, while the tables the scheduler did not
+ * create (cached results, tables set by the caller) stay readable.
+ *
+ * Usage: {@code TestOffHeapScheduleTable}. A failed check throws an {@link IllegalStateException}.
+ */
+public class TestOffHeapScheduleTable {
+  private static final List<PCB> PROCESSES = Arrays.asList(
+      new PCB("P1", 12, 1),
+      new PCB("P2", 4, 2),
+      new PCB("P3", 6, 3),
+      new PCB("P4", 5, 8));
+
+  private TestOffHeapScheduleTable() {
+  }
+
+  private static void check(String what, Object expected, Object actual) {
+    if (expected.equals(actual)) return;
+    throw new IllegalStateException(what + "\n expected " + expected + "\n      got " + actual);
+  }
+
+  /**
+   * Counts the spill files still held in a directory. Where the file system unlinks a file opened with
+   * DELETE_ON_CLOSE right away (Linux), the directory looks empty while the file is open, so the open
+   * descriptors of the process are counted instead when /proc lists them.
+   */
+  private static long spillFiles(Path directory) throws IOException {
+    var descriptors = Path.of("/proc/self/fd");
+    if (!Files.isDirectory(descriptors)) {
+      try (var files = Files.list(directory)) {
+        return files.count();
+      }
+    }
+    var count = 0L;
+    try (var files = Files.list(descriptors)) {
+      for (var descriptor : (Iterable<Path>) files::iterator) {
+        try {
+          if (Files.readSymbolicLink(descriptor).startsWith(directory)) count++;
+        } catch (IOException e) {
+          /** The descriptor of the listing itself is already closed */
+        }
+      }
+    }
+    return count;
+  }
+
+  private static boolean isClosed(ScheduleTable table) {
+    try {
+      table.gettInitial(0);
+      return false;
+    } catch (IllegalStateException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Two runs of the same scheduler on file backed tables leave one spill file, the one of the last
+   * run, and closing the scheduler deletes it.
+   */
+  static void checkRunsReleaseTables(Path directory, boolean primitiveReadyQueue) throws IOException {
+    var expected = TestSchedulerProperties.slices(
+        new ShortestJobFirst(PROCESSES).shortestRemainingJobFirstScheduler(true));
+    var srjf = new ShortestJobFirst(PROCESSES);
+    srjf.setPrimitiveReadyQueue(primitiveReadyQueue);
+    srjf.setScheduleTableFactory(() -> new OffHeapScheduleTable(0, directory));
+
+    var first = srjf.shortestRemainingJobFirstScheduler(true);
+    check("schedule on a spilled table", expected, TestSchedulerProperties.slices(first));
+    check("spill files after the first run", 1L, spillFiles(directory));
+
+    var second = srjf.shortestRemainingJobFirstScheduler(true);
+    check("schedule of the second run", expected, TestSchedulerProperties.slices(second));
+    check("first table closed by the second run", true, isClosed(first));
+    check("spill files after the second run", 1L, spillFiles(directory));
+
+    srjf.close();
+    check("last table closed with the scheduler", true, isClosed(second));
+    check("spill files after closing the scheduler", 0L, spillFiles(directory));
+  }
+
+  /**
+   * The tables of cached results are shared by every scheduler using the cache, and a table set by the
+   * caller belongs to the caller: neither is closed by the scheduler.
+   */
+  static void checkForeignTablesStayOpen(Path directory) throws IOException {
+    var srjf = new ShortestJobFirst(PROCESSES);
+    srjf.setScheduleTableFactory(() -> new OffHeapScheduleTable(0, directory));
+    srjf.setPrimitiveReadyQueue(true);
+    srjf.shortestRemainingJobFirstScheduler(true);
+
+    srjf.setResultCache(new ResultCache(4));
+    var cached = srjf.shortestRemainingJobFirstScheduler(true);
+    check("spill files once the cache took over", 0L, spillFiles(directory));
+    srjf.shortestRemainingJobFirstScheduler(true);
+    check("cached table open after another run", false, isClosed(cached));
+    srjf.close();
+    check("cached table open after closing the scheduler", false, isClosed(cached));
+
+    try (var own = new OffHeapScheduleTable(0, directory)) {
+      own.append(0, 0, 1);
+      srjf.setScheduleTable(own);
+      srjf.setResultCache(null);
+      srjf.shortestRemainingJobFirstScheduler(true);
+      check("table set by the caller open after a run", false, isClosed(own));
+      srjf.close();
+    }
+    check("spill files after closing every table", 0L, spillFiles(directory));
+  }
+
+  public static void main(String[] args) throws IOException {
+    var directory = Files.createTempDirectory("offheap");
+    try {
+      checkRunsReleaseTables(directory, false);
+      checkRunsReleaseTables(directory, true);
+      checkForeignTablesStayOpen(directory);
+    } finally {
+      try (var files = Files.list(directory)) {
+        for (var file : (Iterable<Path>) files::iterator) Files.deleteIfExists(file);
+      }
+      Files.deleteIfExists(directory);
+    }
+    System.out.println("off-heap schedule tables are released when their run is replaced");
+  }
+}
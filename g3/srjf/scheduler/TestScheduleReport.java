@@ -0,0 +1,375 @@
+package g3.srjf.scheduler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Renders runs with {@link ScheduleReport} and checks the three formats: the text is byte for byte
+ * what the {@code Scheduler.print} methods printed before they went through the report, CSV and JSON
+ * read back the names of the processes whatever characters they hold, and a report spanning many
+ * chunks is the same on every kind of target.
+ *
+ * Usage: {@code TestScheduleReport [workloads [seed]]}. A mismatch throws an
+ * {@link IllegalStateException}.
+ */
+public class TestScheduleReport {
+  private static final String[] AWKWARD_NAMES = { "a,b", "say \"hi\"", "back\\slash", "two\nlines", "carriage\rreturn",
+      "tab\there", "bell\u0007", "caf\u00e9", "\"", "," };
+
+  private TestScheduleReport() {
+  }
+
+  private static void check(String what, Object expected, Object actual) {
+    if (expected.equals(actual)) return;
+    throw new IllegalStateException(what + "\n expected " + expected + "\n      got " + actual);
+  }
+
+  /**
+   * @return what the action printed on System.out
+   */
+  private static String printed(Runnable action) {
+    var bytes = new ByteArrayOutputStream();
+    var out = System.out;
+    System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+    try {
+      action.run();
+    } finally {
+      System.out.flush();
+      System.setOut(out);
+    }
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  /*
+   * The print methods of the Scheduler as they were before they were rendered by ScheduleReport
+   */
+  private static void legacyPrint(ScheduleTable scheduleTable) {
+    System.out.println(" -------- Process Execution Schedule -------- ");
+    var row = new StringBuilder("[");
+    for (var i = 0; i < scheduleTable.size(); i++)
+      row.append(scheduleTable.gettInitial(i) + " <- " + scheduleTable.getPID(i) + " -> ");
+    row.append(scheduleTable.getLastFinal() + "]");
+    System.out.println(row);
+    System.out.println(" -------- ------- --------- -------- -------- ");
+  }
+
+  private static void legacyPrint(List<PCB> processes) {
+    System.out.println(" ----------------- PROCESSES ---------------- ");
+    System.out.println("PID   BurstT(ms)     ArrivalT(ms)     Priority");
+    for (var procces : processes) {
+      System.out.println(procces.getPID() + "    " + procces.getBurstTime() + "              "
+          + procces.getArrivalTime() + "                " + procces.getPriority());
+    }
+    System.out.println(" -------------------------------------------- ");
+  }
+
+  private static void legacyPrint(String header, Map<String, Long> mapData) {
+    System.out.println(" ------ " + header + " ------ ");
+    for (var entry : mapData.entrySet())
+      System.out.println("   " + entry.getKey() + " : " + entry.getValue() + "ms");
+    System.out.println(" ------ ---------- ----- ------ ");
+  }
+
+  private static void legacyPrint(String header, double value) {
+    if (header.contains("Throughput") || header.contains("throughput"))
+      System.out.println(" - " + header + ": " + value + "proc/ms");
+    else
+      System.out.println(" - " + header + ": " + value + "ms");
+  }
+
+  private static void legacyReport(Scheduler scheduler) {
+    legacyPrint(scheduler.getProcesses());
+    legacyPrint(scheduler.getScheduleTable());
+    legacyPrint("Turnaround time", scheduler.getTurnAroundTime());
+    legacyPrint("Response time", scheduler.getResponseTime());
+    legacyPrint("Completion Time", scheduler.getCompletionTime());
+    legacyPrint("Waiting time", scheduler.getWaitingTime());
+    legacyPrint("Average turnaround time", scheduler.getAverageTurnAroundTime());
+    legacyPrint("Average waiting time", scheduler.getAverageWaitingTime());
+    legacyPrint("Average response time", scheduler.getAverageResponseTime());
+    legacyPrint("Throughput", scheduler.getThroughput());
+  }
+
+  private static List<PCB> randomProcesses(Random random, int n) {
+    var processes = new ArrayList<PCB>(n);
+    for (var i = 0; i < n; i++) {
+      var large = random.nextBoolean();
+      processes.add(new PCB("P" + (i + 1), 1 + random.nextInt(9) + (large ? 1L << 40 : 0),
+          random.nextInt(20) + (large ? 1L << 50 : 0), random.nextInt(5)));
+    }
+    return processes;
+  }
+
+  /**
+   * Every print method, and the text report of a whole run, against the printing they replaced.
+   */
+  static void checkText(List<PCB> processes) {
+    var scheduler = new ShortestJobFirst(processes);
+    var table = scheduler.shortestRemainingJobFirstScheduler(true);
+    var what = processes.size() + " processes: ";
+    check(what + "printed processes", printed(() -> legacyPrint(processes)),
+        printed(() -> Scheduler.print(processes)));
+    check(what + "printed schedule", printed(() -> legacyPrint(table)), printed(() -> Scheduler.print(table)));
+    check(what + "printed metric", printed(() -> legacyPrint("Waiting time", scheduler.getWaitingTime())),
+        printed(() -> Scheduler.print("Waiting time", scheduler.getWaitingTime())));
+    check(what + "printed value", printed(() -> legacyPrint("Average waiting time", scheduler.getAverageWaitingTime())),
+        printed(() -> Scheduler.print("Average waiting time", scheduler.getAverageWaitingTime())));
+    check(what + "printed throughput", printed(() -> legacyPrint("Throughput", scheduler.getThroughput())),
+        printed(() -> Scheduler.print("Throughput", scheduler.getThroughput())));
+
+    var text = new StringBuilder();
+    scheduler.report(text, ScheduleReport.Format.TEXT);
+    check(what + "text report", printed(() -> legacyReport(scheduler)), text.toString());
+  }
+
+  /**
+   * Splits a CSV document into its records, undoing the quoting; an empty line is an empty record, and
+   * a control character outside quotes is an error.
+   */
+  static List<List<String>> parseCsv(String csv) {
+    var records = new ArrayList<List<String>>();
+    var record = new ArrayList<String>();
+    var field = new StringBuilder();
+    var i = 0;
+    while (i < csv.length()) {
+      var c = csv.charAt(i++);
+      if (c == '"' && field.length() == 0) {
+        while (true) {
+          var q = csv.charAt(i++);
+          if (q != '"') field.append(q);
+          else if (i < csv.length() && csv.charAt(i) == '"') field.append(csv.charAt(i++));
+          else break;
+        }
+      } else if (c == ',') {
+        record.add(field.toString());
+        field.setLength(0);
+      } else if (csv.startsWith(System.lineSeparator(), i - 1)) {
+        i += System.lineSeparator().length() - 1;
+        if (!record.isEmpty() || field.length() > 0) record.add(field.toString());
+        field.setLength(0);
+        records.add(record);
+        record = new ArrayList<>();
+      } else if (c < 0x20) {
+        throw new IllegalStateException("Control character outside quotes at " + (i - 1));
+      } else {
+        field.append(c);
+      }
+    }
+    if (!record.isEmpty() || field.length() > 0) throw new IllegalStateException("CSV not ended by a line break");
+    return records;
+  }
+
+  /**
+   * Minimal JSON reader: objects become ordered maps, arrays lists, numbers their text, and anything
+   * malformed, raw control characters included, is an error.
+   */
+  static final class JsonReader {
+    private final String text;
+    private int at;
+
+    JsonReader(String text) {
+      this.text = text;
+    }
+
+    Object document() {
+      var value = value();
+      if (at != text.length()) throw new IllegalStateException("Trailing characters at " + at);
+      return value;
+    }
+
+    private Object value() {
+      var c = text.charAt(at);
+      if (c == '{') {
+        var object = new LinkedHashMap<String, Object>();
+        at++;
+        if (text.charAt(at) == '}') {
+          at++;
+          return object;
+        }
+        do {
+          var key = string();
+          expect(':');
+          object.put(key, value());
+        } while (text.charAt(at++) == ',');
+        if (text.charAt(at - 1) != '}') throw new IllegalStateException("Unclosed object at " + at);
+        return object;
+      }
+      if (c == '[') {
+        var array = new ArrayList<Object>();
+        at++;
+        if (text.charAt(at) == ']') {
+          at++;
+          return array;
+        }
+        do {
+          array.add(value());
+        } while (text.charAt(at++) == ',');
+        if (text.charAt(at - 1) != ']') throw new IllegalStateException("Unclosed array at " + at);
+        return array;
+      }
+      if (c == '"') return string();
+      var start = at;
+      while (at < text.length() && "+-.0123456789Elnu".indexOf(text.charAt(at)) >= 0) at++;
+      if (start == at) throw new IllegalStateException("Unexpected '" + c + "' at " + at);
+      return text.substring(start, at);
+    }
+
+    private String string() {
+      expect('"');
+      var value = new StringBuilder();
+      while (true) {
+        var c = text.charAt(at++);
+        if (c == '"') return value.toString();
+        if (c < 0x20) throw new IllegalStateException("Raw control character in a string at " + (at - 1));
+        if (c != '\\') {
+          value.append(c);
+          continue;
+        }
+        var escaped = text.charAt(at++);
+        switch (escaped) {
+          case '"':
+          case '\\':
+          case '/':
+            value.append(escaped);
+            break;
+          case 'n':
+            value.append('\n');
+            break;
+          case 'r':
+            value.append('\r');
+            break;
+          case 't':
+            value.append('\t');
+            break;
+          case 'u':
+            value.append((char) Integer.parseInt(text.substring(at, at + 4), 16));
+            at += 4;
+            break;
+          default:
+            throw new IllegalStateException("Unknown escape \\" + escaped + " at " + at);
+        }
+      }
+    }
+
+    private void expect(char c) {
+      if (text.charAt(at++) != c) throw new IllegalStateException("Expected '" + c + "' at " + (at - 1));
+    }
+  }
+
+  /**
+   * Processes named with separators, quotes, backslashes and control characters: the CSV and JSON
+   * reports read back every name, in the processes, the schedule and the per-process metrics.
+   */
+  @SuppressWarnings("unchecked")
+  static void checkEscaping() {
+    var processes = new ArrayList<PCB>();
+    for (var i = 0; i < AWKWARD_NAMES.length; i++) processes.add(new PCB(AWKWARD_NAMES[i], 1 + i % 3, i));
+    var scheduler = new ShortestJobFirst(processes);
+    var table = scheduler.shortestRemainingJobFirstScheduler(true);
+    var names = new ArrayList<String>();
+    for (var process : processes) names.add(process.getPID());
+    var scheduled = new ArrayList<String>();
+    for (var i = 0; i < table.size(); i++) scheduled.add(table.getPID(i));
+
+    var csv = new StringBuilder();
+    scheduler.report(csv, ScheduleReport.Format.CSV);
+    var records = parseCsv(csv.toString());
+    var csvNames = new ArrayList<String>();
+    for (var r = 1; r <= processes.size(); r++) csvNames.add(records.get(r).get(0));
+    check("names in the CSV processes", names, csvNames);
+    check("empty record after the CSV processes", List.of(), records.get(processes.size() + 1));
+    var csvScheduled = new ArrayList<String>();
+    for (var r = processes.size() + 3; r < processes.size() + 3 + table.size(); r++)
+      csvScheduled.add(records.get(r).get(0));
+    check("names in the CSV schedule", scheduled, csvScheduled);
+    check("fields of a CSV process", 4, records.get(processes.size()).size());
+    check("fields of a CSV slice", 3, records.get(processes.size() + 2 + table.size()).size());
+
+    var json = new StringBuilder();
+    scheduler.report(json, ScheduleReport.Format.JSON);
+    var document = (Map<String, Object>) new JsonReader(json.toString()).document();
+    var jsonNames = new ArrayList<String>();
+    for (var process : (List<Map<String, Object>>) document.get("processes")) jsonNames.add((String) process.get("pid"));
+    check("names in the JSON processes", names, jsonNames);
+    var jsonScheduled = new ArrayList<String>();
+    for (var slice : (List<Map<String, Object>>) document.get("schedule")) jsonScheduled.add((String) slice.get("pid"));
+    check("names in the JSON schedule", scheduled, jsonScheduled);
+    check("names in the JSON waiting times", scheduler.getWaitingTime().keySet(),
+        ((Map<String, Object>) document.get("Waiting time")).keySet());
+  }
+
+  /**
+   * Appends to a StringBuilder while recording the length of every chunk handed over.
+   */
+  private static final class ChunkRecorder implements Appendable {
+    final StringBuilder text = new StringBuilder();
+    final List<Integer> chunks = new ArrayList<>();
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      chunks.add(csq.length());
+      text.append(csq);
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      return append(csq.subSequence(start, end));
+    }
+
+    @Override
+    public Appendable append(char c) {
+      return append(String.valueOf(c));
+    }
+  }
+
+  /**
+   * A report of many chunks reads the same on a StringBuilder, a Writer, a PrintStream and an
+   * Appendable seeing every chunk, and no chunk is much larger than CHUNK_SIZE.
+   */
+  static void checkChunks(List<PCB> processes) {
+    var scheduler = new ShortestJobFirst(processes);
+    scheduler.shortestRemainingJobFirstScheduler(true);
+    for (var format : ScheduleReport.Format.values()) {
+      var builder = new StringBuilder();
+      scheduler.report(builder, format);
+      var what = format + " report of " + builder.length() + " characters: ";
+      check(what + "larger than a chunk", true, builder.length() > 4 * ScheduleReport.CHUNK_SIZE);
+
+      var writer = new StringWriter();
+      scheduler.report(writer, format);
+      check(what + "on a Writer", builder.toString(), writer.toString());
+      var bytes = new ByteArrayOutputStream();
+      scheduler.report(new PrintStream(bytes, false, StandardCharsets.UTF_8), format);
+      check(what + "on a PrintStream", builder.toString(), bytes.toString(StandardCharsets.UTF_8));
+
+      var recorder = new ChunkRecorder();
+      scheduler.report(recorder, format);
+      check(what + "in chunks", builder.toString(), recorder.text.toString());
+      check(what + "several chunks", true, recorder.chunks.size() > 4);
+      for (var chunk : recorder.chunks) {
+        if (chunk > ScheduleReport.CHUNK_SIZE + 256)
+          throw new IllegalStateException(what + "chunk of " + chunk + " characters");
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    var workloads = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    var seed = args.length > 1 ? Long.parseLong(args[1]) : 11L;
+    var random = new Random(seed);
+    for (var w = 0; w < workloads; w++) checkText(randomProcesses(random, 1 + random.nextInt(20)));
+    var large = randomProcesses(random, 3000);
+    checkText(large);
+    checkChunks(large);
+    checkEscaping();
+    System.out.println(workloads + " workloads (seed " + seed + "): reports render every format");
+  }
+}
@@ -0,0 +1,1075 @@
+package g3.srjf.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks every shortest remaining time implementation against a straightforward reference on random
+ * workloads: the comparator based scheduler, the primitive ready queue, the simulation engine, the
+ * online, incremental and single core multi-core schedulers must all produce the schedule and the
+ * completion times of the reference, slice for slice.
+ *
+ * The reference runs, at every arrival and completion, the unfinished arrived process with the least
+ * remaining time, ties going to the earliest arrival and then to the first listed process. Workloads
+ * are drawn with many equal times so ties are frequent, and half of them use times beyond 2^61 so a
+ * comparator or an accumulator going through int, or subtracting two times, shows up as a mismatch.
+ *
+ * The runs charging a switch cost or holding a preemption threshold are checked against a second
+ * reference stepping one time unit at a time, which gives the schedule, the number of context
+ * switches and the time spent switching. No schedule may hold a slice of zero length.
+ *
+ * A {@link SchedulerCounters} listener must count the same events on the comparator path and on the
+ * simulation engine.
+ *
+ * Shortest job first on the predictions of {@link BurstPredictor#oracle()} must be shortest job first
+ * on the exact burst times, and the exponential average must follow a sequence worked out by hand.
+ *
+ * Workloads alternating CPU and I/O bursts are checked against a unit step reference too, on the
+ * schedule, the completion times, the time some process was in I/O and the share of it the CPU spent
+ * executing; the waiting time excludes the I/O bursts.
+ *
+ * The multi-core scheduler is checked on more than one core for the properties every schedule must
+ * have, pinning respected and no core idle while a process free to run anywhere waits, and on two
+ * worked examples of preemption.
+ *
+ * Priority scheduling, with and without aging, is checked against a unit step reference computing the
+ * effective priority of every waiting process at every instant.
+ *
+ * The multi-level feedback queue is checked against a unit step reference keeping a FIFO per level and
+ * boosting every process at every boost instant, on the schedule and the number of demotions, and
+ * with a single level it must be round robin.
+ *
+ * The {@link ResultCache} must hit on a workload of the same content and miss as soon as the
+ * preemption, the threshold or the switch cost differs, evicting the least recently used result.
+ *
+ * A batch run by {@link BatchScheduler} on a fork/join pool must give the results of the same runs
+ * made one after the other.
+ *
+ * Usage: {@code TestSchedulerProperties [workloads [seed]]}. A mismatch throws an
+ * {@link IllegalStateException} describing the workload.
+ */
+public class TestSchedulerProperties {
+  private static final long LARGE_BASE = 1L << 61;
+  private static final long LARGE_STEP = 1L << 56;
+
+  private TestSchedulerProperties() {
+  }
+
+  /**
+   * Draws a workload of 1 to 8 processes named P1, P2... Small workloads use times under 12, large
+   * ones multiples of 2^56 (plus one for some bursts) above 2^61, so that the whole run still fits in
+   * a long.
+   */
+  static List<PCB> randomProcesses(Random random, boolean large) {
+    var n = 1 + random.nextInt(8);
+    var processes = new ArrayList<PCB>(n);
+    for (var i = 0; i < n; i++) {
+      long burst;
+      long arrival;
+      if (large) {
+        burst = (1 + random.nextInt(3)) * LARGE_STEP + random.nextInt(2);
+        arrival = LARGE_BASE + random.nextInt(6) * LARGE_STEP;
+      } else {
+        burst = 1 + random.nextInt(6);
+        arrival = random.nextInt(12);
+      }
+      processes.add(new PCB("P" + (i + 1), burst, arrival));
+    }
+    return processes;
+  }
+
+  /**
+   * Shortest remaining time first, deciding from scratch at every event.
+   *
+   * @return the slices as "pID:tInitial-tFinal", consecutive slices of a process merged
+   */
+  static List<String> reference(List<PCB> processes, boolean isPreemptive, Map<String, Long> completionTime) {
+    var n = processes.size();
+    var remaining = new long[n];
+    for (var i = 0; i < n; i++) remaining[i] = processes.get(i).getBurstTime();
+    var slices = new ArrayList<String>();
+    var lastId = new String[1];
+    var lastFinal = new long[1];
+    var time = 0L;
+    var running = -1;
+    var completed = 0;
+    while (completed < n) {
+      if (running < 0 || isPreemptive) {
+        running = -1;
+        for (var i = 0; i < n; i++) {
+          if (remaining[i] == 0 || processes.get(i).getArrivalTime() > time) continue;
+          if (running < 0 || precedes(processes, remaining, i, running)) running = i;
+        }
+      }
+      var nextArrival = Long.MAX_VALUE;
+      for (var i = 0; i < n; i++) {
+        var arrival = processes.get(i).getArrivalTime();
+        if (remaining[i] > 0 && arrival > time) nextArrival = Math.min(nextArrival, arrival);
+      }
+      if (running < 0) {
+        addSlice(slices, lastId, lastFinal, ScheduleTable.IDLE_PID, time, nextArrival);
+        time = nextArrival;
+        continue;
+      }
+      var end = time + remaining[running];
+      if (isPreemptive && nextArrival < end) end = nextArrival;
+      var pID = processes.get(running).getPID();
+      addSlice(slices, lastId, lastFinal, pID, time, end);
+      remaining[running] -= end - time;
+      time = end;
+      if (remaining[running] == 0) {
+        completionTime.put(pID, time);
+        completed++;
+        running = -1;
+      }
+    }
+    return slices;
+  }
+
+  /**
+   * Draws a workload of 1 to 8 processes of priorities 0 to 3, with times under 12.
+   */
+  static List<PCB> randomPriorityProcesses(Random random) {
+    var n = 1 + random.nextInt(8);
+    var processes = new ArrayList<PCB>(n);
+    for (var i = 0; i < n; i++)
+      processes.add(new PCB("P" + (i + 1), 1 + random.nextInt(6), random.nextInt(12), random.nextInt(4)));
+    return processes;
+  }
+
+  /**
+   * Draws a workload of 1 to 6 processes of 1 to 3 CPU bursts of 1 to 4, separated by I/O bursts of 0
+   * to 5, arriving before 10.
+   */
+  static List<PCB> randomIoProcesses(Random random) {
+    var n = 1 + random.nextInt(6);
+    var processes = new ArrayList<PCB>(n);
+    for (var i = 0; i < n; i++) {
+      var bursts = new long[1 + 2 * random.nextInt(3)];
+      for (var j = 0; j < bursts.length; j++) bursts[j] = j % 2 == 0 ? 1 + random.nextInt(4) : random.nextInt(6);
+      processes.add(new PCB("P" + (i + 1), bursts, random.nextInt(10), 0));
+    }
+    return processes;
+  }
+
+  /**
+   * Shortest remaining time first over CPU and I/O bursts, stepping one time unit at a time. A process
+   * finishing a CPU burst is in I/O for its next burst, then ready for the CPU burst after; the
+   * remaining time ranked is the one of the current CPU burst.
+   *
+   * @param completionTime receives the completion time of every process
+   * @param io             receives the time some process was in I/O and the part of it the CPU executed
+   * @return the slices as "pID:tInitial-tFinal", consecutive slices of a process merged
+   */
+  static List<String> ioReference(Workload workload, boolean isPreemptive, Map<String, Long> completionTime,
+      long[] io) {
+    var n = workload.size();
+    var remaining = new long[n];
+    var phase = new int[n];
+    var ioEnd = new long[n];
+    var inIo = new boolean[n];
+    var ready = new boolean[n];
+    for (var i = 0; i < n; i++) remaining[i] = workload.getBurst(i, 0);
+    var slices = new ArrayList<String>();
+    var lastId = new String[1];
+    var lastFinal = new long[1];
+    var running = -1;
+    var completed = 0;
+    for (var time = 0L; completed < n; time++) {
+      for (var i = 0; i < n; i++) {
+        if (workload.getArrivalTime(i) == time) ready[i] = true;
+        if (inIo[i] && ioEnd[i] == time) {
+          inIo[i] = false;
+          ready[i] = true;
+          remaining[i] = workload.getBurst(i, ++phase[i]);
+        }
+      }
+      var best = -1;
+      for (var i = 0; i < n; i++) {
+        if (!ready[i]) continue;
+        if (best < 0 || remaining[i] < remaining[best]
+            || remaining[i] == remaining[best] && workload.getArrivalTime(i) < workload.getArrivalTime(best)) best = i;
+      }
+      if (best >= 0 && (running < 0 || isPreemptive && remaining[best] < remaining[running])) {
+        if (running >= 0) ready[running] = true;
+        ready[best] = false;
+        running = best;
+      }
+      var anyIo = false;
+      for (var i = 0; i < n; i++) anyIo |= inIo[i];
+      if (anyIo) {
+        io[0]++;
+        if (running >= 0) io[1]++;
+      }
+      var pID = running < 0 ? ScheduleTable.IDLE_PID : workload.getPID(running);
+      addSlice(slices, lastId, lastFinal, pID, time, time + 1);
+      if (running >= 0 && --remaining[running] == 0) {
+        if (phase[running] == workload.getBurstCount(running) - 1) {
+          completionTime.put(workload.getPID(running), time + 1);
+          completed++;
+        } else {
+          ioEnd[running] = time + 1 + workload.getBurst(running, ++phase[running]);
+          inIo[running] = true;
+        }
+        running = -1;
+      }
+    }
+    return slices;
+  }
+
+  /**
+   * Priority scheduling stepping one time unit at a time. A waiting process ranks with
+   * {@code max(top * agingInterval, priority * agingInterval - waited)}, top being the best priority
+   * of the workload and waited the time since it last became ready; the running process ranks with
+   * {@code priority * agingInterval}, or its priority without aging. An arriving process preempts the
+   * running one if it ranks strictly better, ties go to the earliest arrival and then to the first
+   * listed process.
+   *
+   * @return the slices as "pID:tInitial-tFinal", consecutive slices of a process merged
+   */
+  static List<String> priorityReference(List<PCB> processes, boolean isPreemptive, long agingInterval) {
+    var n = processes.size();
+    var remaining = new long[n];
+    var readySince = new long[n];
+    var ready = new boolean[n];
+    var top = Integer.MAX_VALUE;
+    for (var i = 0; i < n; i++) {
+      remaining[i] = processes.get(i).getBurstTime();
+      top = Math.min(top, processes.get(i).getPriority());
+    }
+    var slices = new ArrayList<String>();
+    var lastId = new String[1];
+    var lastFinal = new long[1];
+    var running = -1;
+    var completed = 0;
+    for (var time = 0L; completed < n; time++) {
+      var arrived = false;
+      for (var i = 0; i < n; i++) {
+        if (processes.get(i).getArrivalTime() != time) continue;
+        ready[i] = true;
+        readySince[i] = time;
+        arrived = true;
+      }
+      var best = -1;
+      var bestRank = 0L;
+      for (var i = 0; i < n; i++) {
+        if (!ready[i]) continue;
+        var rank = rank(processes.get(i), agingInterval);
+        if (agingInterval > 0) rank -= Math.min(time - readySince[i], rank - top * agingInterval);
+        if (best < 0 || rank < bestRank
+            || rank == bestRank && processes.get(i).getArrivalTime() < processes.get(best).getArrivalTime()) {
+          best = i;
+          bestRank = rank;
+        }
+      }
+      if (running >= 0 && isPreemptive && arrived && best >= 0
+          && bestRank < rank(processes.get(running), agingInterval)) {
+        ready[running] = true;
+        readySince[running] = time;
+        running = -1;
+      }
+      if (running < 0 && best >= 0) {
+        ready[best] = false;
+        running = best;
+      }
+      var pID = running < 0 ? ScheduleTable.IDLE_PID : processes.get(running).getPID();
+      addSlice(slices, lastId, lastFinal, pID, time, time + 1);
+      if (running >= 0 && --remaining[running] == 0) {
+        completed++;
+        running = -1;
+      }
+    }
+    return slices;
+  }
+
+  /**
+   * @return the rank of a process that did not wait, its priority in units of the aging interval
+   */
+  private static long rank(PCB process, long agingInterval) {
+    return agingInterval == 0 ? process.getPriority() : process.getPriority() * agingInterval;
+  }
+
+  /**
+   * Multi-level feedback queue stepping one time unit at a time, with one FIFO per level. A process
+   * runs from the first non-empty level for what is left of the quantum of its level, and is demoted
+   * once the time it executed at the level, over all its runs, reaches the quantum. An arrival preempts
+   * a process of a lower level. At every multiple of the boost interval the lower levels are appended
+   * to level 0 in level order and every process starts over at level 0, the running one included once
+   * it stops.
+   *
+   * @param demotions receives the number of demotions
+   * @return the slices as "pID:tInitial-tFinal", consecutive slices of a process merged
+   */
+  static List<String> feedbackQueueReference(List<PCB> processes, long[] quanta, long boostInterval,
+      long[] demotions) {
+    var n = processes.size();
+    var remaining = new long[n];
+    var level = new int[n];
+    var used = new long[n];
+    for (var i = 0; i < n; i++) remaining[i] = processes.get(i).getBurstTime();
+    var levels = new ArrayList<ArrayDeque<Integer>>(quanta.length);
+    for (var l = 0; l < quanta.length; l++) levels.add(new ArrayDeque<>());
+    var slices = new ArrayList<String>();
+    var lastId = new String[1];
+    var lastFinal = new long[1];
+    var running = -1;
+    var boosted = false;
+    var sliceLeft = 0L;
+    var executed = 0L;
+    var epoch = 0L;
+    var completed = 0;
+    for (var time = 0L; completed < n; time++) {
+      if (boostInterval > 0 && time / boostInterval != epoch) {
+        epoch = time / boostInterval;
+        for (var l = 1; l < quanta.length; l++) {
+          levels.get(0).addAll(levels.get(l));
+          levels.get(l).clear();
+        }
+        for (var process : levels.get(0)) {
+          level[process] = 0;
+          used[process] = 0;
+        }
+        boosted = running >= 0;
+      }
+      var expired = -1;
+      if (running >= 0 && sliceLeft == 0) {
+        if (remaining[running] == 0) completed++;
+        else expired = running;
+        running = -1;
+      }
+      if (completed == n) break;
+      var arrived = false;
+      for (var i = 0; i < n; i++) {
+        if (processes.get(i).getArrivalTime() != time) continue;
+        levels.get(0).add(i);
+        arrived = true;
+      }
+      if (expired >= 0) {
+        account(expired, executed, boosted, level, used, quanta, demotions);
+        levels.get(level[expired]).add(expired);
+      }
+      if (arrived && running >= 0) {
+        var first = 0;
+        while (first < quanta.length && levels.get(first).isEmpty()) first++;
+        if (first < (boosted ? 0 : level[running])) {
+          account(running, executed, false, level, used, quanta, demotions);
+          levels.get(level[running]).add(running);
+          running = -1;
+        }
+      }
+      for (var l = 0; running < 0 && l < quanta.length; l++) {
+        if (levels.get(l).isEmpty()) continue;
+        running = levels.get(l).poll();
+        boosted = false;
+        sliceLeft = Math.min(quanta[level[running]] - used[running], remaining[running]);
+        executed = 0;
+      }
+      var pID = running < 0 ? ScheduleTable.IDLE_PID : processes.get(running).getPID();
+      addSlice(slices, lastId, lastFinal, pID, time, time + 1);
+      if (running >= 0) {
+        remaining[running]--;
+        sliceLeft--;
+        executed++;
+      }
+    }
+    return slices;
+  }
+
+  /**
+   * Charges a run to the allotment of a process at its level, a process boosted while it ran starting
+   * over at level 0.
+   */
+  private static void account(int process, long executed, boolean boosted, int[] level, long[] used, long[] quanta,
+      long[] demotions) {
+    if (boosted) {
+      level[process] = 0;
+      used[process] = 0;
+      return;
+    }
+    used[process] += executed;
+    if (used[process] < quanta[level[process]]) return;
+    if (level[process] < quanta.length - 1) {
+      level[process]++;
+      demotions[0]++;
+    }
+    used[process] = 0;
+  }
+
+  /**
+   * Shortest remaining time first with a fixed switch cost and a preemption threshold, stepping one
+   * time unit at a time. Giving the CPU to another process than the last one that executed takes
+   * switchCost units, during which nothing executes. A newly arrived process preempts only if it needs
+   * more than the threshold less than the process holding the CPU has left. A process preempted before
+   * its switch is over executed nothing: the switch goes on toward the process taking its place, which
+   * starts switchCost units after the switch began.
+   *
+   * @param switches receives the number of context switches and the time spent switching
+   * @return the slices as "pID:tInitial-tFinal", consecutive slices of a process merged
+   */
+  static List<String> switchReference(List<PCB> processes, boolean isPreemptive, long threshold, long switchCost,
+      long[] switches) {
+    var n = processes.size();
+    var remaining = new long[n];
+    for (var i = 0; i < n; i++) remaining[i] = processes.get(i).getBurstTime();
+    var slices = new ArrayList<String>();
+    var lastId = new String[1];
+    var lastFinal = new long[1];
+    var running = -1;
+    var lastRan = -1;
+    var executed = false;
+    var switchOpen = false;
+    var switchBegin = 0L;
+    var runStart = 0L;
+    var completed = 0;
+    for (var time = 0L; completed < n; time++) {
+      var arrived = false;
+      for (var process : processes) arrived |= process.getArrivalTime() == time;
+      if (running >= 0 && isPreemptive && arrived) {
+        var best = best(processes, remaining, running, time);
+        if (best >= 0 && remaining[running] - remaining[best] > threshold) {
+          switchOpen = !executed;
+          running = -1;
+        }
+      }
+      if (running < 0) {
+        running = best(processes, remaining, -1, time);
+        if (running >= 0) {
+          if (!switchOpen) switchBegin = time;
+          switchOpen = false;
+          runStart = Math.max(time, switchBegin + (running == lastRan ? 0 : switchCost));
+          executed = false;
+        }
+      }
+      if (running < 0) {
+        addSlice(slices, lastId, lastFinal, ScheduleTable.IDLE_PID, time, time + 1);
+      } else if (time < runStart) {
+        addSlice(slices, lastId, lastFinal, ScheduleTable.SWITCH_PID, time, time + 1);
+        switches[1]++;
+      } else {
+        if (running != lastRan) switches[0]++;
+        lastRan = running;
+        executed = true;
+        addSlice(slices, lastId, lastFinal, processes.get(running).getPID(), time, time + 1);
+        if (--remaining[running] == 0) {
+          completed++;
+          running = -1;
+        }
+      }
+    }
+    return slices;
+  }
+
+  /**
+   * @return the arrived unfinished process other than the excluded one that runs first, -1 if none
+   */
+  private static int best(List<PCB> processes, long[] remaining, int excluded, long time) {
+    var best = -1;
+    for (var i = 0; i < processes.size(); i++) {
+      if (i == excluded || remaining[i] == 0 || processes.get(i).getArrivalTime() > time) continue;
+      if (best < 0 || precedes(processes, remaining, i, best)) best = i;
+    }
+    return best;
+  }
+
+  private static boolean precedes(List<PCB> processes, long[] remaining, int a, int b) {
+    if (remaining[a] != remaining[b]) return remaining[a] < remaining[b];
+    var arrivalA = processes.get(a).getArrivalTime();
+    var arrivalB = processes.get(b).getArrivalTime();
+    if (arrivalA != arrivalB) return arrivalA < arrivalB;
+    return a < b;
+  }
+
+  private static void addSlice(List<String> slices, String[] lastId, long[] lastFinal, String pID, long tInitial,
+      long tFinal) {
+    if (pID.equals(lastId[0]) && lastFinal[0] == tInitial) {
+      var last = slices.size() - 1;
+      slices.set(last, slices.get(last).substring(0, slices.get(last).lastIndexOf('-') + 1) + tFinal);
+    } else {
+      slices.add(pID + ":" + tInitial + "-" + tFinal);
+    }
+    lastId[0] = pID;
+    lastFinal[0] = tFinal;
+  }
+
+  static List<String> slices(List<ExecutionSnapshot> scheduleTable) {
+    var slices = new ArrayList<String>(scheduleTable.size());
+    for (var snapshot : scheduleTable)
+      slices.add(snapshot.getProcessId() + ":" + snapshot.gettInitial() + "-" + snapshot.gettFinal());
+    return slices;
+  }
+
+  /**
+   * A slice starting where it ends records nothing: no schedule may hold one.
+   */
+  static void checkNoEmptySlice(String what, List<ExecutionSnapshot> scheduleTable, List<PCB> processes,
+      boolean isPreemptive) {
+    for (var snapshot : scheduleTable) {
+      if (snapshot.gettInitial() == snapshot.gettFinal())
+        check(what + " without empty slices", List.of(), slices(scheduleTable), processes, isPreemptive);
+    }
+  }
+
+  private static void check(String what, Object expected, Object actual, List<PCB> processes, boolean isPreemptive) {
+    if (expected.equals(actual)) return;
+    throw new IllegalStateException(what + (isPreemptive ? " (preemptive)" : " (non-preemptive)") + " on "
+        + processes + "\n expected " + expected + "\n      got " + actual);
+  }
+
+  /**
+   * Runs every implementation on one workload and compares it with the reference.
+   */
+  static void checkWorkload(List<PCB> processes, boolean isPreemptive, Random random) {
+    var completionTime = new HashMap<String, Long>();
+    var expected = reference(processes, isPreemptive, completionTime);
+    var workload = new Workload(processes);
+
+    var comparators = new ShortestJobFirst(processes);
+    check("comparator scheduler", expected, slices(comparators.shortestRemainingJobFirstScheduler(isPreemptive)),
+        processes, isPreemptive);
+    check("comparator scheduler completion times", completionTime, comparators.getCompletionTime(), processes,
+        isPreemptive);
+
+    var primitive = new ShortestJobFirst(processes);
+    primitive.setPrimitiveReadyQueue(true);
+    check("primitive ready queue", expected, slices(primitive.shortestRemainingJobFirstScheduler(isPreemptive)),
+        processes, isPreemptive);
+
+    var engine = Scheduler.simulate(workload, new ShortestRemainingTimePolicy(isPreemptive));
+    check("simulation engine", expected, slices(engine.getScheduleTable()), processes, isPreemptive);
+    checkNoEmptySlice("simulation engine", engine.getScheduleTable(), processes, isPreemptive);
+    check("simulation engine completion times", completionTime, engine.getCompletionTime(), processes, isPreemptive);
+    check("simulation engine response times", engine.getAverageResponseTime(),
+        engine.getResponseTimeHistogram().getMean(), processes, isPreemptive);
+
+    var online = new ArrayList<ExecutionSnapshot>();
+    var onlineScheduler = new OnlineScheduler(isPreemptive, online::add);
+    for (var process : workload.getArrivalOrder()) onlineScheduler.submit(workload.toPCB(process));
+    onlineScheduler.finish();
+    check("online scheduler", expected, slices(online), processes, isPreemptive);
+
+    var multiCore = new MultiCoreScheduler(1, isPreemptive).schedule(workload);
+    check("single core multi-core scheduler", expected, slices(multiCore.getScheduleTable(0)), processes,
+        isPreemptive);
+
+    /** The incremental scheduler is checked once as is and once more after editing a process */
+    var interval = Math.max(1L, processes.get(0).getBurstTime() / 2);
+    var incremental = new IncrementalScheduler(workload, isPreemptive, interval);
+    check("incremental scheduler", expected, slices(incremental.schedule().getScheduleTable()), processes,
+        isPreemptive);
+    var edited = processes.get(random.nextInt(processes.size()));
+    var donor = processes.get(random.nextInt(processes.size()));
+    var index = processes.indexOf(edited);
+    incremental.setBurstTime(index, donor.getBurstTime());
+    incremental.setArrivalTime(index, donor.getArrivalTime());
+    var editedProcesses = new ArrayList<PCB>(processes.size());
+    for (var process : processes) editedProcesses.add(process.clone());
+    editedProcesses.get(index).setBurstTime(donor.getBurstTime());
+    editedProcesses.get(index).setArrivalTime(donor.getArrivalTime());
+    var editedExpected = reference(editedProcesses, isPreemptive, new HashMap<>());
+    check("incremental scheduler after an edit", editedExpected, slices(incremental.schedule().getScheduleTable()),
+        editedProcesses, isPreemptive);
+  }
+
+  /**
+   * A listener must see the same events whichever path the scheduler takes: the comparator based ready
+   * queue and the simulation engine give the same counts.
+   */
+  static void checkListenerCounts(List<PCB> processes, boolean isPreemptive) {
+    var comparatorCounters = new SchedulerCounters();
+    var comparators = new ShortestJobFirst(processes);
+    comparators.setListener(comparatorCounters);
+    comparators.shortestRemainingJobFirstScheduler(isPreemptive);
+
+    var engineCounters = new SchedulerCounters();
+    var engine = new ShortestJobFirst(processes);
+    engine.setPrimitiveReadyQueue(true);
+    engine.setListener(engineCounters);
+    engine.shortestRemainingJobFirstScheduler(isPreemptive);
+
+    check("listener counts on the engine", counts(comparatorCounters), counts(engineCounters), processes,
+        isPreemptive);
+    check("listener completions", (long) processes.size(), engineCounters.getCompletions(), processes, isPreemptive);
+  }
+
+  private static List<Long> counts(SchedulerCounters counters) {
+    return List.of(counters.getRuns(), counters.getEnqueues(), counters.getDequeues(), counters.getPreemptions(),
+        counters.getCompletions(), counters.getIdleGaps(), counters.getIdleTime());
+  }
+
+  /**
+   * Runs the simulation engine, the scheduler and the single core multi-core scheduler with a switch
+   * cost and a preemption threshold drawn at random, and compares them with the unit step reference.
+   */
+  static void checkSwitchCosts(List<PCB> processes, boolean isPreemptive, Random random) {
+    var switchCost = random.nextInt(4);
+    var threshold = random.nextInt(3);
+    var switches = new long[2];
+    var expected = switchReference(processes, isPreemptive, threshold, switchCost, switches);
+    var expectedCounts = List.of(switches[0], switches[1]);
+    var what = "switch cost " + switchCost + ", threshold " + threshold + ": ";
+    var workload = new Workload(processes);
+
+    var engine = SimulationEngine.simulate(workload, new ShortestRemainingTimePolicy(isPreemptive, threshold), null,
+        new ScheduleTable(), SwitchCostModel.fixed(switchCost));
+    check(what + "simulation engine", expected, slices(engine.getScheduleTable()), processes, isPreemptive);
+    check(what + "simulation engine switches", expectedCounts,
+        List.of(engine.getContextSwitchCount(), engine.getSwitchTime()), processes, isPreemptive);
+    checkNoEmptySlice(what + "simulation engine", engine.getScheduleTable(), processes, isPreemptive);
+
+    var scheduler = new ShortestJobFirst(processes);
+    scheduler.setSwitchCostModel(SwitchCostModel.fixed(switchCost));
+    scheduler.setPreemptionThreshold(threshold);
+    check(what + "scheduler", expected, slices(scheduler.shortestRemainingJobFirstScheduler(isPreemptive)), processes,
+        isPreemptive);
+    check(what + "scheduler switches", expectedCounts,
+        List.of(scheduler.getContextSwitchCount(), scheduler.getSwitchTime()), processes, isPreemptive);
+
+    if (threshold > 0) return;
+    var multiCore = new MultiCoreScheduler(1, isPreemptive, SwitchCostModel.fixed(switchCost)).schedule(workload);
+    check(what + "single core multi-core scheduler", expected, slices(multiCore.getScheduleTable(0)), processes,
+        isPreemptive);
+    check(what + "single core multi-core scheduler switches", expectedCounts,
+        List.of(multiCore.getContextSwitchCount(), multiCore.getSwitchTime()), processes, isPreemptive);
+    checkNoEmptySlice(what + "single core multi-core scheduler", multiCore.getScheduleTable(0), processes,
+        isPreemptive);
+  }
+
+  /**
+   * Runs the multi-core scheduler on 2 to 4 cores, a third of the processes pinned to a core drawn at
+   * random, and checks the schedules unit by unit: every process runs its burst time from its arrival
+   * on, on one core at a time and only on its core if pinned, and no core is idle while a process
+   * free to run anywhere waits.
+   */
+  static void checkMultiCore(List<PCB> processes, boolean isPreemptive, Random random) {
+    var cores = 2 + random.nextInt(3);
+    var n = processes.size();
+    var affinity = new int[n];
+    for (var i = 0; i < n; i++) affinity[i] = random.nextInt(3) == 0 ? random.nextInt(cores) : -1;
+    var what = cores + " cores, affinities " + Arrays.toString(affinity) + ": ";
+    var result = new MultiCoreScheduler(cores, isPreemptive).schedule(new Workload(processes), affinity);
+
+    var index = new HashMap<String, Integer>();
+    for (var i = 0; i < n; i++) index.put(processes.get(i).getPID(), i);
+    var finish = (int) result.getFinishTime();
+    var runningOn = new int[finish][n];
+    for (var row : runningOn) Arrays.fill(row, -1);
+    var idle = new boolean[finish][cores];
+    for (var core = 0; core < cores; core++) {
+      var table = result.getScheduleTable(core);
+      for (var s = 0; s < table.size(); s++) {
+        for (var t = (int) table.gettInitial(s); t < table.gettFinal(s); t++) {
+          if (table.isIdle(s)) {
+            idle[t][core] = true;
+          } else {
+            var process = index.get(table.getPID(s));
+            check(what + "one core at a time", -1, runningOn[t][process], processes, isPreemptive);
+            runningOn[t][process] = core;
+          }
+        }
+      }
+    }
+
+    var executed = new long[n];
+    for (var t = 0; t < finish; t++) {
+      var waiting = -1;
+      for (var i = 0; i < n; i++) {
+        var process = processes.get(i);
+        if (runningOn[t][i] >= 0) {
+          check(what + "run after the arrival", true, t >= process.getArrivalTime(), processes, isPreemptive);
+          if (affinity[i] >= 0) check(what + "run on the pinned core", affinity[i], runningOn[t][i], processes,
+              isPreemptive);
+          executed[i]++;
+        } else if (affinity[i] < 0 && t >= process.getArrivalTime() && executed[i] < process.getBurstTime()) {
+          waiting = i;
+        }
+      }
+      if (waiting < 0) continue;
+      for (var core = 0; core < cores; core++) {
+        check(what + "core " + core + " idle at " + t + " while " + processes.get(waiting).getPID() + " waits",
+            false, idle[t][core], processes, isPreemptive);
+      }
+    }
+    for (var i = 0; i < n; i++) {
+      check(what + "time executed by " + processes.get(i).getPID(), processes.get(i).getBurstTime(), executed[i],
+          processes, isPreemptive);
+    }
+  }
+
+  /**
+   * Two cores. B, pinned to core 0, preempts A there: core 1 is idle, so it steals A at once. Then C
+   * and D arrive together while two long processes run: C preempts one and D must take the other core
+   * instead of queuing behind C.
+   */
+  static void checkMultiCoreExamples() {
+    var pinned = List.of(new PCB("A", 10, 0), new PCB("B", 2, 1));
+    var result = new MultiCoreScheduler(2, true).schedule(new Workload(pinned), new int[] { -1, 0 });
+    check("preempted process stolen by an idle core",
+        List.of(List.of("A:0-1", "B:1-3", "--:3-10"), List.of("--:0-1", "A:1-10")),
+        List.of(slices(result.getScheduleTable(0)), slices(result.getScheduleTable(1))), pinned, true);
+    check("steals and finish time of the pinned example", List.of(1L, 10L),
+        List.of(result.getStealCount(), result.getFinishTime()), pinned, true);
+
+    var together = List.of(new PCB("A", 10, 0), new PCB("B", 10, 0), new PCB("C", 1, 1), new PCB("D", 1, 1));
+    result = new MultiCoreScheduler(2, true).schedule(new Workload(together));
+    check("arrivals at one instant preempting both cores",
+        List.of(List.of("A:0-1", "C:1-2", "A:2-11"), List.of("B:0-1", "D:1-2", "B:2-11")),
+        List.of(slices(result.getScheduleTable(0)), slices(result.getScheduleTable(1))), together, true);
+  }
+
+  /**
+   * The processes of TestSRJF with a switch cost of 1. P2 arrives as the switch to P1 ends and takes
+   * the CPU: P1 executed nothing, so the switch counts for P2 and no second one is charged. P4 needs
+   * no less than P3 has left when it arrives, so it does not preempt.
+   */
+  static void checkSwitchAtArrival() {
+    var processes = List.of(new PCB("P1", 12, 1), new PCB("P2", 4, 2), new PCB("P3", 6, 3), new PCB("P4", 5, 8));
+    var result = SimulationEngine.simulate(new Workload(processes), new ShortestRemainingTimePolicy(true), null,
+        new ScheduleTable(), SwitchCostModel.fixed(1));
+    check("switch at an arrival",
+        List.of("--:0-1", "<>:1-2", "P2:2-6", "<>:6-7", "P3:7-13", "<>:13-14", "P4:14-19", "<>:19-20", "P1:20-32"),
+        slices(result.getScheduleTable()), processes, true);
+    check("switches at an arrival", List.of(4L, 4L),
+        List.of(result.getContextSwitchCount(), result.getSwitchTime()), processes, true);
+    check("first dispatch of the process preempted in its switch", 19L, result.getResponseTime().get("P1"),
+        processes, true);
+  }
+
+  /**
+   * Ranking on the predictions of an oracle is ranking on the burst times: the schedule is the one of
+   * shortest remaining time first and no prediction misses.
+   */
+  static void checkOracle(List<PCB> processes, boolean isPreemptive) {
+    var workload = new Workload(processes);
+    var expected = Scheduler.simulate(workload, new ShortestRemainingTimePolicy(isPreemptive));
+    var policy = new PredictedBurstPolicy(BurstPredictor.oracle(), isPreemptive);
+    var predicted = Scheduler.simulate(workload, policy);
+    check("oracle predictions", slices(expected.getScheduleTable()), slices(predicted.getScheduleTable()), processes,
+        isPreemptive);
+    check("oracle prediction errors", List.of((long) processes.size(), 0D, 0D),
+        List.of(policy.getPredictionCount(), policy.getAverageError(), policy.getAverageAbsoluteError()), processes,
+        isPreemptive);
+
+    var scheduler = new ShortestJobFirst(processes);
+    scheduler.setBurstPredictor(BurstPredictor.oracle());
+    scheduler.shortestRemainingJobFirstScheduler(isPreemptive);
+    check("oracle predictions completion times", expected.getCompletionTime(), scheduler.getCompletionTime(),
+        processes, isPreemptive);
+  }
+
+  /**
+   * The exponential average with alpha 1/2 and an initial prediction of 10, over bursts of 6, 4, 6, 4,
+   * 13, 13 and 13 of one program: tau goes 10, 8, 6, 6, 5, 9, 11, 12.
+   */
+  static void checkExponentialAverage() {
+    var bursts = new long[] { 6, 4, 6, 4, 13, 13, 13 };
+    var processes = new ArrayList<PCB>(bursts.length);
+    for (var i = 0; i < bursts.length; i++) processes.add(new PCB("P", bursts[i], 20L * i));
+    var predictor = new ExponentialAveragingPredictor(0.5, 10);
+    predictor.reset(new Workload(processes));
+    var tau = new ArrayList<Long>(bursts.length + 1);
+    for (var i = 0; i < bursts.length; i++) {
+      tau.add(predictor.predict(i));
+      predictor.observe(i, bursts[i]);
+    }
+    tau.add(predictor.predict(0));
+    check("exponential average", List.of(10L, 8L, 6L, 6L, 5L, 9L, 11L, 12L), tau, processes, false);
+  }
+
+  /**
+   * Runs the simulation engine and the scheduler on a workload with I/O and compares them with the
+   * unit step reference.
+   */
+  static void checkIoWorkload(List<PCB> processes, boolean isPreemptive) {
+    var workload = new Workload(processes);
+    var completionTime = new HashMap<String, Long>();
+    var io = new long[2];
+    var expected = ioReference(workload, isPreemptive, completionTime, io);
+
+    var engine = Scheduler.simulate(workload, new ShortestRemainingTimePolicy(isPreemptive));
+    check("I/O schedule", expected, slices(engine.getScheduleTable()), processes, isPreemptive);
+    check("I/O completion times", completionTime, engine.getCompletionTime(), processes, isPreemptive);
+    check("I/O busy time", io[0], engine.getIoBusyTime(), processes, isPreemptive);
+    check("I/O overlap", io[0] == 0 ? 0D : (double) io[1] / io[0], engine.getIoOverlap(), processes, isPreemptive);
+    checkNoEmptySlice("I/O schedule", engine.getScheduleTable(), processes, isPreemptive);
+
+    var scheduler = new ShortestJobFirst(processes);
+    check("I/O scheduler", expected, slices(scheduler.shortestRemainingJobFirstScheduler(isPreemptive)), processes,
+        isPreemptive);
+    check("I/O scheduler waiting times", engine.getWaitingTime(), scheduler.getWaitingTime(), processes,
+        isPreemptive);
+  }
+
+  /**
+   * A goes 3 on the CPU, 4 in I/O and 2 on the CPU from 0, B needs 2 from 1 and C needs 1 from 2. C
+   * does not preempt A, which has 1 left and arrived first. While A is in I/O from 3 to 7, C and B
+   * execute from 3 to 6 and the CPU is idle from 6 to 7: 4 of I/O, 3 of them overlapped. A waited for
+   * nothing, its turnaround of 9 being its 5 on the CPU and 4 in I/O; B waited 3 and C 1.
+   */
+  static void checkIoExample() {
+    var processes = List.of(new PCB("A", new long[] { 3, 4, 2 }, 0, 0), new PCB("B", 2, 1), new PCB("C", 1, 2));
+    var result = Scheduler.simulate(new Workload(processes), new ShortestRemainingTimePolicy(true));
+    check("I/O example", List.of("A:0-3", "C:3-4", "B:4-6", "--:6-7", "A:7-9"), slices(result.getScheduleTable()),
+        processes, true);
+    check("I/O example busy time", 4L, result.getIoBusyTime(), processes, true);
+    check("I/O example overlap", 0.75D, result.getIoOverlap(), processes, true);
+    check("I/O example turnaround times", Map.of("A", 9L, "B", 5L, "C", 2L), result.getTurnAroundTime(), processes,
+        true);
+    check("I/O example waiting times", Map.of("A", 0L, "B", 3L, "C", 1L), result.getWaitingTime(), processes, true);
+  }
+
+  /**
+   * Runs the priority scheduler and the priority policy, without aging and with an aging interval
+   * drawn at random, and compares them with the unit step reference.
+   */
+  static void checkPriorities(List<PCB> processes, boolean isPreemptive, Random random) {
+    var expected = priorityReference(processes, isPreemptive, 0);
+    check("priority scheduler", expected, slices(new PriorityScheduler(processes).priorityScheduler(isPreemptive)),
+        processes, isPreemptive);
+    var engine = Scheduler.simulate(new Workload(processes), new PriorityPolicy(isPreemptive, 0));
+    check("priority policy", expected, slices(engine.getScheduleTable()), processes, isPreemptive);
+
+    var agingInterval = 1 + random.nextInt(4);
+    var aged = new PriorityScheduler(processes, agingInterval);
+    check("priority scheduler aging every " + agingInterval, priorityReference(processes, isPreemptive, agingInterval),
+        slices(aged.priorityScheduler(isPreemptive)), processes, isPreemptive);
+    checkNoEmptySlice("priority scheduler aging", aged.getScheduleTable(), processes, isPreemptive);
+  }
+
+  /**
+   * L, of priority 5, runs alone from 0 and H, of priority 0, arrives at 15. With an aging interval of 1
+   * L waited long enough to reach the top level, but it ages no more while it runs: H preempts it.
+   */
+  static void checkRunningProcessDoesNotAge() {
+    var processes = List.of(new PCB("L", 20, 0, 5), new PCB("H", 2, 15, 0));
+    var aged = new PriorityScheduler(processes, 1);
+    check("running process does not age", List.of("L:0-15", "H:15-17", "L:17-22"),
+        slices(aged.priorityScheduler(true)), processes, true);
+  }
+
+  /**
+   * Runs the multi-level feedback queue with random levels and boost interval and compares it with the
+   * unit step reference, then checks that a single level is round robin on its quantum.
+   */
+  static void checkFeedbackQueue(Random random) {
+    var n = 1 + random.nextInt(8);
+    var processes = new ArrayList<PCB>(n);
+    for (var i = 0; i < n; i++) processes.add(new PCB("P" + (i + 1), 1 + random.nextInt(14), random.nextInt(15)));
+    var quanta = new long[1 + random.nextInt(4)];
+    for (var l = 0; l < quanta.length; l++) quanta[l] = 1 + random.nextInt(3) + (l > 0 ? quanta[l - 1] : 0);
+    var boostInterval = random.nextBoolean() ? 0 : 1 + random.nextInt(12);
+    var what = "feedback queue " + Arrays.toString(quanta) + " boosted every " + boostInterval;
+
+    var demotions = new long[1];
+    var expected = feedbackQueueReference(processes, quanta, boostInterval, demotions);
+    var scheduler = new MultiLevelFeedbackQueue(processes, quanta, boostInterval);
+    check(what, expected, slices(scheduler.multiLevelFeedbackQueueScheduler()), processes, true);
+    check(what + " demotions", demotions[0], scheduler.getDemotionCount(), processes, true);
+    checkNoEmptySlice(what, scheduler.getScheduleTable(), processes, true);
+
+    var workload = new Workload(processes);
+    var roundRobin = Scheduler.simulate(workload, new RoundRobinPolicy(quanta[0]));
+    var oneLevel = Scheduler.simulate(workload, new MultiLevelFeedbackQueuePolicy(new long[] { quanta[0] },
+        boostInterval));
+    check("feedback queue of one level", slices(roundRobin.getScheduleTable()), slices(oneLevel.getScheduleTable()),
+        processes, true);
+  }
+
+  /**
+   * The demotions are a count: rendered as a whole number without a unit.
+   */
+  static void checkDemotionReport() {
+    var processes = List.of(new PCB("A", 9, 0), new PCB("B", 2, 1));
+    var scheduler = new MultiLevelFeedbackQueue(processes, new long[] { 2, 4 }, 0);
+    scheduler.multiLevelFeedbackQueueScheduler();
+    check("demotions of the report example", 1L, scheduler.getDemotionCount(), processes, true);
+    var text = new StringBuilder();
+    scheduler.report(text, ScheduleReport.Format.TEXT);
+    check("demotions in a text report", true, text.toString().contains(" - Demotions: 1" + System.lineSeparator()),
+        processes, true);
+    var json = new StringBuilder();
+    scheduler.report(json, ScheduleReport.Format.JSON);
+    check("demotions in a JSON report", true, json.toString().endsWith(",\"Demotions\":1}"), processes, true);
+  }
+
+  /**
+   * The table of a run on the engine is frozen, and shared with the cache on a hit: looking a process
+   * up must not touch it, and a snapshot saved afterwards goes to a copy of it.
+   */
+  static void checkEngineTablesAfterRun() {
+    var processes = List.of(new PCB("P1", 12, 1), new PCB("P2", 4, 2), new PCB("P3", 6, 3), new PCB("P4", 5, 8));
+    var expected = slices(new ShortestJobFirst(processes).shortestRemainingJobFirstScheduler(true));
+
+    var primitive = new ShortestJobFirst(processes);
+    primitive.setPrimitiveReadyQueue(true);
+    var engineTable = primitive.shortestRemainingJobFirstScheduler(true);
+    check("process after an engine run", processes.get(0), primitive.getProcess("P1"), processes, true);
+    primitive.saveSnapshot("P2", 34, 35);
+    var saved = new ArrayList<>(expected);
+    saved.add("P2:34-35");
+    check("snapshot saved after an engine run", saved, slices(primitive.getScheduleTable()), processes, true);
+    check("table of the engine run after a snapshot", expected, slices(engineTable), processes, true);
+
+    var cache = new ResultCache(4);
+    var cached = new ShortestJobFirst(processes);
+    cached.setResultCache(cache);
+    cached.shortestRemainingJobFirstScheduler(true);
+    var hit = cached.shortestRemainingJobFirstScheduler(true);
+    check("cache hit", 1L, cache.getHitCount(), processes, true);
+    check("process after a cache hit", processes.get(3), cached.getProcess("P4"), processes, true);
+    cached.saveSnapshot(ScheduleTable.IDLE_PID, 34, 36);
+    check("cached table after a snapshot", expected, slices(hit), processes, true);
+    check("next cache hit", expected, slices(cached.shortestRemainingJobFirstScheduler(true)), processes, true);
+  }
+
+  /**
+   * A cached result is only returned for a workload of the same content simulated with the same policy
+   * parameters: preemption, threshold and switch cost all make a different schedule, so changing any of
+   * them must miss. The cache keeps the most recently used results.
+   */
+  static void checkResultCache() {
+    var processes = List.of(new PCB("P1", 12, 1), new PCB("P2", 4, 2), new PCB("P3", 6, 3), new PCB("P4", 5, 8));
+    var workload = new Workload(processes);
+    var cache = new ResultCache(2);
+
+    var preemptive = cache.shortestRemaining(workload, true);
+    check("first request", List.of(0L, 1L), List.of(cache.getHitCount(), cache.getMissCount()), processes, true);
+    check("hit on the same workload", true, preemptive == cache.shortestRemaining(workload, true), processes, true);
+    check("hit on a workload of the same content", true,
+        preemptive == cache.shortestRemaining(new Workload(processes), true), processes, true);
+    check("hits", List.of(2L, 1L), List.of(cache.getHitCount(), cache.getMissCount()), processes, true);
+
+    var nonPreemptive = cache.shortestRemaining(workload, false);
+    check("non-preemptive request", List.of(2L, 2L), List.of(cache.getHitCount(), cache.getMissCount()), processes,
+        false);
+    check("non-preemptive schedule", reference(processes, false, new HashMap<>()),
+        slices(nonPreemptive.getScheduleTable()), processes, false);
+    var threshold = cache.shortestRemaining(workload, true, 2);
+    check("request with a threshold", List.of(2L, 3L), List.of(cache.getHitCount(), cache.getMissCount()), processes,
+        true);
+    check("schedule with a threshold", switchReference(processes, true, 2, 0, new long[2]),
+        slices(threshold.getScheduleTable()), processes, true);
+    var edited = List.of(new PCB("P1", 12, 1), new PCB("P2", 4, 2), new PCB("P3", 6, 3), new PCB("P4", 5, 9));
+    cache.shortestRemaining(new Workload(edited), true, 2);
+    check("request on another workload", List.of(2L, 4L), List.of(cache.getHitCount(), cache.getMissCount()),
+        processes, true);
+
+    /** The preemptive and non-preemptive results were used least recently and are gone */
+    check("evictions", List.of(2, 2L), List.of(cache.size(), cache.getEvictionCount()), processes, true);
+    cache.shortestRemaining(workload, true, 2);
+    cache.shortestRemaining(workload, false);
+    check("least recently used evicted", List.of(3L, 5L, 3L),
+        List.of(cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount()), processes, true);
+    cache.shortestRemaining(workload, true, 2);
+    check("most recently used kept", List.of(4L, 5L), List.of(cache.getHitCount(), cache.getMissCount()), processes,
+        true);
+
+    /** A scheduler charging a switch cost does not take the cached result without one */
+    var scheduler = new ShortestJobFirst(processes);
+    scheduler.setResultCache(cache);
+    scheduler.setSwitchCostModel(SwitchCostModel.fixed(1));
+    check("schedule with a switch cost", switchReference(processes, true, 0, 1, new long[2]),
+        slices(scheduler.shortestRemainingJobFirstScheduler(true)), processes, true);
+    check("cache left alone with a switch cost", List.of(4L, 5L), List.of(cache.getHitCount(), cache.getMissCount()),
+        processes, true);
+    scheduler.setSwitchCostModel(null);
+    check("schedule without switch cost", reference(processes, true, new HashMap<>()),
+        slices(scheduler.shortestRemainingJobFirstScheduler(true)), processes, true);
+    check("miss once the switch cost is gone", List.of(4L, 6L), List.of(cache.getHitCount(), cache.getMissCount()),
+        processes, true);
+  }
+
+  /**
+   * @return what a result holds: the schedule, the per-process times, the averages and the switches
+   */
+  private static List<Object> outcome(ScheduleResult result) {
+    return List.of(slices(result.getScheduleTable()), result.getCompletionTime(), result.getWaitingTime(),
+        result.getResponseTime(), result.getAverageTurnAroundTime(), result.getContextSwitchCount());
+  }
+
+  private static List<PCB> processesOf(Workload workload) {
+    var processes = new ArrayList<PCB>(workload.size());
+    for (var process = 0; process < workload.size(); process++) processes.add(workload.toPCB(process));
+    return processes;
+  }
+
+  /**
+   * A batch split over a fork/join pool, every run with its own policy, gives the results of running
+   * the workloads one after the other, in the order of the batch.
+   */
+  static void checkBatchScheduler(Random random) {
+    var workloads = new ArrayList<Workload>();
+    var priorityWorkloads = new ArrayList<Workload>();
+    for (var i = 0; i < 400; i++) {
+      workloads.add(new Workload(randomProcesses(random, (i & 1) == 1)));
+      priorityWorkloads.add(new Workload(randomPriorityProcesses(random)));
+    }
+    var pool = new ForkJoinPool(4);
+    try {
+      for (var isPreemptive : new boolean[] { true, false }) {
+        var batch = BatchScheduler.scheduleAll(workloads, () -> new ShortestRemainingTimePolicy(isPreemptive), pool);
+        var common = BatchScheduler.shortestRemainingJobFirst(workloads, isPreemptive);
+        var aging = BatchScheduler.scheduleAll(priorityWorkloads, () -> new PriorityPolicy(isPreemptive, 3), pool);
+        check("batch size", List.of(workloads.size(), workloads.size(), workloads.size()),
+            List.of(batch.size(), common.size(), aging.size()), List.of(), isPreemptive);
+        for (var i = 0; i < workloads.size(); i++) {
+          var workload = workloads.get(i);
+          var sequential = outcome(SimulationEngine.simulate(workload, new ShortestRemainingTimePolicy(isPreemptive)));
+          check("batch run " + i, sequential, outcome(batch.get(i)), processesOf(workload), isPreemptive);
+          check("batch run " + i + " on the common pool", sequential, outcome(common.get(i)), processesOf(workload),
+              isPreemptive);
+          var prioritized = priorityWorkloads.get(i);
+          check("batch run " + i + " with aging",
+              outcome(SimulationEngine.simulate(prioritized, new PriorityPolicy(isPreemptive, 3))),
+              outcome(aging.get(i)), processesOf(prioritized), isPreemptive);
+        }
+      }
+      check("empty batch", List.of(), BatchScheduler.shortestRemainingJobFirst(List.of(), true), List.of(), true);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  public static void main(String[] args) {
+    var workloads = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+    var seed = args.length > 1 ? Long.parseLong(args[1]) : 18L;
+    var random = new Random(seed);
+    for (var i = 0; i < workloads; i++) {
+      var processes = randomProcesses(random, (i & 1) == 1);
+      checkWorkload(processes, true, random);
+      checkWorkload(processes, false, random);
+      checkOracle(processes, true);
+      checkOracle(processes, false);
+      checkListenerCounts(processes, true);
+      checkListenerCounts(processes, false);
+      if ((i & 1) == 0) {
+        checkSwitchCosts(processes, true, random);
+        checkSwitchCosts(processes, false, random);
+        var ioProcesses = randomIoProcesses(random);
+        checkIoWorkload(ioProcesses, true);
+        checkIoWorkload(ioProcesses, false);
+        var prioritized = randomPriorityProcesses(random);
+        checkPriorities(prioritized, true, random);
+        checkPriorities(prioritized, false, random);
+        checkFeedbackQueue(random);
+        checkMultiCore(processes, true, random);
+        checkMultiCore(processes, false, random);
+      }
+    }
+    checkSwitchAtArrival();
+    checkMultiCoreExamples();
+    checkExponentialAverage();
+    checkIoExample();
+    checkRunningProcessDoesNotAge();
+    checkDemotionReport();
+    checkEngineTablesAfterRun();
+    checkResultCache();
+    checkBatchScheduler(random);
+    System.out.println(workloads + " workloads (seed " + seed + "): every scheduler matches the reference");
+  }
+}
@@ -0,0 +1,177 @@
+package g3.srjf.scheduler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes workloads and schedules with {@link TraceFiles} and reads them back: the workload read must
+ * hold the same processes under the same names, so a run on it reports the same pIDs and times as a
+ * run on the original, and the schedule read must hold the same slices.
+ *
+ * Usage: {@code TestTraceFiles [workloads [seed]]}. A mismatch throws an {@link IllegalStateException}.
+ */
+public class TestTraceFiles {
+  private static final String[] NAME_PARTS = { "P", "init", "job-", "caf\u00e9", "\u65e5\u672c", "" };
+
+  private TestTraceFiles() {
+  }
+
+  private static void check(String what, Object expected, Object actual) {
+    if (expected.equals(actual)) return;
+    throw new IllegalStateException(what + "\n expected " + expected + "\n      got " + actual);
+  }
+
+  private static Workload roundTrip(Path file, Workload workload) throws IOException {
+    TraceFiles.writeWorkload(file, workload);
+    return TraceFiles.readWorkload(file);
+  }
+
+  /**
+   * The processes of TestSRJF, named P1 to P4 while their pid indices are 0 to 3.
+   */
+  static void checkNamedWorkload(Path file) throws IOException {
+    var processes = Arrays.asList(
+        new PCB("P1", 12, 1),
+        new PCB("P2", 4, 2),
+        new PCB("P3", 6, 3),
+        new PCB("P4", 5, 8));
+    var workload = new Workload(processes);
+    var read = roundTrip(file, workload);
+    check("named workload", true, read.contentEquals(workload));
+    for (var process = 0; process < workload.size(); process++)
+      check("name of process " + process, workload.getPID(process), read.getPID(process));
+
+    var expected = Scheduler.simulate(workload, new ShortestRemainingTimePolicy(true));
+    var actual = Scheduler.simulate(read, new ShortestRemainingTimePolicy(true));
+    check("completion times after a round trip", expected.getCompletionTime(), actual.getCompletionTime());
+    check("waiting times after a round trip", expected.getWaitingTime(), actual.getWaitingTime());
+  }
+
+  /**
+   * A workload named "P" + pid index is written without a name table, and read back the same.
+   */
+  static void checkDefaultNames(Path file) throws IOException {
+    var n = 5;
+    var pid = new int[n];
+    var burstTime = new long[n];
+    var arrivalTime = new long[n];
+    for (var i = 0; i < n; i++) {
+      pid[i] = i;
+      burstTime[i] = 1 + i;
+      arrivalTime[i] = 2L * i;
+    }
+    var workload = new Workload(pid, null, burstTime, arrivalTime, new int[n]);
+    var read = roundTrip(file, workload);
+    check("default named workload", true, read.contentEquals(workload));
+    check("file without a name table", (long) TraceFiles.HEADER_BYTES + n * TraceFiles.WORKLOAD_RECORD_BYTES,
+        Files.size(file));
+  }
+
+  /**
+   * Workloads with repeated, non ASCII and empty names and times beyond the int range.
+   */
+  static void checkRandomWorkloads(Path file, Random random, int workloads) throws IOException {
+    for (var w = 0; w < workloads; w++) {
+      var n = 1 + random.nextInt(20);
+      var processes = new ArrayList<PCB>(n);
+      for (var i = 0; i < n; i++) {
+        var name = NAME_PARTS[random.nextInt(NAME_PARTS.length)] + random.nextInt(n);
+        var large = random.nextBoolean();
+        var burst = 1 + random.nextInt(9) + (large ? 1L << 40 : 0);
+        var arrival = random.nextInt(20) + (large ? 1L << 50 : 0);
+        processes.add(new PCB(name, burst, arrival, random.nextInt(5)));
+      }
+      var workload = new Workload(processes);
+      var read = roundTrip(file, workload);
+      if (!read.contentEquals(workload))
+        throw new IllegalStateException("Workload read back differs from " + processes);
+    }
+  }
+
+  /**
+   * A name table cut short must be rejected rather than read as other names.
+   */
+  static void checkTruncatedNames(Path file) throws IOException {
+    TraceFiles.writeWorkload(file, new Workload(List.of(new PCB("alpha", 3, 0), new PCB("beta", 2, 1))));
+    try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 1);
+    }
+    try {
+      TraceFiles.readWorkload(file);
+    } catch (IOException expected) {
+      return;
+    }
+    throw new IllegalStateException("A truncated name table was read");
+  }
+
+  /**
+   * Only the current version is read: a file claiming any other version must be rejected.
+   */
+  static void checkOtherVersions(Path file) throws IOException {
+    var workload = new Workload(List.of(new PCB("A", 5, 0), new PCB("B", 2, 1)));
+    for (var version : new int[] { 0, 1, TraceFiles.VERSION + 1 }) {
+      TraceFiles.writeWorkload(file, workload);
+      setVersion(file, version);
+      try {
+        TraceFiles.readWorkload(file);
+        throw new IllegalStateException("A workload of version " + version + " was read");
+      } catch (IOException expected) {
+        /** Rejected */
+      }
+      TraceFiles.writeSchedule(file, Scheduler.simulate(workload, new ShortestRemainingTimePolicy(true))
+          .getScheduleTable());
+      setVersion(file, version);
+      try {
+        TraceFiles.readSchedule(file);
+        throw new IllegalStateException("A schedule of version " + version + " was read");
+      } catch (IOException expected) {
+        /** Rejected */
+      }
+    }
+  }
+
+  private static void setVersion(Path file, int version) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, version), 4);
+    }
+  }
+
+  static void checkSchedule(Path file) throws IOException {
+    var workload = new Workload(List.of(new PCB("A", 5, 0), new PCB("B", 2, 1), new PCB("C", 1, 9)));
+    var table = Scheduler.simulate(workload, new ShortestRemainingTimePolicy(true)).getScheduleTable();
+    TraceFiles.writeSchedule(file, table);
+    var read = TraceFiles.readSchedule(file);
+    check("schedule size", table.size(), read.size());
+    for (var i = 0; i < table.size(); i++) {
+      check("slice " + i + " process", table.getProcessId(i), read.getProcessId(i));
+      check("slice " + i + " start", table.gettInitial(i), read.gettInitial(i));
+      check("slice " + i + " end", table.gettFinal(i), read.gettFinal(i));
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    var workloads = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+    var seed = args.length > 1 ? Long.parseLong(args[1]) : 10L;
+    var file = Files.createTempFile("trace", ".srj");
+    try {
+      checkNamedWorkload(file);
+      checkDefaultNames(file);
+      checkRandomWorkloads(file, new Random(seed), workloads);
+      checkTruncatedNames(file);
+      checkOtherVersions(file);
+      checkSchedule(file);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+    System.out.println(workloads + " workloads (seed " + seed + "): trace files read back what was written");
+  }
+}
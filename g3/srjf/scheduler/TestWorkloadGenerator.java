@@ -0,0 +1,79 @@
+package g3.srjf.scheduler;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Generates workloads spanning several blocks with every arrival process and burst distribution, and
+ * checks that a seed fixes the workload: generating twice gives the same content, and so do the
+ * parallel {@link WorkloadGenerator#generate(int)}, the same generation on a single thread and the
+ * lazy {@link WorkloadGenerator#stream(long)}, compared with {@link Workload#contentEquals(Workload)}
+ * and {@link Workload#fingerprint()}.
+ *
+ * Usage: {@code TestWorkloadGenerator [processes [seed]]}. A mismatch throws an
+ * {@link IllegalStateException}.
+ */
+public class TestWorkloadGenerator {
+  private TestWorkloadGenerator() {
+  }
+
+  private static void check(String what, Object expected, Object actual) {
+    if (expected.equals(actual)) return;
+    throw new IllegalStateException(what + "\n expected " + expected + "\n      got " + actual);
+  }
+
+  private static void checkSame(String what, Workload expected, Workload actual) {
+    check(what + " content", true, expected.contentEquals(actual));
+    check(what + " fingerprint", expected.fingerprint(), actual.fingerprint());
+  }
+
+  /**
+   * @return the workload generated with the blocks drawn one after the other on a single thread
+   */
+  private static Workload generateOnOneThread(WorkloadGenerator generator, int n) {
+    var pool = new ForkJoinPool(1);
+    try {
+      return pool.submit(() -> generator.generate(n)).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  static void checkGenerator(WorkloadGenerator generator, int n) {
+    var what = generator + ", " + n + " processes:";
+    var parallel = generator.generate(n);
+    check(what + " size", n, parallel.size());
+    checkSame(what + " same seed", parallel, generator.generate(n));
+    checkSame(what + " new generator with the same seed", parallel,
+        new WorkloadGenerator(generator.getArrivalProcess(), generator.getBurstDistribution(),
+            generator.getMeanInterArrival(), generator.getMeanBurst(), generator.getSeed()).generate(n));
+    checkSame(what + " single thread", parallel, generateOnOneThread(generator, n));
+    checkSame(what + " stream", parallel, new Workload(generator.stream(n).collect(Collectors.toList())));
+    for (var i = 1; i < n; i++) {
+      if (parallel.getArrivalTime(i) < parallel.getArrivalTime(i - 1))
+        throw new IllegalStateException(what + " process " + i + " arrives before the previous one");
+    }
+
+    var other = new WorkloadGenerator(generator.getArrivalProcess(), generator.getBurstDistribution(),
+        generator.getMeanInterArrival(), generator.getMeanBurst(), generator.getSeed() + 1).generate(n);
+    check(what + " another seed", false, parallel.contentEquals(other) || parallel.fingerprint() == other.fingerprint());
+  }
+
+  public static void main(String[] args) {
+    var processes = args.length > 0 ? Integer.parseInt(args[0]) : 2 * WorkloadGenerator.BLOCK_SIZE + 1234;
+    var seed = args.length > 1 ? Long.parseLong(args[1]) : 19L;
+    for (var arrivals : WorkloadGenerator.ArrivalProcess.values()) {
+      for (var bursts : WorkloadGenerator.BurstDistribution.values()) {
+        checkGenerator(new WorkloadGenerator(arrivals, bursts, 0.7, 20, seed), processes);
+        checkGenerator(new WorkloadGenerator(arrivals, bursts, 5, 3, seed ^ 0x5DEECE66DL), 1 + (int) (seed % 97));
+      }
+    }
+    System.out.println(processes + " processes (seed " + seed + "): generated workloads only depend on the seed");
+  }
+}
@@ -0,0 +1,255 @@
+package g3.srjf.scheduler;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed width binary files for workloads and schedules, read and written through memory mapped
+ * windows of the file so that traces of several gigabytes are streamed straight into (or out of)
+ * the primitive columns of a {@link Workload} or a {@link ScheduleTable}, without text parsing and
+ * without allocating an object per record.
+ *
+ * Both formats start with a 16 byte header (magic number, format version, record count as a long)
+ * followed by little endian records, times being longs:
+ * <ul>
+ * <li>workload: pid index, priority, burst time, arrival time (24 bytes per process)</li>
+ * <li>schedule: pid index ({@link ScheduleTable#IDLE} for idle time, {@link ScheduleTable#SWITCH} for switch
+ * overhead), tInitial, tFinal (20 bytes per slice)</li>
+ * </ul>
+ * A workload whose process names are not the default "P" + pid index is followed by a name table:
+ * the number of ids (int), the offsets of the names of every id and the end offset (ints), then the
+ * UTF-8 bytes of the names. Readers that ignore the table still read the records, and a workload
+ * without the table is named "P" + pid index. Files of any other version are rejected.
+ */
+public class TraceFiles {
+  static final int WORKLOAD_MAGIC = 0x574A5253; // "SRJW" in little endian
+  static final int SCHEDULE_MAGIC = 0x534A5253; // "SRJS" in little endian
+  static final int VERSION = 2;
+  static final int HEADER_BYTES = 16;
+  static final int WORKLOAD_RECORD_BYTES = 24;
+  static final int SCHEDULE_RECORD_BYTES = 20;
+
+  /*
+   * Largest window mapped at once; a MappedByteBuffer cannot exceed 2GB
+   */
+  private static final long WINDOW_BYTES = 1L << 30;
+
+  private TraceFiles() {
+  }
+
+  /**
+   * Writes a workload, replacing the file if it exists.
+   *
+   * @param path     the file to write
+   * @param workload the processes to store
+   * @throws IOException              if the file cannot be written
+   * @throws IllegalArgumentException if a process has I/O bursts, which the format does not store, or
+   *                                  if the name table exceeds 2GB
+   */
+  public static void writeWorkload(Path path, Workload workload) throws IOException {
+    if (workload.hasIo()) throw new IllegalArgumentException("Workload traces do not store I/O bursts");
+    var n = workload.size();
+    try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeHeader(channel, WORKLOAD_MAGIC, n);
+      var perWindow = (int) (WINDOW_BYTES / WORKLOAD_RECORD_BYTES);
+      for (var first = 0; first < n; first += perWindow) {
+        var count = Math.min(perWindow, n - first);
+        var buffer = map(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) first * WORKLOAD_RECORD_BYTES,
+            (long) count * WORKLOAD_RECORD_BYTES);
+        for (var i = 0; i < count; i++) {
+          var process = first + i;
+          var at = i * WORKLOAD_RECORD_BYTES;
+          buffer.putInt(at, workload.getPidIndex(process));
+          buffer.putInt(at + 4, workload.getPriority(process));
+          buffer.putLong(at + 8, workload.getBurstTime(process));
+          buffer.putLong(at + 16, workload.getArrivalTime(process));
+        }
+        buffer.force();
+      }
+      if (!hasDefaultNames(workload)) writeNames(channel, HEADER_BYTES + (long) n * WORKLOAD_RECORD_BYTES, workload);
+    }
+  }
+
+  private static boolean hasDefaultNames(Workload workload) {
+    var ids = workload.getIdCount();
+    for (var id = 0; id < ids; id++) {
+      if (!workload.getName(id).equals("P" + id)) return false;
+    }
+    return true;
+  }
+
+  private static void writeNames(FileChannel channel, long position, Workload workload) throws IOException {
+    var ids = workload.getIdCount();
+    var encoded = new byte[ids][];
+    var size = 4 + 4L * (ids + 1);
+    for (var id = 0; id < ids; id++) {
+      encoded[id] = workload.getName(id).getBytes(StandardCharsets.UTF_8);
+      size += encoded[id].length;
+    }
+    if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("Process names take more than 2GB");
+    var buffer = map(channel, FileChannel.MapMode.READ_WRITE, position, size);
+    buffer.putInt(ids);
+    var offset = 0;
+    for (var id = 0; id < ids; id++) {
+      buffer.putInt(offset);
+      offset += encoded[id].length;
+    }
+    buffer.putInt(offset);
+    for (var name : encoded) buffer.put(name);
+    buffer.force();
+  }
+
+  /**
+   * Reads a workload written by {@link #writeWorkload(Path, Workload)}.
+   *
+   * @param path the file to read
+   * @return the workload, its processes named as when written, or "P" + pid index if the file has no
+   *         name table
+   * @throws IOException if the file cannot be read or is not a workload file
+   */
+  public static Workload readWorkload(Path path) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      checkHeader(channel, WORKLOAD_MAGIC, path);
+      var n = readCount(channel, WORKLOAD_RECORD_BYTES, path);
+      var pid = new int[n];
+      var burstTime = new long[n];
+      var arrivalTime = new long[n];
+      var priority = new int[n];
+      var perWindow = (int) (WINDOW_BYTES / WORKLOAD_RECORD_BYTES);
+      for (var first = 0; first < n; first += perWindow) {
+        var count = Math.min(perWindow, n - first);
+        var buffer = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (long) first * WORKLOAD_RECORD_BYTES,
+            (long) count * WORKLOAD_RECORD_BYTES);
+        for (var i = 0; i < count; i++) {
+          var at = i * WORKLOAD_RECORD_BYTES;
+          pid[first + i] = buffer.getInt(at);
+          priority[first + i] = buffer.getInt(at + 4);
+          burstTime[first + i] = buffer.getLong(at + 8);
+          arrivalTime[first + i] = buffer.getLong(at + 16);
+        }
+      }
+      var names = readNames(channel, HEADER_BYTES + (long) n * WORKLOAD_RECORD_BYTES, pid, path);
+      return new Workload(pid, names, burstTime, arrivalTime, priority);
+    }
+  }
+
+  /**
+   * @return the names of the name table at the given position, or null if the file ends there
+   * @throws IOException if the table is truncated or does not name every pid index
+   */
+  private static String[] readNames(FileChannel channel, long position, int[] pid, Path path) throws IOException {
+    var size = channel.size() - position;
+    if (size == 0) return null;
+    if (size < 8 || size > Integer.MAX_VALUE) throw new IOException(path + " has a malformed name table");
+    var buffer = map(channel, FileChannel.MapMode.READ_ONLY, position, size);
+    var ids = buffer.getInt(0);
+    var bytesStart = 4 + 4L * (ids + 1);
+    if (ids < 0 || bytesStart > size) throw new IOException(path + " has a malformed name table");
+    var names = new String[ids];
+    var bytes = new byte[0];
+    for (var id = 0; id < ids; id++) {
+      var from = buffer.getInt(4 + 4 * id);
+      var to = buffer.getInt(8 + 4 * id);
+      if (from < 0 || to < from || bytesStart + to > size)
+        throw new IOException(path + " has a malformed name table");
+      if (bytes.length < to - from) bytes = new byte[to - from];
+      buffer.get((int) bytesStart + from, bytes, 0, to - from);
+      names[id] = new String(bytes, 0, to - from, StandardCharsets.UTF_8);
+    }
+    for (var id : pid) {
+      if (id < 0 || id >= ids) throw new IOException(path + " has no name for pid index " + id);
+    }
+    return names;
+  }
+
+  /**
+   * Writes a schedule table, replacing the file if it exists.
+   *
+   * @param path          the file to write
+   * @param scheduleTable the slices to store
+   * @throws IOException if the file cannot be written
+   */
+  public static void writeSchedule(Path path, ScheduleTable scheduleTable) throws IOException {
+    var n = scheduleTable.size();
+    try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeHeader(channel, SCHEDULE_MAGIC, n);
+      var perWindow = (int) (WINDOW_BYTES / SCHEDULE_RECORD_BYTES);
+      for (var first = 0; first < n; first += perWindow) {
+        var count = Math.min(perWindow, n - first);
+        var buffer = map(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) first * SCHEDULE_RECORD_BYTES,
+            (long) count * SCHEDULE_RECORD_BYTES);
+        for (var i = 0; i < count; i++) {
+          var at = i * SCHEDULE_RECORD_BYTES;
+          buffer.putInt(at, scheduleTable.getProcessId(first + i));
+          buffer.putLong(at + 4, scheduleTable.gettInitial(first + i));
+          buffer.putLong(at + 12, scheduleTable.gettFinal(first + i));
+        }
+        buffer.force();
+      }
+    }
+  }
+
+  /**
+   * Reads a schedule written by {@link #writeSchedule(Path, ScheduleTable)}.
+   *
+   * @param path the file to read
+   * @return the schedule table, naming processes "P" + pid index unless other names are set on it
+   * @throws IOException if the file cannot be read or is not a schedule file
+   */
+  public static ScheduleTable readSchedule(Path path) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      checkHeader(channel, SCHEDULE_MAGIC, path);
+      var n = readCount(channel, SCHEDULE_RECORD_BYTES, path);
+      var scheduleTable = new ScheduleTable(n);
+      var perWindow = (int) (WINDOW_BYTES / SCHEDULE_RECORD_BYTES);
+      for (var first = 0; first < n; first += perWindow) {
+        var count = Math.min(perWindow, n - first);
+        var buffer = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (long) first * SCHEDULE_RECORD_BYTES,
+            (long) count * SCHEDULE_RECORD_BYTES);
+        for (var i = 0; i < count; i++) {
+          var at = i * SCHEDULE_RECORD_BYTES;
+          scheduleTable.append(buffer.getInt(at), buffer.getLong(at + 4), buffer.getLong(at + 12));
+        }
+      }
+      return scheduleTable;
+    }
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size)
+      throws IOException {
+    var buffer = channel.map(mode, position, size);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    return buffer;
+  }
+
+  private static void writeHeader(FileChannel channel, int magic, long count) throws IOException {
+    var header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+    header.putInt(0, magic);
+    header.putInt(4, VERSION);
+    header.putLong(8, count);
+    header.force();
+  }
+
+  private static void checkHeader(FileChannel channel, int magic, Path path) throws IOException {
+    if (channel.size() < HEADER_BYTES) throw new IOException(path + " is too short to be a trace file");
+    var header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+    if (header.getInt(0) != magic) throw new IOException(path + " is not a trace file of the expected kind");
+    var version = header.getInt(4);
+    if (version != VERSION) throw new IOException(path + " has unsupported version " + version);
+  }
+
+  private static int readCount(FileChannel channel, int recordBytes, Path path) throws IOException {
+    var header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+    var count = header.getLong(8);
+    if (count < 0 || count > Integer.MAX_VALUE - 8 || channel.size() < HEADER_BYTES + count * recordBytes)
+      throw new IOException(path + " is truncated or holds " + count + " records");
+    return (int) count;
+  }
+}
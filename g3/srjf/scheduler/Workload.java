@@ -0,0 +1,368 @@
+package g3.srjf.scheduler;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compact, column oriented representation of the processes to be scheduled. Instead of one
+ * PCB object per process the workload keeps the pid, burst time, arrival time and priority of
+ * every process in primitive arrays, process i being the i-th entry of each column.
+ *
+ * The pid column holds a dense id per distinct process name, the names themselves are kept
+ * once in a separate table. A workload is never mutated by the schedulers, so it does not need
+ * to be copied before a run.
+ *
+ * Processes alternating CPU and I/O bursts keep their sequences in compressed rows: one flat array
+ * of bursts and the offset of the row of every process, so a million processes with a few bursts
+ * each cost two arrays instead of a million. The burst time of such a process is its total CPU time.
+ */
+public class Workload {
+  private final int[] pid;
+  private final String[] names;
+  private final long[] burstTime;
+  private final long[] arrivalTime;
+  private final int[] priority;
+
+  /*
+   * The CPU and I/O bursts of process i are bursts[burstStart[i]] .. bursts[burstStart[i + 1] - 1],
+   * starting and ending with a CPU burst, and ioTime[i] is the sum of its I/O bursts. All three are
+   * null when no process does I/O.
+   */
+  private final int[] burstStart;
+  private final long[] bursts;
+  private final long[] ioTime;
+
+  /*
+   * Process indices in the order of their arrival time, computed on first use. Volatile so that a
+   * workload shared by concurrent runs publishes a fully sorted array.
+   */
+  private volatile int[] arrivalOrder;
+
+  /*
+   * Content hash, computed on first use; 0 until then
+   */
+  private volatile long fingerprint;
+
+  /**
+   * Builds a workload from primitive columns. The arrays are used as they are, not copied.
+   *
+   * @param pid         the id of every process
+   * @param names       the name of every id, or null to name process ids as "P" + id
+   * @param burstTime   the cpu time every process requires to execute
+   * @param arrivalTime the time at which every process arrives
+   * @param priority    the priority attached to every process
+   * @throws IllegalArgumentException if the columns differ in length or hold negative times
+   */
+  public Workload(int[] pid, String[] names, long[] burstTime, long[] arrivalTime, int[] priority) {
+    if (burstTime.length != pid.length || arrivalTime.length != pid.length || priority.length != pid.length)
+      throw new IllegalArgumentException("Workload columns must have the same length");
+    this.pid = pid;
+    this.names = names;
+    this.burstTime = burstTime;
+    this.arrivalTime = arrivalTime;
+    this.priority = priority;
+    this.burstStart = null;
+    this.bursts = null;
+    this.ioTime = null;
+    validate();
+  }
+
+  /**
+   * Builds a workload of processes alternating CPU and I/O bursts from primitive columns. The arrays
+   * are used as they are, not copied.
+   *
+   * @param pid         the id of every process
+   * @param names       the name of every id, or null to name process ids as "P" + id
+   * @param burstStart  the offset of the bursts of every process inside {@code bursts}, followed by
+   *                    {@code bursts.length}
+   * @param bursts      the bursts of every process in turn, each process going CPU, I/O, CPU, ..., CPU
+   * @param arrivalTime the time at which every process arrives
+   * @param priority    the priority attached to every process
+   * @throws IllegalArgumentException if the columns differ in length, a process does not start and end
+   *                                  with a CPU burst or a time is negative
+   */
+  public Workload(int[] pid, String[] names, int[] burstStart, long[] bursts, long[] arrivalTime, int[] priority) {
+    if (burstStart.length != pid.length + 1 || arrivalTime.length != pid.length || priority.length != pid.length)
+      throw new IllegalArgumentException("Workload columns must have the same length");
+    if (burstStart[0] != 0 || burstStart[pid.length] != bursts.length)
+      throw new IllegalArgumentException("Burst offsets must go from 0 to " + bursts.length);
+    this.pid = pid;
+    this.names = names;
+    this.arrivalTime = arrivalTime;
+    this.priority = priority;
+    this.burstStart = burstStart;
+    this.bursts = bursts;
+    this.burstTime = new long[pid.length];
+    this.ioTime = new long[pid.length];
+    for (var i = 0; i < pid.length; i++) {
+      var count = burstStart[i + 1] - burstStart[i];
+      if (count < 1 || count % 2 == 0)
+        throw new IllegalArgumentException("Process " + i + " must start and end with a CPU burst, got " + count
+            + " bursts");
+      for (var at = burstStart[i]; at < burstStart[i + 1]; at++) {
+        if (bursts[at] < 0) throw new IllegalArgumentException("Process " + i + " has a negative burst");
+        if ((at - burstStart[i]) % 2 == 0) burstTime[i] += bursts[at];
+        else ioTime[i] += bursts[at];
+      }
+    }
+    validate();
+  }
+
+  /**
+   * Builds a workload from a list of PCBs. Processes sharing the same pID share the same id.
+   *
+   * @param processes list of processes to be executed
+   * @throws IllegalArgumentException if a process has a negative burst or arrival time
+   */
+  public Workload(List<PCB> processes) {
+    var n = processes.size();
+    var ids = new HashMap<String, Integer>(n * 4 / 3 + 1);
+    var names = new String[n];
+    this.pid = new int[n];
+    this.burstTime = new long[n];
+    this.arrivalTime = new long[n];
+    this.priority = new int[n];
+    var burstCount = 0L;
+    var hasIo = false;
+    for (PCB process : processes) {
+      hasIo |= process.hasIo();
+      burstCount += process.hasIo() ? process.getBursts().length : 1;
+    }
+    if (burstCount > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many bursts: " + burstCount);
+    this.burstStart = hasIo ? new int[n + 1] : null;
+    this.bursts = hasIo ? new long[(int) burstCount] : null;
+    this.ioTime = hasIo ? new long[n] : null;
+    var i = 0;
+    var at = 0;
+    for (PCB process : processes) {
+      var id = ids.get(process.getPID());
+      if (id == null) {
+        id = ids.size();
+        ids.put(process.getPID(), id);
+        names[id] = process.getPID();
+      }
+      pid[i] = id;
+      burstTime[i] = process.getBurstTime();
+      arrivalTime[i] = process.getArrivalTime();
+      priority[i] = process.getPriority();
+      if (hasIo) {
+        burstStart[i] = at;
+        var sequence = process.getBursts();
+        for (var burst = 0; burst < sequence.length; burst++) {
+          bursts[at++] = sequence[burst];
+          if (burst % 2 == 1) ioTime[i] += sequence[burst];
+        }
+      }
+      i++;
+    }
+    if (hasIo) burstStart[n] = at;
+    this.names = Arrays.copyOf(names, ids.size());
+    validate();
+  }
+
+  private void validate() {
+    for (var i = 0; i < pid.length; i++) {
+      if (burstTime[i] < 0 || arrivalTime[i] < 0)
+        throw new IllegalArgumentException("Process " + i + " has a negative burst or arrival time");
+    }
+    if (bursts != null) {
+      for (var burst : bursts) {
+        if (burst < 0) throw new IllegalArgumentException("Negative burst " + burst);
+      }
+    }
+  }
+
+  public int size() {
+    return pid.length;
+  }
+
+  /**
+   * @return number of distinct process ids, ids range from 0 to this value - 1 when they are dense
+   */
+  public int getIdCount() {
+    if (names != null) return names.length;
+    var max = -1;
+    for (var id : pid) max = Math.max(max, id);
+    return max + 1;
+  }
+
+  public int getPidIndex(int process) {
+    return pid[process];
+  }
+
+  public String getPID(int process) {
+    return getName(pid[process]);
+  }
+
+  /**
+   * @param id a process id
+   * @return the name of the process id
+   */
+  public String getName(int id) {
+    return names != null ? names[id] : "P" + id;
+  }
+
+  public long getBurstTime(int process) {
+    return burstTime[process];
+  }
+
+  /**
+   * @return true if some process has I/O bursts between its CPU bursts
+   */
+  public boolean hasIo() {
+    return bursts != null;
+  }
+
+  /**
+   * @param process index of a process
+   * @return number of CPU and I/O bursts of the process, 1 for a process without I/O
+   */
+  public int getBurstCount(int process) {
+    return bursts == null ? 1 : burstStart[process + 1] - burstStart[process];
+  }
+
+  /**
+   * @param process index of a process
+   * @param burst   position of the burst in the sequence of the process: even for a CPU burst, odd for
+   *                an I/O burst
+   * @return the length of the burst
+   * @throws IndexOutOfBoundsException if the process has no such burst
+   */
+  public long getBurst(int process, int burst) {
+    if (burst < 0 || burst >= getBurstCount(process))
+      throw new IndexOutOfBoundsException("Burst " + burst + ", process " + process + " has " + getBurstCount(process));
+    return bursts == null ? burstTime[process] : bursts[burstStart[process] + burst];
+  }
+
+  /**
+   * @param process index of a process
+   * @return the total time the process spends in I/O
+   */
+  public long getIoTime(int process) {
+    return ioTime == null ? 0 : ioTime[process];
+  }
+
+  public long getArrivalTime(int process) {
+    return arrivalTime[process];
+  }
+
+  public int getPriority(int process) {
+    return priority[process];
+  }
+
+  /**
+   * Returns the process indices sorted by arrival time; processes arriving at the same time keep their
+   * order inside the workload. This is an index sort, the columns themselves are never reordered.
+   *
+   * When every arrival time fits in 31 bits the arrival time and the index are packed in one long and
+   * the packed values are sorted as primitives; larger times fall back to a merge sort of the indices.
+   *
+   * @return the process indices in the order of their arrival, shared and not to be modified
+   */
+  public int[] getArrivalOrder() {
+    if (arrivalOrder == null) {
+      var latest = 0L;
+      for (var time : arrivalTime) latest = Math.max(latest, time);
+      var order = new int[pid.length];
+      if (latest <= Integer.MAX_VALUE) {
+        var packed = new long[pid.length];
+        for (var i = 0; i < pid.length; i++) packed[i] = (arrivalTime[i] << 32) | i;
+        Arrays.sort(packed);
+        for (var i = 0; i < packed.length; i++) order[i] = (int) packed[i];
+      } else {
+        var indices = new Integer[pid.length];
+        for (var i = 0; i < indices.length; i++) indices[i] = i;
+        Arrays.sort(indices, (a, b) -> Long.compare(arrivalTime[a], arrivalTime[b]));
+        for (var i = 0; i < indices.length; i++) order[i] = indices[i];
+      }
+      arrivalOrder = order;
+    }
+    return arrivalOrder;
+  }
+
+  /**
+   * Returns a 64 bit hash of the content of the workload: the pid, burst time, arrival time and
+   * priority of every process, in order, the burst sequences and the process names. Two workloads with the same content
+   * have the same fingerprint; different workloads collide with a probability of about 2^-64.
+   *
+   * @return the fingerprint, computed on the first call only
+   */
+  public long fingerprint() {
+    var hash = fingerprint;
+    if (hash == 0) {
+      hash = mix(0x9E3779B97F4A7C15L, pid.length);
+      for (var i = 0; i < pid.length; i++) {
+        hash = mix(hash, pid[i]);
+        hash = mix(hash, burstTime[i]);
+        hash = mix(hash, arrivalTime[i]);
+        hash = mix(hash, priority[i]);
+      }
+      if (bursts != null) {
+        for (var i = 0; i < pid.length; i++) hash = mix(hash, burstStart[i + 1]);
+        for (var burst : bursts) hash = mix(hash, burst);
+      }
+      var ids = getIdCount();
+      for (var id = 0; id < ids; id++) hash = mix(hash, getName(id).hashCode());
+      hash = finish(hash);
+      if (hash == 0) hash = 1;
+      fingerprint = hash;
+    }
+    return hash;
+  }
+
+  private static long mix(long hash, long value) {
+    return Long.rotateLeft(hash ^ (value * 0xC2B2AE3D27D4EB4FL), 31) * 0x9E3779B97F4A7C15L;
+  }
+
+  private static long finish(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  /**
+   * @param other another workload
+   * @return true if both workloads hold the same processes in the same order, with the same names
+   */
+  public boolean contentEquals(Workload other) {
+    if (other == this) return true;
+    if (other.size() != size() || !Arrays.equals(pid, other.pid) || !Arrays.equals(burstTime, other.burstTime)
+        || !Arrays.equals(arrivalTime, other.arrivalTime) || !Arrays.equals(priority, other.priority)
+        || !Arrays.equals(burstStart, other.burstStart) || !Arrays.equals(bursts, other.bursts))
+      return false;
+    var ids = getIdCount();
+    if (other.getIdCount() != ids) return false;
+    for (var id = 0; id < ids; id++) {
+      if (!getName(id).equals(other.getName(id))) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Builds a workload with the same processes but other burst and arrival times. Every process of the
+   * new workload is a single CPU burst.
+   *
+   * @param burstTime   the cpu time every process requires to execute, used as it is
+   * @param arrivalTime the time at which every process arrives, used as it is
+   * @return the new workload, sharing the pids, names and priorities of this one
+   * @throws IllegalArgumentException if the columns differ in length or hold negative times
+   */
+  public Workload withTimes(long[] burstTime, long[] arrivalTime) {
+    return new Workload(pid, names, burstTime, arrivalTime, priority);
+  }
+
+  /**
+   * @param process index of a process
+   * @return a new PCB holding the values of the process
+   */
+  public PCB toPCB(int process) {
+    if (bursts != null && getBurstCount(process) > 1) {
+      var sequence = Arrays.copyOfRange(bursts, burstStart[process], burstStart[process + 1]);
+      return new PCB(getPID(process), sequence, arrivalTime[process], priority[process]);
+    }
+    return new PCB(getPID(process), burstTime[process], arrivalTime[process], priority[process]);
+  }
+}
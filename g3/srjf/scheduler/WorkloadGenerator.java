@@ -0,0 +1,314 @@
+package g3.srjf.scheduler;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Seeded generator of synthetic workloads for load testing: arrivals follow a Poisson, bursty or
+ * diurnal process, burst times an exponential, Pareto or bimodal distribution, with the given means.
+ * Processes are named "P" + their index and have priority 0.
+ *
+ * The processes are drawn block by block, every block from its own {@link SplittableRandom} seeded
+ * from the generator seed and the block index. A block only depends on its seed, so the same seed
+ * gives the same workload whether it is built in parallel into primitive columns
+ * ({@link #generate(int)}) or streamed lazily one process at a time ({@link #stream(long)}), and
+ * whatever the number of threads. Streaming a workload into an {@link OnlineScheduler} keeps a
+ * single block in memory, so traces of 10^8 processes and more can be simulated.
+ *
+ * Arrival times are drawn as real numbers and truncated, so a mean inter-arrival time below 1
+ * yields many processes arriving at the same instant.
+ */
+public class WorkloadGenerator {
+  /*
+   * Processes drawn from the same random generator
+   */
+  static final int BLOCK_SIZE = 1 << 16;
+
+  /*
+   * Bursty arrivals: after every arrival the process leaves a burst or a quiet period with the given
+   * probability, so a tenth of the arrivals happen in quiet periods. Inter-arrival times are a factor
+   * of the mean in either state, the overall mean being kept.
+   */
+  private static final double BURSTY_QUIET_SHARE = 0.1;
+  private static final double BURSTY_LEAVE_BURST = 0.02;
+  private static final double BURSTY_LEAVE_QUIET = 0.18;
+  private static final double BURSTY_QUIET_FACTOR = 8.2;
+  private static final double BURSTY_BURST_FACTOR = 0.2;
+
+  /*
+   * Diurnal arrivals: the rate follows a sine of the given amplitude, one period lasting as long as
+   * DIURNAL_PERIOD_ARRIVALS mean inter-arrival times
+   */
+  private static final double DIURNAL_AMPLITUDE = 0.8;
+  private static final int DIURNAL_PERIOD_ARRIVALS = 10_000;
+
+  /*
+   * Pareto bursts shape, and cap on any burst time as a multiple of the mean burst
+   */
+  private static final double PARETO_ALPHA = 1.5;
+  private static final double MAX_BURST_FACTOR = 1e6;
+
+  /*
+   * Bimodal bursts: a fraction BIMODAL_LONG_SHARE of long jobs, the rest short ones
+   */
+  private static final double BIMODAL_LONG_SHARE = 0.1;
+  private static final double BIMODAL_LONG_FACTOR = 8.2;
+  private static final double BIMODAL_SHORT_FACTOR = 0.2;
+
+  public enum ArrivalProcess {
+    /** Exponential inter-arrival times */
+    POISSON,
+    /** Clusters of close arrivals separated by quiet periods, as a two state Markov modulated process */
+    BURSTY,
+    /** Poisson arrivals whose rate rises and falls over a day like period */
+    DIURNAL
+  }
+
+  public enum BurstDistribution {
+    /** Exponential burst times */
+    EXPONENTIAL,
+    /** Heavy tailed burst times: most jobs are short, a few are very long */
+    PARETO,
+    /** Mostly short jobs mixed with a minority of long ones */
+    BIMODAL
+  }
+
+  private final ArrivalProcess arrivalProcess;
+  private final BurstDistribution burstDistribution;
+  private final double meanInterArrival;
+  private final double meanBurst;
+  private final long seed;
+
+  /**
+   * @param arrivalProcess    how the arrival times are spread
+   * @param burstDistribution how the burst times are distributed
+   * @param meanInterArrival  mean time between two arrivals
+   * @param meanBurst         mean burst time, bursts being at least 1
+   * @param seed              seed of the random generators, the same seed gives the same workload
+   * @throws IllegalArgumentException if a mean is not positive
+   */
+  public WorkloadGenerator(ArrivalProcess arrivalProcess, BurstDistribution burstDistribution,
+      double meanInterArrival, double meanBurst, long seed) {
+    if (!(meanInterArrival > 0) || !(meanBurst > 0))
+      throw new IllegalArgumentException("Means must be positive: " + meanInterArrival + ", " + meanBurst);
+    this.arrivalProcess = arrivalProcess;
+    this.burstDistribution = burstDistribution;
+    this.meanInterArrival = meanInterArrival;
+    this.meanBurst = meanBurst;
+    this.seed = seed;
+  }
+
+  public ArrivalProcess getArrivalProcess() {
+    return arrivalProcess;
+  }
+  public BurstDistribution getBurstDistribution() {
+    return burstDistribution;
+  }
+  public double getMeanInterArrival() {
+    return meanInterArrival;
+  }
+  public double getMeanBurst() {
+    return meanBurst;
+  }
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Generates a workload into primitive columns, the blocks being drawn in parallel.
+   *
+   * @param n number of processes
+   * @return the workload, in arrival order
+   * @throws IllegalArgumentException if n is negative
+   */
+  public Workload generate(int n) {
+    if (n < 0) throw new IllegalArgumentException("Negative number of processes: " + n);
+    var pid = new int[n];
+    var burstTime = new long[n];
+    var arrivalTime = new long[n];
+    var blocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    var blockSpan = new double[blocks];
+
+    /**
+     * First pass: every block draws its bursts and its arrival offsets from the start of the block.
+     * The offsets are doubles, parked in the arrival column as raw bits until the start of every
+     * block is known.
+     */
+    IntStream.range(0, blocks).parallel().forEach(block -> {
+      var first = block * BLOCK_SIZE;
+      var count = Math.min(BLOCK_SIZE, n - first);
+      var local = new double[count];
+      blockSpan[block] = drawBlock(block, count, burstTime, first, local);
+      for (var i = 0; i < count; i++) {
+        pid[first + i] = first + i;
+        arrivalTime[first + i] = Double.doubleToRawLongBits(local[i]);
+      }
+    });
+
+    /** Second pass: the blocks are laid end to end and the offsets turned into arrival times */
+    var blockStart = new double[blocks];
+    for (var block = 1; block < blocks; block++) blockStart[block] = blockStart[block - 1] + blockSpan[block - 1];
+    IntStream.range(0, blocks).parallel().forEach(block -> {
+      var first = block * BLOCK_SIZE;
+      var count = Math.min(BLOCK_SIZE, n - first);
+      for (var i = first; i < first + count; i++)
+        arrivalTime[i] = toTime(blockStart[block] + Double.longBitsToDouble(arrivalTime[i]));
+    });
+    /** Rounding can send an arrival a unit before the previous one, the stream makes the same fix */
+    for (var i = 1; i < n; i++) arrivalTime[i] = Math.max(arrivalTime[i], arrivalTime[i - 1]);
+    return new Workload(pid, null, burstTime, arrivalTime, new int[n]);
+  }
+
+  /**
+   * Streams processes lazily, in arrival order, holding one block at a time. The stream is sequential
+   * and gives the same processes as {@link #generate(int)} with the same count.
+   *
+   * @param count number of processes
+   * @return the processes, created as the stream is consumed
+   * @throws IllegalArgumentException if count is negative
+   */
+  public Stream<PCB> stream(long count) {
+    if (count < 0) throw new IllegalArgumentException("Negative number of processes: " + count);
+    var spliterator = Spliterators.spliterator(new Cursor(count), count,
+        Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    return StreamSupport.stream(spliterator, false);
+  }
+
+  private final class Cursor implements Iterator<PCB> {
+    private final long count;
+    private final long[] burstTime = new long[BLOCK_SIZE];
+    private final double[] offset = new double[BLOCK_SIZE];
+    private long next;
+    private int block = -1;
+    private int blockSize;
+    private int position;
+    private double blockStart;
+    private double blockSpan;
+    private long lastArrival;
+
+    Cursor(long count) {
+      this.count = count;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < count;
+    }
+
+    @Override
+    public PCB next() {
+      if (next >= count) throw new NoSuchElementException();
+      if (position == blockSize) {
+        blockStart += blockSpan;
+        block++;
+        blockSize = (int) Math.min(BLOCK_SIZE, count - next);
+        blockSpan = drawBlock(block, blockSize, burstTime, 0, offset);
+        position = 0;
+      }
+      lastArrival = Math.max(lastArrival, toTime(blockStart + offset[position]));
+      var process = new PCB("P" + next, burstTime[position], lastArrival);
+      position++;
+      next++;
+      return process;
+    }
+  }
+
+  /**
+   * Draws the processes of a block.
+   *
+   * @param block     index of the block
+   * @param count     number of processes in the block
+   * @param burstTime receives the burst times, from index first on
+   * @param first     index of the first process of the block in burstTime
+   * @param offset    receives the arrival of every process, in uniform rate time from the block start
+   * @return the uniform rate time from the start of the block to the start of the next one
+   */
+  private double drawBlock(int block, int count, long[] burstTime, int first, double[] offset) {
+    var random = new SplittableRandom(blockSeed(block));
+    var quiet = arrivalProcess == ArrivalProcess.BURSTY && random.nextDouble() < BURSTY_QUIET_SHARE;
+    var time = 0D;
+    for (var i = 0; i < count; i++) {
+      var meanGap = meanInterArrival;
+      if (arrivalProcess == ArrivalProcess.BURSTY) {
+        meanGap *= quiet ? BURSTY_QUIET_FACTOR : BURSTY_BURST_FACTOR;
+        if (random.nextDouble() < (quiet ? BURSTY_LEAVE_QUIET : BURSTY_LEAVE_BURST)) quiet = !quiet;
+      }
+      /** The first process of the whole workload arrives at 0 */
+      if (block > 0 || i > 0) time += exponential(random, meanGap);
+      offset[i] = time;
+      burstTime[first + i] = burst(random);
+    }
+    return time + exponential(random, meanInterArrival);
+  }
+
+  private long burst(SplittableRandom random) {
+    double value;
+    switch (burstDistribution) {
+      case EXPONENTIAL:
+        value = exponential(random, meanBurst);
+        break;
+      case PARETO:
+        var scale = meanBurst * (PARETO_ALPHA - 1) / PARETO_ALPHA;
+        value = scale / Math.pow(1.0 - random.nextDouble(), 1.0 / PARETO_ALPHA);
+        break;
+      default:
+        var isLong = random.nextDouble() < BIMODAL_LONG_SHARE;
+        value = exponential(random, meanBurst * (isLong ? BIMODAL_LONG_FACTOR : BIMODAL_SHORT_FACTOR));
+        break;
+    }
+    return Math.max(1L, Math.round(Math.min(value, meanBurst * MAX_BURST_FACTOR)));
+  }
+
+  private static double exponential(SplittableRandom random, double mean) {
+    return -mean * Math.log(1.0 - random.nextDouble());
+  }
+
+  /**
+   * Turns a uniform rate time into an arrival time. Diurnal arrivals go through the inverse of the
+   * cumulative rate, which packs the arrivals where the rate is high.
+   */
+  private long toTime(double uniformTime) {
+    if (arrivalProcess != ArrivalProcess.DIURNAL) return (long) uniformTime;
+    return (long) diurnalTime(uniformTime, meanInterArrival * DIURNAL_PERIOD_ARRIVALS);
+  }
+
+  /**
+   * Solves t + A P / 2pi (1 - cos(2pi t / P)) = s, the cumulative rate of a rate 1 + A sin(2pi t / P)
+   * being s. The cumulative rate equals t at every multiple of the period, so t lies in the period of
+   * s; Newton steps falling out of that period are replaced by bisection.
+   */
+  static double diurnalTime(double s, double period) {
+    var omega = 2 * Math.PI / period;
+    var low = Math.floor(s / period) * period;
+    var high = low + period;
+    var t = s;
+    for (var i = 0; i < 50; i++) {
+      var f = t + DIURNAL_AMPLITUDE / omega * (1 - Math.cos(omega * t)) - s;
+      if (Math.abs(f) <= 4 * Math.ulp(s)) break;
+      if (f > 0) high = t;
+      else low = t;
+      var next = t - f / (1 + DIURNAL_AMPLITUDE * Math.sin(omega * t));
+      t = next > low && next < high ? next : (low + high) / 2;
+    }
+    return t;
+  }
+
+  private long blockSeed(int block) {
+    var z = seed + (block + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  @Override
+  public String toString() {
+    return "WorkloadGenerator [arrivalProcess=" + arrivalProcess + ", burstDistribution=" + burstDistribution
+        + ", meanInterArrival=" + meanInterArrival + ", meanBurst=" + meanBurst + ", seed=" + seed + "]";
+  }
+}
@@ -0,0 +1,41 @@
+package g3.srjf.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Workloads of the benchmarks, drawn with the {@link WorkloadGenerator}. A shape names an arrival
+ * process and a burst distribution, e.g. {@code POISSON/EXPONENTIAL} for uniform load,
+ * {@code BURSTY/BIMODAL} for bursts of arrivals and {@code DIURNAL/PARETO} for heavy tailed bursts.
+ * The mean burst is close to the mean inter-arrival time so the CPU is neither always idle nor
+ * hopelessly overloaded.
+ */
+final class BenchmarkWorkloads {
+  static final double MEAN_INTER_ARRIVAL = 10;
+  static final double MEAN_BURST = 9;
+
+  private BenchmarkWorkloads() {
+  }
+
+  /**
+   * @param shape "ARRIVALS/BURSTS", the names of a {@link WorkloadGenerator.ArrivalProcess} and of a
+   *              {@link WorkloadGenerator.BurstDistribution}
+   * @param seed  seed of the generator, the same seed gives the same workload
+   * @throws IllegalArgumentException if the shape does not name an arrival process and a distribution
+   */
+  static WorkloadGenerator generator(String shape, long seed) {
+    var parts = shape.split("/");
+    if (parts.length != 2) throw new IllegalArgumentException("Shape must be ARRIVALS/BURSTS: " + shape);
+    return new WorkloadGenerator(WorkloadGenerator.ArrivalProcess.valueOf(parts[0]),
+        WorkloadGenerator.BurstDistribution.valueOf(parts[1]), MEAN_INTER_ARRIVAL, MEAN_BURST, seed);
+  }
+
+  static List<PCB> processes(int n, String shape, long seed) {
+    return generator(shape, seed).stream(n).collect(Collectors.toCollection(() -> new ArrayList<>(n)));
+  }
+
+  static Workload workload(int n, String shape, long seed) {
+    return generator(shape, seed).generate(n);
+  }
+}
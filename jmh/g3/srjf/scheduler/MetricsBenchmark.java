@@ -0,0 +1,76 @@
+package g3.srjf.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Every compute* metric method of {@link Scheduler}, recomputed from the schedule table of one
+ * preemptive run made during the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class MetricsBenchmark {
+  @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+  int processes;
+
+  @Param({ "POISSON/EXPONENTIAL", "BURSTY/BIMODAL", "DIURNAL/PARETO" })
+  String shape;
+
+  @Param("42")
+  long seed;
+
+  private ShortestJobFirst srjf;
+
+  @Setup(Level.Trial)
+  public void schedule() {
+    srjf = new ShortestJobFirst(BenchmarkWorkloads.processes(processes, shape, seed));
+    srjf.shortestRemainingJobFirstScheduler(true);
+  }
+
+  @Benchmark
+  public void computeCompletionTime(Blackhole blackhole) {
+    srjf.computeCompletionTime();
+    blackhole.consume(srjf.getCompletionTime());
+  }
+
+  @Benchmark
+  public void computeTurnAroundTime(Blackhole blackhole) {
+    srjf.computeTurnAroundTime();
+    blackhole.consume(srjf.getAverageTurnAroundTime());
+  }
+
+  @Benchmark
+  public void computeWaitingTime(Blackhole blackhole) {
+    srjf.computeWaitingTime();
+    blackhole.consume(srjf.getAverageWaitingTime());
+  }
+
+  @Benchmark
+  public void computeResponseTime(Blackhole blackhole) {
+    srjf.computeResponseTime();
+    blackhole.consume(srjf.getAverageResponseTime());
+  }
+
+  @Benchmark
+  public void computeThroughput(Blackhole blackhole) {
+    srjf.computeThroughput();
+    blackhole.consume(srjf.getThroughput());
+  }
+}
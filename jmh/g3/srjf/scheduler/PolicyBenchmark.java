@@ -0,0 +1,69 @@
+package g3.srjf.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The scheduling policies of the {@link SimulationEngine} on the same generated {@link Workload}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PolicyBenchmark {
+  @Param({ "1000", "100000", "10000000" })
+  int processes;
+
+  @Param({ "POISSON/EXPONENTIAL", "BURSTY/BIMODAL", "DIURNAL/PARETO" })
+  String shape;
+
+  @Param({ "srtf", "round-robin", "predicted", "priority-aging", "mlfq" })
+  String policy;
+
+  @Param("42")
+  long seed;
+
+  private Workload workload;
+
+  @Setup(Level.Trial)
+  public void generate() {
+    workload = BenchmarkWorkloads.workload(processes, shape, seed);
+  }
+
+  private SchedulingPolicy newPolicy() {
+    switch (policy) {
+      case "srtf":
+        return new ShortestRemainingTimePolicy(true);
+      case "round-robin":
+        return new RoundRobinPolicy(8);
+      case "predicted":
+        return new PredictedBurstPolicy(new ExponentialAveragingPredictor(0.5, 10), true);
+      case "priority-aging":
+        return new PriorityPolicy(true, 100);
+      case "mlfq":
+        return new MultiLevelFeedbackQueuePolicy(new long[] { 8, 16, 32, 64 }, 1000);
+      default:
+        throw new IllegalArgumentException("Unknown policy " + policy);
+    }
+  }
+
+  @Benchmark
+  public void simulate(Blackhole blackhole) {
+    blackhole.consume(Scheduler.simulate(workload, newPolicy()));
+  }
+}
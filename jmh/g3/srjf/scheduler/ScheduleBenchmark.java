@@ -0,0 +1,66 @@
+package g3.srjf.scheduler;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@code ShortestJobFirst.shortestRemainingJobFirstScheduler}, preemptive and not, on the comparator
+ * loop and on the primitive ready queue, for 10^3 to 10^7 generated processes. Every invocation
+ * schedules the whole workload on a new scheduler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ScheduleBenchmark {
+  @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+  int processes;
+
+  @Param({ "POISSON/EXPONENTIAL", "BURSTY/BIMODAL", "DIURNAL/PARETO" })
+  String shape;
+
+  @Param({ "false", "true" })
+  boolean primitiveReadyQueue;
+
+  @Param("42")
+  long seed;
+
+  private List<PCB> workload;
+
+  @Setup(Level.Trial)
+  public void generate() {
+    workload = BenchmarkWorkloads.processes(processes, shape, seed);
+  }
+
+  private ScheduleTable schedule(boolean isPreemptive) {
+    var srjf = new ShortestJobFirst(workload);
+    srjf.setPrimitiveReadyQueue(primitiveReadyQueue);
+    return srjf.shortestRemainingJobFirstScheduler(isPreemptive);
+  }
+
+  @Benchmark
+  public void preemptive(Blackhole blackhole) {
+    blackhole.consume(schedule(true));
+  }
+
+  @Benchmark
+  public void nonPreemptive(Blackhole blackhole) {
+    blackhole.consume(schedule(false));
+  }
+}
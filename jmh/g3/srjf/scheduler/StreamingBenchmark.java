@@ -0,0 +1,44 @@
+package g3.srjf.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * A generated stream of processes submitted to an {@link OnlineScheduler}, which only holds the live
+ * processes: the heap stays small however long the stream. Every slice is consumed by the blackhole.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StreamingBenchmark {
+  @Param({ "1000000", "10000000" })
+  long processes;
+
+  @Param({ "POISSON/EXPONENTIAL", "BURSTY/EXPONENTIAL", "DIURNAL/EXPONENTIAL" })
+  String shape;
+
+  @Param("42")
+  long seed;
+
+  @Benchmark
+  public void stream(Blackhole blackhole) {
+    var online = new OnlineScheduler(true, blackhole::consume);
+    BenchmarkWorkloads.generator(shape, seed).stream(processes).forEach(online::submit);
+    online.finish();
+    blackhole.consume(online.getAverageWaitingTime());
+  }
+}